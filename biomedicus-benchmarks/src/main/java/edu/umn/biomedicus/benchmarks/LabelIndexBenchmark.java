@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.umn.biomedicus.benchmarks;
+
+import edu.umn.biomedicus.sentences.Sentence;
+import edu.umn.biomedicus.tokenization.ParseToken;
+import edu.umn.nlpengine.DistinctLabelIndex;
+import edu.umn.nlpengine.LabelIndex;
+import edu.umn.nlpengine.StandardLabelIndex;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the query methods of {@link StandardLabelIndex} and {@link DistinctLabelIndex},
+ * querying the tokens of every sentence in a document.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LabelIndexBenchmark {
+
+  @Param({"100", "1000"})
+  public int sentenceCount;
+
+  private List<Sentence> sentences;
+
+  /**
+   * The tokens, as an iterable so the label index constructors which sort their labels are used.
+   */
+  private Iterable<ParseToken> tokens;
+
+  private StandardLabelIndex<ParseToken> standardIndex;
+
+  private DistinctLabelIndex<ParseToken> distinctIndex;
+
+  @Setup
+  public void setUp() {
+    SyntheticDocument document = new SyntheticDocument(sentenceCount, 42);
+    sentences = document.getSentences();
+    tokens = document.getTokens();
+    standardIndex = new StandardLabelIndex<>(ParseToken.class, tokens);
+    distinctIndex = new DistinctLabelIndex<>(ParseToken.class, tokens);
+  }
+
+  @Benchmark
+  public void standardCreate(Blackhole blackhole) {
+    blackhole.consume(new StandardLabelIndex<>(ParseToken.class, tokens));
+  }
+
+  @Benchmark
+  public void standardInside(Blackhole blackhole) {
+    inside(standardIndex, blackhole);
+  }
+
+  @Benchmark
+  public void standardContaining(Blackhole blackhole) {
+    containing(standardIndex, blackhole);
+  }
+
+  @Benchmark
+  public void standardBackwardFrom(Blackhole blackhole) {
+    backwardFrom(standardIndex, blackhole);
+  }
+
+  @Benchmark
+  public void standardAtLocation(Blackhole blackhole) {
+    atLocation(standardIndex, blackhole);
+  }
+
+  @Benchmark
+  public void distinctCreate(Blackhole blackhole) {
+    blackhole.consume(new DistinctLabelIndex<>(ParseToken.class, tokens));
+  }
+
+  @Benchmark
+  public void distinctInside(Blackhole blackhole) {
+    inside(distinctIndex, blackhole);
+  }
+
+  @Benchmark
+  public void distinctContaining(Blackhole blackhole) {
+    containing(distinctIndex, blackhole);
+  }
+
+  @Benchmark
+  public void distinctBackwardFrom(Blackhole blackhole) {
+    backwardFrom(distinctIndex, blackhole);
+  }
+
+  @Benchmark
+  public void distinctAtLocation(Blackhole blackhole) {
+    atLocation(distinctIndex, blackhole);
+  }
+
+  private void inside(LabelIndex<ParseToken> index, Blackhole blackhole) {
+    for (Sentence sentence : sentences) {
+      for (ParseToken token : index.inside(sentence)) {
+        blackhole.consume(token);
+      }
+    }
+  }
+
+  private void containing(LabelIndex<ParseToken> index, Blackhole blackhole) {
+    for (ParseToken token : tokens) {
+      blackhole.consume(index.containing(token.getStartIndex(), token.getStartIndex() + 1)
+          .first());
+    }
+  }
+
+  private void backwardFrom(LabelIndex<ParseToken> index, Blackhole blackhole) {
+    for (Sentence sentence : sentences) {
+      blackhole.consume(index.backwardFrom(sentence).first());
+    }
+  }
+
+  private void atLocation(LabelIndex<ParseToken> index, Blackhole blackhole) {
+    for (ParseToken token : tokens) {
+      blackhole.consume(index.firstAtLocation(token));
+    }
+  }
+}
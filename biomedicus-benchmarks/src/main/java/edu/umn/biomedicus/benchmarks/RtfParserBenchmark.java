@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.umn.biomedicus.benchmarks;
+
+import edu.umn.biomedicus.rtf.beans.keywords.ControlKeywordsDescription;
+import edu.umn.biomedicus.rtf.beans.properties.PropertiesDescription;
+import edu.umn.biomedicus.rtf.exc.RtfReaderException;
+import edu.umn.biomedicus.rtf.reader.CharArrayRtfSource;
+import edu.umn.biomedicus.rtf.reader.KeywordAction;
+import edu.umn.biomedicus.rtf.reader.OutputDestination;
+import edu.umn.biomedicus.rtf.reader.ReaderRtfSource;
+import edu.umn.biomedicus.rtf.reader.RtfKeywordParser;
+import edu.umn.biomedicus.rtf.reader.RtfParser;
+import edu.umn.biomedicus.rtf.reader.RtfSource;
+import edu.umn.biomedicus.rtf.reader.State;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link RtfParser#parseFile()} on a synthetic RTF note, using the control keywords
+ * and properties shipped with the RTF module.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class RtfParserBenchmark {
+
+  @Param({"100", "1000"})
+  public int paragraphCount;
+
+  private String document;
+
+  private Map<String, Map<String, Integer>> properties;
+
+  private RtfKeywordParser rtfKeywordParser;
+
+  @Setup
+  public void setUp() {
+    properties = PropertiesDescription
+        .loadFromFile("edu/umn/biomedicus/rtf/PropertiesDescription.xml")
+        .createProperties();
+    Map<String, KeywordAction> keywordActions = ControlKeywordsDescription
+        .loadFromFile("edu/umn/biomedicus/rtf/ControlKeywords.xml")
+        .getKeywordActionsAsMap();
+    rtfKeywordParser = new RtfKeywordParser(keywordActions);
+    document = createDocument(paragraphCount, new Random(42));
+  }
+
+  @Benchmark
+  public int parseReader() throws RtfReaderException {
+    return parse(new ReaderRtfSource(new StringReader(document)));
+  }
+
+  @Benchmark
+  public int parseCharArray() throws RtfReaderException {
+    return parse(new CharArrayRtfSource(document.toCharArray()));
+  }
+
+  private int parse(RtfSource rtfSource) throws RtfReaderException {
+    int[] written = new int[1];
+    State state = State.createState(name -> new CountingOutputDestination(name),
+        properties, (destinationName, destinationIndex, location) -> written[0]++);
+    RtfParser parser = new RtfParser(rtfKeywordParser, rtfSource, state);
+    parser.parseFile();
+    parser.finish();
+    return written[0];
+  }
+
+  /**
+   * Creates an RTF document with a header, and paragraphs of text with nested formatting groups,
+   * hex escaped characters and unicode characters, like the notes exported by word processors.
+   */
+  static String createDocument(int paragraphCount, Random random) {
+    StringBuilder builder = new StringBuilder();
+    builder.append("{\\rtf1\\ansi\\ansicpg1252\\deff0{\\fonttbl{\\f0\\fswiss Arial;}"
+        + "{\\f1\\fmodern Courier New;}}{\\colortbl;\\red0\\green0\\blue0;}"
+        + "{\\info{\\author Synthetic}{\\creatim\\yr2018\\mo1\\dy1}}\\paperw12240\\paperh15840"
+        + "\\margl1800\\margr1800\\uc1\n");
+    for (int i = 0; i < paragraphCount; i++) {
+      builder.append("\\pard\\plain\\ql\\li").append(random.nextInt(720)).append(' ');
+      int words = 10 + random.nextInt(40);
+      for (int j = 0; j < words; j++) {
+        String word = SyntheticDocument.WORDS[random.nextInt(SyntheticDocument.WORDS.length)];
+        switch (random.nextInt(12)) {
+          case 0:
+            builder.append("{\\b ").append(word).append('}');
+            break;
+          case 1:
+            builder.append("{\\i\\f1 ").append(word).append("\\i0}");
+            break;
+          case 2:
+            builder.append("caf\\'e9");
+            break;
+          case 3:
+            builder.append("\\u8364?").append(word);
+            break;
+          case 4:
+            builder.append("{\\*\\bkmkstart bm").append(j).append('}').append(word);
+            break;
+          default:
+            builder.append(word);
+            break;
+        }
+        builder.append(' ');
+      }
+      builder.append("\\par\n");
+    }
+    builder.append('}');
+    return builder.toString();
+  }
+
+  /**
+   * An output destination which only counts the characters written to it which are not hidden.
+   */
+  private static final class CountingOutputDestination implements OutputDestination {
+
+    private final String name;
+
+    private int count = 0;
+
+    private int hiddenSlot = -1;
+
+    CountingOutputDestination(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public int writeChar(char ch, State state) {
+      if (hiddenSlot == -1) {
+        hiddenSlot = state.getPropertySlot("CharacterFormatting", "Hidden");
+      }
+      if (state.getPropertyValue(hiddenSlot) != 0) {
+        return -1;
+      }
+      return count++;
+    }
+
+    @Override
+    public void finishDestination() {
+
+    }
+
+    @Override
+    public void controlWordEncountered(KeywordAction keywordAction) {
+
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+  }
+}
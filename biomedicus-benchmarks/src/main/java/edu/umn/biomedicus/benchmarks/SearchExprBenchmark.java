@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.umn.biomedicus.benchmarks;
+
+import edu.umn.biomedicus.framework.LabelAliases;
+import edu.umn.biomedicus.framework.SearchExpr;
+import edu.umn.biomedicus.framework.Searcher;
+import edu.umn.biomedicus.sentences.Sentence;
+import edu.umn.biomedicus.tokenization.ParseToken;
+import edu.umn.nlpengine.Document;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of parsing TagEx search expressions, bypassing the cache in
+ * {@link edu.umn.biomedicus.framework.SearchExprFactory}, and of searching a document with them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchExprBenchmark {
+
+  /**
+   * An expression similar to the text time pattern, with several alternatives and regular
+   * expression property matches.
+   */
+  static final String TIME_EXPR = "[?ParseToken<getText=r\"[0-2]?[0-9]\">]"
+      + " ParseToken<getText=\":\"> ParseToken<getText=r\"[0-5][0-9]\">"
+      + " ParseToken<getText=i\"am\"|i\"pm\">?"
+      + " | [?ParseToken<getText=\"aspirin\">] ParseToken<getText=r\"[0-9]+\">"
+      + " ParseToken<getText=\"mg\">";
+
+  /**
+   * An expression with a reluctant gap between its anchor tokens.
+   */
+  static final String GAP_EXPR = "[?ParseToken<getText=\"denies\">] ParseToken{0,4}?"
+      + " ParseToken<getText=\"fever\"|\"chills\">";
+
+  @Param({"100", "1000"})
+  public int sentenceCount;
+
+  private LabelAliases labelAliases;
+
+  private Document document;
+
+  private SearchExpr timeExpr;
+
+  private SearchExpr gapExpr;
+
+  @Setup
+  public void setUp() {
+    labelAliases = new LabelAliases();
+    labelAliases.addAlias("ParseToken", ParseToken.class);
+    labelAliases.addAlias("Sentence", Sentence.class);
+    document = new SyntheticDocument(sentenceCount, 42).createDocument();
+    timeExpr = SearchExpr.parse(labelAliases, TIME_EXPR);
+    gapExpr = SearchExpr.parse(labelAliases, GAP_EXPR);
+  }
+
+  @Benchmark
+  public SearchExpr parse() {
+    return SearchExpr.parse(labelAliases, TIME_EXPR);
+  }
+
+  @Benchmark
+  public void searchDocument(Blackhole blackhole) {
+    search(timeExpr, blackhole);
+  }
+
+  @Benchmark
+  public void searchDocumentWithGap(Blackhole blackhole) {
+    search(gapExpr, blackhole);
+  }
+
+  @Benchmark
+  public void searchSentences(Blackhole blackhole) {
+    Searcher searcher = timeExpr.createSearcher(document);
+    for (Sentence sentence : document.labelIndex(Sentence.class)) {
+      while (searcher.search(sentence.getStartIndex(), sentence.getEndIndex())) {
+        blackhole.consume(searcher.getBegin());
+      }
+    }
+  }
+
+  private void search(SearchExpr searchExpr, Blackhole blackhole) {
+    Searcher searcher = searchExpr.createSearcher(document);
+    while (searcher.search()) {
+      blackhole.consume(searcher.getBegin());
+    }
+  }
+}
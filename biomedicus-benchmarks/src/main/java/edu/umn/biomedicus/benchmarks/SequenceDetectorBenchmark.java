@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.umn.biomedicus.benchmarks;
+
+import edu.umn.biomedicus.common.SequenceDetector;
+import edu.umn.biomedicus.tokenization.ParseToken;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import kotlin.ranges.IntRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link SequenceDetector} detecting random word sequences in the tokens of a
+ * document, like the detectors of the social history and measures modules.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SequenceDetectorBenchmark {
+
+  @Param({"10", "1000"})
+  public int sequenceCount;
+
+  private List<ParseToken> tokens;
+
+  private SequenceDetector<String, ParseToken> detector;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    tokens = new SyntheticDocument(1000, 42).getTokens();
+    List<String>[] sequences = new List[sequenceCount];
+    for (int i = 0; i < sequenceCount; i++) {
+      String[] words = new String[1 + random.nextInt(4)];
+      for (int j = 0; j < words.length; j++) {
+        words[j] = SyntheticDocument.WORDS[random.nextInt(SyntheticDocument.WORDS.length)];
+      }
+      sequences[i] = Arrays.asList(words);
+    }
+    detector = new SequenceDetector<>(sequences,
+        (word, token) -> word.equalsIgnoreCase(token.getText()));
+  }
+
+  @Benchmark
+  public Collection<IntRange> detectAll() {
+    return detector.detectAll(tokens);
+  }
+
+  @Benchmark
+  public Collection<IntRange> matcherDetectAll() {
+    return detector.createMatcher().detectAll(tokens);
+  }
+
+  @Benchmark
+  public List<IntRange> detectAllSentences() {
+    List<IntRange> ranges = new ArrayList<>();
+    int begin = 0;
+    for (int i = 0; i < tokens.size(); i++) {
+      if (".".equals(tokens.get(i).getText())) {
+        ranges.addAll(detector.detectAll(tokens.subList(begin, i + 1)));
+        begin = i + 1;
+      }
+    }
+    return ranges;
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.umn.biomedicus.benchmarks;
+
+import edu.umn.biomedicus.sentences.Sentence;
+import edu.umn.biomedicus.tokenization.ParseToken;
+import edu.umn.nlpengine.Document;
+import edu.umn.nlpengine.Labeler;
+import edu.umn.nlpengine.StandardArtifact;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A synthetic clinical-looking document of tokens and sentences, generated from a fixed seed so
+ * every benchmark run sees the same data without needing any models.
+ */
+final class SyntheticDocument {
+
+  /**
+   * The vocabulary the words are drawn from.
+   */
+  static final String[] WORDS = {
+      "the", "patient", "reports", "pain", "in", "left", "chest", "since", "yesterday", "denies",
+      "fever", "or", "chills", "took", "aspirin", "81", "mg", "daily", "at", "10", ":", "30",
+      "pm", "and", "was", "seen", "by", "cardiology", "for", "follow", "up", ","
+  };
+
+  private final String text;
+
+  private final List<ParseToken> tokens;
+
+  private final List<Sentence> sentences;
+
+  /**
+   * Generates a document.
+   *
+   * @param sentenceCount the number of sentences.
+   * @param seed the random seed.
+   */
+  SyntheticDocument(int sentenceCount, long seed) {
+    Random random = new Random(seed);
+    StringBuilder builder = new StringBuilder();
+    List<ParseToken> tokens = new ArrayList<>();
+    List<Sentence> sentences = new ArrayList<>();
+    for (int i = 0; i < sentenceCount; i++) {
+      int sentenceBegin = builder.length();
+      int length = 5 + random.nextInt(25);
+      for (int j = 0; j <= length; j++) {
+        String word = j == length ? "." : WORDS[random.nextInt(WORDS.length)];
+        int begin = builder.length();
+        builder.append(word);
+        tokens.add(new ParseToken(begin, builder.length(), word, true));
+        builder.append(' ');
+      }
+      sentences.add(new Sentence(sentenceBegin, builder.length() - 1));
+    }
+    text = builder.toString();
+    this.tokens = Collections.unmodifiableList(tokens);
+    this.sentences = Collections.unmodifiableList(sentences);
+  }
+
+  String getText() {
+    return text;
+  }
+
+  List<ParseToken> getTokens() {
+    return tokens;
+  }
+
+  List<Sentence> getSentences() {
+    return sentences;
+  }
+
+  /**
+   * Creates a new document with the text, tokens and sentences.
+   *
+   * @return the new document
+   */
+  Document createDocument() {
+    Document document = new StandardArtifact("benchmark").addDocument("Analysis", text);
+    Labeler<ParseToken> tokenLabeler = document.labeler(ParseToken.class);
+    tokens.forEach(tokenLabeler::add);
+    Labeler<Sentence> sentenceLabeler = document.labeler(Sentence.class);
+    sentences.forEach(sentenceLabeler::add);
+    return document;
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.umn.biomedicus.benchmarks;
+
+import edu.umn.biomedicus.common.grams.Bigram;
+import edu.umn.biomedicus.common.grams.Ngram;
+import edu.umn.biomedicus.common.viterbi.CandidateProbability;
+import edu.umn.biomedicus.common.viterbi.EmissionProbabilityModel;
+import edu.umn.biomedicus.common.viterbi.OrdinalCandidates;
+import edu.umn.biomedicus.common.viterbi.OrdinalEmissionProbabilityModel;
+import edu.umn.biomedicus.common.viterbi.OrdinalTransitionProbabilityModel;
+import edu.umn.biomedicus.common.viterbi.OrdinalViterbiProcessor;
+import edu.umn.biomedicus.common.viterbi.TransitionProbabilityModel;
+import edu.umn.biomedicus.common.viterbi.Viterbi;
+import edu.umn.biomedicus.common.viterbi.ViterbiProcessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of second order viterbi decoding of a sentence, with a random hidden Markov model
+ * about the size of the TnT part of speech model.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ViterbiBenchmark {
+
+  private static final int SKIP = 0;
+
+  private static final int START = 1;
+
+  private static final int END = 2;
+
+  private static final double BEAM_THRESHOLD = 2.0;
+
+  @Param({"50"})
+  public int stateCount;
+
+  @Param({"25"})
+  public int sentenceLength;
+
+  private RandomModel model;
+
+  private List<double[]> sentence;
+
+  private OrdinalViterbiProcessor<Integer, double[]> ordinalProcessor;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    model = new RandomModel(stateCount, random);
+    sentence = new ArrayList<>();
+    for (int i = 0; i < sentenceLength; i++) {
+      double[] emission = new double[stateCount];
+      for (int state = 0; state < stateCount; state++) {
+        emission[state] = state <= END || random.nextInt(4) != 0 ? Double.NaN
+            : Math.log10(random.nextDouble());
+      }
+      sentence.add(emission);
+    }
+    ordinalProcessor = Viterbi.secondOrderOrdinal(model, model, stateCount, Integer::valueOf,
+        Integer::intValue, Ngram.create(START, START));
+  }
+
+  @Benchmark
+  public List<Integer> secondOrder() {
+    ViterbiProcessor<Integer, double[]> processor = Viterbi.secondOrder(model, model,
+        Ngram.create(START, START), Ngram::create);
+    for (double[] emission : sentence) {
+      processor.advance(emission);
+      processor.beamFilter(BEAM_THRESHOLD);
+    }
+    return processor.end(SKIP, END);
+  }
+
+  @Benchmark
+  public List<Integer> secondOrderOrdinal() {
+    ordinalProcessor.reset();
+    for (double[] emission : sentence) {
+      ordinalProcessor.advance(emission);
+      ordinalProcessor.beamFilter(BEAM_THRESHOLD);
+    }
+    return ordinalProcessor.end(SKIP, END);
+  }
+
+  /**
+   * A model with random transition probabilities, where the emission probabilities of the states
+   * are the values of the emitted arrays, and states with NaN values are not candidates.
+   */
+  private static final class RandomModel implements EmissionProbabilityModel<Integer, double[]>,
+      TransitionProbabilityModel<Integer, Bigram<Integer>>,
+      OrdinalEmissionProbabilityModel<double[]>, OrdinalTransitionProbabilityModel {
+
+    private final int stateCount;
+
+    private final double[] transitions;
+
+    RandomModel(int stateCount, Random random) {
+      this.stateCount = stateCount;
+      transitions = new double[stateCount * stateCount * stateCount];
+      for (int i = 0; i < transitions.length; i++) {
+        transitions[i] = Math.log10(random.nextDouble());
+      }
+    }
+
+    @Override
+    public Collection<CandidateProbability<Integer>> getCandidates(double[] emittedValue) {
+      List<CandidateProbability<Integer>> candidates = new ArrayList<>();
+      for (int state = 0; state < emittedValue.length; state++) {
+        if (!Double.isNaN(emittedValue[state])) {
+          candidates.add(Viterbi.candidateOf(state, emittedValue[state]));
+        }
+      }
+      return candidates;
+    }
+
+    @Override
+    public void getCandidates(double[] emittedValue, OrdinalCandidates candidates) {
+      for (int state = 0; state < emittedValue.length; state++) {
+        if (!Double.isNaN(emittedValue[state])) {
+          candidates.add(state, emittedValue[state]);
+        }
+      }
+    }
+
+    @Override
+    public double getTransitionLogProbability(Bigram<Integer> statesReduction, Integer candidate) {
+      return getTransitionLogProbability(statesReduction.getFirst(), statesReduction.getSecond(),
+          candidate);
+    }
+
+    @Override
+    public double getTransitionLogProbability(int first, int second, int candidate) {
+      return transitions[(first * stateCount + second) * stateCount + candidate];
+    }
+  }
+}
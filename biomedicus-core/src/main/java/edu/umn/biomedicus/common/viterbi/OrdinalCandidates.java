@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.umn.biomedicus.common.viterbi;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of candidate hidden state ordinals and the log base 10 probabilities that they
+ * emit a value, filled by an {@link OrdinalEmissionProbabilityModel}.
+ *
+ * @since 2.2.0
+ */
+public final class OrdinalCandidates {
+
+  private int[] ordinals = new int[16];
+
+  private double[] emissionLogProbabilities = new double[16];
+
+  private int size = 0;
+
+  /**
+   * Adds a candidate hidden state.
+   *
+   * @param ordinal the ordinal of the candidate hidden state
+   * @param emissionLogProbability log base 10 probability that the candidate emits the value
+   */
+  public void add(int ordinal, double emissionLogProbability) {
+    if (size == ordinals.length) {
+      ordinals = Arrays.copyOf(ordinals, size * 2);
+      emissionLogProbabilities = Arrays.copyOf(emissionLogProbabilities, size * 2);
+    }
+    ordinals[size] = ordinal;
+    emissionLogProbabilities[size] = emissionLogProbability;
+    size++;
+  }
+
+  /**
+   * The number of candidates in the buffer.
+   *
+   * @return count of candidates
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * The ordinal of the candidate at an index.
+   *
+   * @param index the index in the order the candidates were added
+   * @return hidden state ordinal
+   */
+  public int ordinal(int index) {
+    return ordinals[index];
+  }
+
+  /**
+   * The log base 10 emission probability of the candidate at an index.
+   *
+   * @param index the index in the order the candidates were added
+   * @return log base 10 probability
+   */
+  public double emissionLogProbability(int index) {
+    return emissionLogProbabilities[index];
+  }
+
+  /**
+   * Removes all candidates from the buffer.
+   */
+  public void clear() {
+    size = 0;
+  }
+}
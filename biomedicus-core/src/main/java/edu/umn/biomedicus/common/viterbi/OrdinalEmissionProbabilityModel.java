@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.umn.biomedicus.common.viterbi;
+
+/**
+ * Provides the candidate hidden states, identified by ordinal, and the probability that they will
+ * emit a given value.
+ *
+ * @param <Y> The type of an emitted value.
+ * @since 2.2.0
+ */
+@FunctionalInterface
+public interface OrdinalEmissionProbabilityModel<Y> {
+
+  /**
+   * Adds the ordinals of the candidate hidden states for the emitted value along with the
+   * probability that they emit it to the candidates buffer.
+   *
+   * @param emittedValue the emitted value from the series for which hidden states are being found.
+   * @param candidates the buffer to add candidates to.
+   */
+  void getCandidates(Y emittedValue, OrdinalCandidates candidates);
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.umn.biomedicus.common.viterbi;
+
+/**
+ * Provides the probability of transition to a hidden state from the two previous hidden states,
+ * where all hidden states are identified by ordinal.
+ *
+ * @since 2.2.0
+ */
+@FunctionalInterface
+public interface OrdinalTransitionProbabilityModel {
+
+  /**
+   * Gets the log base 10 probability that the two previous hidden states lead to a candidate next
+   * state.
+   *
+   * @param first the ordinal of the earlier of the previous states.
+   * @param second the ordinal of the most recent previous state.
+   * @param candidate the ordinal of the candidate state.
+   * @return the log base 10 double precision floating point number probability
+   */
+  double getTransitionLogProbability(int first, int second, int candidate);
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.umn.biomedicus.common.viterbi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * A second-order Viterbi processor over hidden states identified by ordinals in
+ * {@code [0, stateCount)}. Finds the same most probable sequence as the processor created by
+ * {@link Viterbi#secondOrder}, but stores the lattice of ancestors in primitive arrays indexed by
+ * the ordinals of the two most recent states, with back pointers instead of history chains.
+ *
+ * <p>This class is not thread safe. It can be reused for another sequence after calling
+ * {@link #reset()}, which keeps its buffers.</p>
+ *
+ * @param <S> The hidden state type.
+ * @param <Y> The output/emitted-value type
+ * @since 2.2.0
+ */
+public final class OrdinalViterbiProcessor<S, Y> implements ViterbiProcessor<S, Y> {
+
+  private final OrdinalEmissionProbabilityModel<Y> emissionModel;
+
+  private final OrdinalTransitionProbabilityModel transitionModel;
+
+  private final int stateCount;
+
+  private final IntFunction<S> states;
+
+  private final ToIntFunction<S> ordinals;
+
+  private final int initialStates;
+
+  private final OrdinalCandidates candidates = new OrdinalCandidates();
+
+  /**
+   * For each state bigram, the stamp of the step that last wrote {@link #slotIndices}.
+   */
+  private final int[] slotStamps;
+
+  /**
+   * For each state bigram, the index of its entry in the lattice for the current step.
+   */
+  private final int[] slotIndices;
+
+  private int stamp = 0;
+
+  /**
+   * The state bigram, as {@code first * stateCount + second}, of every entry in the lattice.
+   */
+  private int[] bigrams = new int[256];
+
+  private double[] logProbabilities = new double[256];
+
+  /**
+   * The index of the ancestor entry in the previous step of every entry in the lattice.
+   */
+  private int[] backPointers = new int[256];
+
+  private int size;
+
+  private boolean[] skipped = new boolean[64];
+
+  private int steps;
+
+  /**
+   * The index of the first entry of the current step.
+   */
+  private int stepStart;
+
+  OrdinalViterbiProcessor(
+      OrdinalEmissionProbabilityModel<Y> emissionModel,
+      OrdinalTransitionProbabilityModel transitionModel,
+      int stateCount,
+      IntFunction<S> states,
+      ToIntFunction<S> ordinals,
+      S firstInitialState,
+      S secondInitialState
+  ) {
+    this.emissionModel = emissionModel;
+    this.transitionModel = transitionModel;
+    this.stateCount = stateCount;
+    this.states = states;
+    this.ordinals = ordinals;
+    initialStates = ordinals.applyAsInt(firstInitialState) * stateCount
+        + ordinals.applyAsInt(secondInitialState);
+    slotStamps = new int[stateCount * stateCount];
+    slotIndices = new int[stateCount * stateCount];
+    reset();
+  }
+
+  /**
+   * Resets this processor to the initial states so it can be used for another sequence.
+   */
+  public void reset() {
+    size = 0;
+    steps = 0;
+    stepStart = 0;
+    add(initialStates, 0.0, -1);
+  }
+
+  @Override
+  public void advance(Y emittedValue) {
+    candidates.clear();
+    emissionModel.getCandidates(emittedValue, candidates);
+
+    if (stamp == Integer.MAX_VALUE) {
+      Arrays.fill(slotStamps, 0);
+      stamp = 0;
+    }
+    stamp++;
+
+    int ancestorsStart = stepStart;
+    int ancestorsEnd = size;
+    for (int i = 0; i < candidates.size(); i++) {
+      int candidate = candidates.ordinal(i);
+      double emissionLogProbability = candidates.emissionLogProbability(i);
+      for (int ancestor = ancestorsStart; ancestor < ancestorsEnd; ancestor++) {
+        int bigram = bigrams[ancestor];
+        int first = bigram / stateCount;
+        int second = bigram % stateCount;
+        double logProbability = transitionModel.getTransitionLogProbability(first, second,
+            candidate) + emissionLogProbability + logProbabilities[ancestor];
+        if (!(logProbability > Double.NEGATIVE_INFINITY)) {
+          continue;
+        }
+
+        int descendant = second * stateCount + candidate;
+        if (slotStamps[descendant] != stamp) {
+          slotStamps[descendant] = stamp;
+          slotIndices[descendant] = size;
+          add(descendant, logProbability, ancestor);
+        } else {
+          int index = slotIndices[descendant];
+          if (!(logProbabilities[index] > logProbability)) {
+            logProbabilities[index] = logProbability;
+            backPointers[index] = ancestor;
+          }
+        }
+      }
+    }
+
+    boolean skip = size == ancestorsEnd;
+    if (skip) {
+      for (int ancestor = ancestorsStart; ancestor < ancestorsEnd; ancestor++) {
+        add(bigrams[ancestor], logProbabilities[ancestor], ancestor);
+      }
+    }
+
+    if (++steps == skipped.length) {
+      skipped = Arrays.copyOf(skipped, steps * 2);
+    }
+    skipped[steps] = skip;
+    stepStart = ancestorsEnd;
+  }
+
+  @Override
+  public void beamFilter(double beamThreshold) {
+    if (size - stepStart < 10) {
+      return;
+    }
+
+    double logGreatest = Double.NEGATIVE_INFINITY;
+    for (int i = stepStart; i < size; i++) {
+      logGreatest = Math.max(logGreatest, logProbabilities[i]);
+    }
+
+    double logBoundary = logGreatest - beamThreshold;
+
+    int kept = stepStart;
+    for (int i = stepStart; i < size; i++) {
+      if (logProbabilities[i] >= logBoundary) {
+        bigrams[kept] = bigrams[i];
+        logProbabilities[kept] = logProbabilities[i];
+        backPointers[kept] = backPointers[i];
+        kept++;
+      }
+    }
+    size = kept;
+    if (size == stepStart) {
+      throw new AssertionError("Number of ancestors should never drop to zero");
+    }
+  }
+
+  @Override
+  public List<S> end(S skipValue, S terminalValue) {
+    int terminal = ordinals.applyAsInt(terminalValue);
+
+    double maxLogProb = Double.NEGATIVE_INFINITY;
+    int maxProbEntry = -1;
+    for (int i = stepStart; i < size; i++) {
+      double trigramProbability = transitionModel.getTransitionLogProbability(
+          bigrams[i] / stateCount, bigrams[i] % stateCount, terminal);
+      double logProbability = logProbabilities[i] + Math.log10(trigramProbability);
+      if (logProbability > maxLogProb) {
+        maxLogProb = logProbability;
+        maxProbEntry = i;
+      }
+    }
+
+    if (maxProbEntry == -1) {
+      for (int i = stepStart; i < size; i++) {
+        if (logProbabilities[i] > maxLogProb) {
+          maxLogProb = logProbabilities[i];
+          maxProbEntry = i;
+        }
+      }
+      if (maxProbEntry == -1) {
+        throw new AssertionError("0-probability result");
+      }
+    }
+
+    List<S> history = new ArrayList<>(steps + 2);
+    int entry = maxProbEntry;
+    for (int step = steps; step > 0; step--) {
+      history.add(skipped[step] ? skipValue : states.apply(bigrams[entry] % stateCount));
+      entry = backPointers[entry];
+    }
+    history.add(states.apply(initialStates % stateCount));
+    history.add(states.apply(initialStates / stateCount));
+    Collections.reverse(history);
+    return history;
+  }
+
+  private void add(int bigram, double logProbability, int backPointer) {
+    if (size == bigrams.length) {
+      bigrams = Arrays.copyOf(bigrams, size * 2);
+      logProbabilities = Arrays.copyOf(logProbabilities, size * 2);
+      backPointers = Arrays.copyOf(backPointers, size * 2);
+    }
+    bigrams[size] = bigram;
+    logProbabilities[size] = logProbability;
+    backPointers[size] = backPointer;
+    size++;
+  }
+}
@@ -20,6 +20,8 @@ import edu.umn.biomedicus.common.grams.Bigram;
 import java.util.Collections;
 import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
 
 /**
  * Constructor class for viterbi processors.
@@ -87,6 +89,34 @@ public final class Viterbi {
         ancestors);
   }
 
+  /**
+   * Creates a new second-order {@link OrdinalViterbiProcessor}, which finds the same most probable
+   * sequence of hidden states as {@link #secondOrder} for models which identify hidden states by
+   * ordinal, without allocating objects for every candidate.
+   *
+   * @param emissionModel the emission probability model over hidden state ordinals.
+   * @param transitionModel the transition probability model over hidden state ordinals.
+   * @param stateCount the number of hidden states, all ordinals are less than this.
+   * @param states a function from an ordinal to its hidden state.
+   * @param ordinals a function from a hidden state to its ordinal.
+   * @param initialStates a bigram of the hidden state type.
+   * @param <S> the HMM hidden state type
+   * @param <Y> the HMM emitted value type
+   * @return ViterbiProcessor which consumes emitted values and computes most probable hidden state
+   * sequence, and can be reset to be reused.
+   */
+  public static <S, Y> OrdinalViterbiProcessor<S, Y> secondOrderOrdinal(
+      OrdinalEmissionProbabilityModel<Y> emissionModel,
+      OrdinalTransitionProbabilityModel transitionModel,
+      int stateCount,
+      IntFunction<S> states,
+      ToIntFunction<S> ordinals,
+      Bigram<S> initialStates
+  ) {
+    return new OrdinalViterbiProcessor<>(emissionModel, transitionModel, stateCount, states,
+        ordinals, initialStates.getFirst(), initialStates.getSecond());
+  }
+
   /**
    * Creates a new {@link CandidateProbability} of a candidate-state and an emission probable for
    * that candidate state. This method would be used when a {@link EmissionProbabilityModel} needs
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.concepts;
+
+import edu.umn.biomedicus.common.dictionary.StringsBag;
+import edu.umn.biomedicus.exc.BiomedicusException;
+import edu.umn.biomedicus.framework.LifecycleManaged;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link ConceptDictionary} which keeps the most recently found rows for each kind of key in a
+ * least recently used cache per thread, so the rows for common phrases are decoded once per thread
+ * instead of once per lookup. Misses are not cached.
+ *
+ * <p>The cached lists are unmodifiable and shared between lookups, along with the strings that
+ * their {@link ConceptRow}s have formatted.</p>
+ *
+ * @since 2.2.0
+ */
+class CachingConceptDictionary implements ConceptDictionary, LifecycleManaged {
+
+  private final ConceptDictionary dictionary;
+
+  private final ThreadLocal<Caches> caches;
+
+  CachingConceptDictionary(ConceptDictionary dictionary, int cacheSize) {
+    this.dictionary = dictionary;
+    caches = ThreadLocal.withInitial(() -> new Caches(cacheSize));
+  }
+
+  @Nullable
+  private static <T> List<ConceptRow> cached(
+      Map<T, List<ConceptRow>> cache,
+      T key,
+      Function<T, List<ConceptRow>> lookup
+  ) {
+    List<ConceptRow> rows = cache.get(key);
+    if (rows == null) {
+      rows = lookup.apply(key);
+      if (rows != null) {
+        rows = Collections.unmodifiableList(rows);
+        cache.put(key, rows);
+      }
+    }
+    return rows;
+  }
+
+  private static <T> Map<T, List<ConceptRow>> cached(
+      Map<T, List<ConceptRow>> cache,
+      Collection<T> keys,
+      Function<Collection<T>, Map<T, List<ConceptRow>>> lookup
+  ) {
+    Map<T, List<ConceptRow>> found = new HashMap<>();
+    List<T> misses = new ArrayList<>();
+    for (T key : keys) {
+      List<ConceptRow> rows = cache.get(key);
+      if (rows != null) {
+        found.put(key, rows);
+      } else {
+        misses.add(key);
+      }
+    }
+    if (!misses.isEmpty()) {
+      for (Entry<T, List<ConceptRow>> entry : lookup.apply(misses).entrySet()) {
+        List<ConceptRow> rows = Collections.unmodifiableList(entry.getValue());
+        cache.put(entry.getKey(), rows);
+        found.put(entry.getKey(), rows);
+      }
+    }
+    return found;
+  }
+
+  @Nullable
+  @Override
+  public List<ConceptRow> forPhrase(String phrase) {
+    return cached(caches.get().phrases, phrase, dictionary::forPhrase);
+  }
+
+  @Nullable
+  @Override
+  public List<ConceptRow> forLowercasePhrase(String phrase) {
+    return cached(caches.get().lowercase, phrase, dictionary::forLowercasePhrase);
+  }
+
+  @Nullable
+  @Override
+  public List<ConceptRow> forNorms(StringsBag norms) {
+    if (norms.uniqueTerms() == 0) {
+      return null;
+    }
+    return cached(caches.get().norms, norms, dictionary::forNorms);
+  }
+
+  @Override
+  public Map<String, List<ConceptRow>> forPhrases(Collection<String> phrases) {
+    return cached(caches.get().phrases, phrases, dictionary::forPhrases);
+  }
+
+  @Override
+  public Map<String, List<ConceptRow>> forLowercasePhrases(Collection<String> phrases) {
+    return cached(caches.get().lowercase, phrases, dictionary::forLowercasePhrases);
+  }
+
+  @Override
+  public Map<StringsBag, List<ConceptRow>> forNormBags(Collection<StringsBag> normBags) {
+    return cached(caches.get().norms, normBags, dictionary::forNormBags);
+  }
+
+  @Nullable
+  @Override
+  public String source(int identifier) {
+    return dictionary.source(identifier);
+  }
+
+  @Nullable
+  @Override
+  public ConceptTrie trie() {
+    return dictionary.trie();
+  }
+
+  @Override
+  public void doShutdown() throws BiomedicusException {
+    if (dictionary instanceof LifecycleManaged) {
+      ((LifecycleManaged) dictionary).doShutdown();
+    }
+  }
+
+  private static final class Caches {
+
+    private final Map<String, List<ConceptRow>> phrases;
+
+    private final Map<String, List<ConceptRow>> lowercase;
+
+    private final Map<StringsBag, List<ConceptRow>> norms;
+
+    Caches(int cacheSize) {
+      phrases = new LruCache<>(cacheSize);
+      lowercase = new LruCache<>(cacheSize);
+      norms = new LruCache<>(cacheSize);
+    }
+  }
+
+  private static final class LruCache<K> extends LinkedHashMap<K, List<ConceptRow>> {
+
+    private final int cacheSize;
+
+    LruCache(int cacheSize) {
+      super(16, 0.75f, true);
+      this.cacheSize = cacheSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Entry<K, List<ConceptRow>> eldest) {
+      return size() > cacheSize;
+    }
+  }
+}
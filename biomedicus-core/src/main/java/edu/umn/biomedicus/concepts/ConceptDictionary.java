@@ -18,7 +18,10 @@ package edu.umn.biomedicus.concepts;
 
 import com.google.inject.ProvidedBy;
 import edu.umn.biomedicus.common.dictionary.StringsBag;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.Nullable;
 
 /**
@@ -53,6 +56,57 @@ public interface ConceptDictionary {
   @Nullable
   List<ConceptRow> forNorms(StringsBag norms);
 
+  /**
+   * Finds the applicable concepts for a batch of phrases in text at once.
+   *
+   * @param phrases the phrases in text
+   * @return map from the phrases which have concepts to a list of all the concepts that apply
+   */
+  default Map<String, List<ConceptRow>> forPhrases(Collection<String> phrases) {
+    Map<String, List<ConceptRow>> map = new HashMap<>();
+    for (String phrase : phrases) {
+      List<ConceptRow> rows = forPhrase(phrase);
+      if (rows != null) {
+        map.put(phrase, rows);
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Finds the applicable concepts for a batch of lowercased phrases in text at once.
+   *
+   * @param phrases the lowercased phrases in text
+   * @return map from the phrases which have concepts to a list of all the concepts that apply
+   */
+  default Map<String, List<ConceptRow>> forLowercasePhrases(Collection<String> phrases) {
+    Map<String, List<ConceptRow>> map = new HashMap<>();
+    for (String phrase : phrases) {
+      List<ConceptRow> rows = forLowercasePhrase(phrase);
+      if (rows != null) {
+        map.put(phrase, rows);
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Finds the applicable concepts for a batch of bags of token norms at once.
+   *
+   * @param normBags the bags of token norms
+   * @return map from the bags which have concepts to a list of all the concepts that apply
+   */
+  default Map<StringsBag, List<ConceptRow>> forNormBags(Collection<StringsBag> normBags) {
+    Map<StringsBag, List<ConceptRow>> map = new HashMap<>();
+    for (StringsBag normBag : normBags) {
+      List<ConceptRow> rows = forNorms(normBag);
+      if (rows != null) {
+        map.put(normBag, rows);
+      }
+    }
+    return map;
+  }
+
   /**
    * Returns the full source name for the identifier.
    *
@@ -61,4 +115,15 @@ public interface ConceptDictionary {
    */
   @Nullable
   String source(int identifier);
+
+  /**
+   * Returns the trie of the phrases and norms in this dictionary, if the dictionary was built with
+   * one.
+   *
+   * @return the trie, or null if the dictionary does not have one
+   */
+  @Nullable
+  default ConceptTrie trie() {
+    return null;
+  }
 }
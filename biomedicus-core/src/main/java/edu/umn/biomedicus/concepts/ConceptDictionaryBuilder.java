@@ -17,6 +17,8 @@
 package edu.umn.biomedicus.concepts;
 
 import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.io.CountingInputStream;
 import com.google.inject.Inject;
 import edu.umn.biomedicus.annotations.Setting;
 import edu.umn.biomedicus.common.dictionary.BidirectionalDictionary;
@@ -27,34 +29,51 @@ import edu.umn.biomedicus.vocabulary.Vocabulary;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import javax.annotation.Nonnull;
 import org.kohsuke.args4j.Argument;
 import org.kohsuke.args4j.CmdLineException;
 import org.kohsuke.args4j.CmdLineParser;
+import org.kohsuke.args4j.Option;
 import org.kohsuke.args4j.spi.PathOptionHandler;
+import org.rocksdb.EnvOptions;
+import org.rocksdb.IngestExternalFileOptions;
 import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.rocksdb.SstFileWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,7 +81,12 @@ import org.slf4j.LoggerFactory;
  * Builds the concepts dictionary.
  *
  * Usage: java edu.umn.biomedicus.concepts.ConceptDictionaryBuilder [umls installation] \
- * [tuis-of-interest file] [banned-ttys file] [outputPath]
+ * [tuis-of-interest file] [banned-ttys file] [outputPath] [--sst] [--threads n]
+ *
+ * The UMLS files are parsed in parallel chunks. By default the keys are sorted in memory and put
+ * into the databases. With --sst they are instead externally sorted in runs of bounded size and
+ * merged into SST files which are ingested by the databases, keeping the heap small for large UMLS
+ * releases.
  */
 public class ConceptDictionaryBuilder {
 
@@ -72,6 +96,8 @@ public class ConceptDictionaryBuilder {
 
   private static final Pattern SPACE_SPLITTER = Pattern.compile(" ");
 
+  private static final int CHUNK_LINES = 10_000;
+
   private final Set<SUI> filteredSuis;
 
   private final Set<CUI> filteredCuis;
@@ -100,6 +126,17 @@ public class ConceptDictionaryBuilder {
   @Argument(index = 3, handler = PathOptionHandler.class, usage = "Path to write db out to.")
   private Path dbPath;
 
+  @Option(name = "--sst", usage = "Externally sort the keys and ingest SST files instead of"
+      + " sorting and writing the databases in memory")
+  private boolean sst = false;
+
+  @Option(name = "--threads", usage = "Number of threads to parse the UMLS files with")
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  @Option(name = "--runMegabytes", usage = "Size in megabytes of each in-memory sorted run of"
+      + " keys when using --sst")
+  private int runMegabytes = 256;
+
   @Inject
   ConceptDictionaryBuilder(
       @Setting("concepts.filters.sui.asDataPath") Path filteredSuisPath,
@@ -154,6 +191,11 @@ public class ConceptDictionaryBuilder {
       Files.deleteIfExists(dbPath.resolve("phrases"));
       Files.deleteIfExists(dbPath.resolve("lowercase"));
       Files.deleteIfExists(dbPath.resolve("norms"));
+      Files.deleteIfExists(dbPath.resolve("trie.bin"));
+      Files.deleteIfExists(dbPath.resolve("filter.bin"));
+      Files.deleteIfExists(dbPath.resolve("phrases.map"));
+      Files.deleteIfExists(dbPath.resolve("lowercase.map"));
+      Files.deleteIfExists(dbPath.resolve("norms.map"));
     }
 
     System.out.println("Loading TUIs of interest");
@@ -193,164 +235,92 @@ public class ConceptDictionaryBuilder {
 
     BidirectionalDictionary normIndex = vocabulary.getWordsIndex();
 
-    Path mrconsoPath = umlsPath.resolve("MRCONSO.RRF");
-    System.out.println("Loading phrases and SUI -> CUIs from MRCONSO: " + mrconsoPath);
     Set<SUI> bannedSUIs = new HashSet<>();
 
     Map<String, Integer> sources = new HashMap<>();
     Map<SuiCui, List<Integer>> suiCuiSources = new HashMap<>();
 
+    ConceptTrie.Builder trieBuilder = new ConceptTrie.Builder();
+    ConceptFilter.Builder filterBuilder = new ConceptFilter.Builder();
+
     Files.createDirectories(dbPath);
-    long mrConsoTotalLines = Files.lines(mrconsoPath).count();
-    int mrConsoCompletedLines = 0;
-
-    {
-      NavigableMap<String, List<ConceptRow>> phrasesMap = new TreeMap<>();
-      NavigableMap<String, List<ConceptRow>> lowercaseMap = new TreeMap<>();
-
-      try (BufferedReader bufferedReader = Files.newBufferedReader(mrconsoPath)) {
-        String line;
-        while ((line = bufferedReader.readLine()) != null) {
-          if (++mrConsoCompletedLines % 10_000 == 0) {
-            System.out.println("Read " + mrConsoCompletedLines + " of " + mrConsoTotalLines);
-          }
-          String[] splitLine = SPLITTER.split(line);
-          CUI cui = new CUI(splitLine[0]);
-          if ("ENG".equals(splitLine[1])) {
-            SUI sui = new SUI(splitLine[5]);
-            String obsoleteOrSuppressible = splitLine[16];
-            String source = splitLine[11];
-            String tty = splitLine[12];
-            String phrase = splitLine[14];
-
-            if (phrase.length() < 3) {
-              continue;
+    Path runsPath = Files.createTempDirectory(dbPath, "runs");
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      Path mrconsoPath = umlsPath.resolve("MRCONSO.RRF");
+      System.out.println("Loading phrases and SUI -> CUIs from MRCONSO: " + mrconsoPath);
+      ConceptTable<String> phrases = newTable(runsPath, ConceptDictionaryBuilder::utf8Bytes,
+          ConceptDictionaryBuilder::utf8String);
+      ConceptTable<String> lowercase = newTable(runsPath, ConceptDictionaryBuilder::utf8Bytes,
+          ConceptDictionaryBuilder::utf8String);
+
+      readInParallel(mrconsoPath, executor, line -> parseConso(line, ttyBanlist, cuiToTUIs),
+          entry -> {
+            if (entry.tuis == null) {
+              bannedSUIs.add(entry.suiCui.sui);
+              return;
             }
+            for (TUI tui : entry.tuis) {
+              Integer sourceId = sources.computeIfAbsent(entry.source, (unused) -> sources.size());
 
-            if (!"N".equals(obsoleteOrSuppressible)) {
-              bannedSUIs.add(sui);
-              continue;
-            }
+              ConceptRow value = new ConceptRow(entry.suiCui.sui, entry.suiCui.cui, tui, sourceId);
 
-            if (ttyBanlist.contains(tty)) {
-              bannedSUIs.add(sui);
-              continue;
-            }
+              phrases.add(entry.phrase, value);
+              // looked up with phrases lowercased the same way in DetectDictionaryConcepts
+              lowercase.add(entry.phrase.toLowerCase(Locale.ENGLISH), value);
 
-            List<TUI> tuis = cuiToTUIs.get(cui);
-            if (tuis == null || tuis.size() == 0) {
-              LOGGER.trace("Filtering \"{}\" because it has no interesting types", phrase);
-              continue;
+              multimapPut(suiCuiSources, entry.suiCui, sourceId);
             }
-            for (TUI tui : tuis) {
-              SuiCui sc = new SuiCui(sui, cui);
-              if (filteredCuis.contains(cui) || filteredTuis.contains(tui)
-                  || filteredSuiCuis.contains(sc) || filteredSuis
-                  .contains(sui)) {
-                continue;
-              }
-
-              Integer sourceId = sources.computeIfAbsent(source, (unused) -> sources.size());
-
-              ConceptRow value = new ConceptRow(sui, cui, tui, sourceId);
-
-              multimapPut(phrasesMap, phrase, value);
-              multimapPut(lowercaseMap, phrase, value);
+          });
 
-              multimapPut(suiCuiSources, sc, sourceId);
-            }
-          }
-        }
-        try (Options options = new Options().setCreateIfMissing(true).prepareForBulkLoad()) {
-          try (RocksDB phrases = RocksDB.open(options, dbPath.resolve("phrases").toString());
-              RocksDB lowercase = RocksDB.open(options, dbPath.resolve("lowercase").toString())) {
-            int wrote = 0;
-            for (Entry<String, List<ConceptRow>> entry : phrasesMap.entrySet()) {
-              List<ConceptRow> suiCuiTuis = entry.getValue();
-              byte[] suiCuiTuiBytes = getBytes(suiCuiTuis);
-              phrases.put(entry.getKey().getBytes(), suiCuiTuiBytes);
-              if (++wrote % 10_000 == 0) {
-                System.out.println("Wrote " + wrote + " of " + phrasesMap.size() + " phrases");
+      phrases.write(dbPath.resolve("phrases"), "phrases", phrase -> {
+        trieBuilder.addPhrase(phrase);
+        filterBuilder.addPhrase(phrase);
+      });
+      lowercase.write(dbPath.resolve("lowercase"), "lowercase phrases",
+          filterBuilder::addLowercasePhrase);
+
+      Path mrxnsPath = umlsPath.resolve("MRXNS_ENG.RRF");
+      System.out.println("Loading lowercase normalized strings from MRXNS_ENG: " + mrxnsPath);
+      ConceptTable<StringsBag> norms = newTable(runsPath, StringsBag::getBytes, StringsBag::new);
+
+      readInParallel(mrxnsPath, executor,
+          line -> parseNorms(line, bannedSUIs, cuiToTUIs, normIndex),
+          entry -> {
+            for (TUI tui : entry.tuis) {
+              List<Integer> sourceList = suiCuiSources.get(entry.suiCui);
+              for (Integer sourceId : sourceList) {
+                norms.add(entry.termsBag,
+                    new ConceptRow(entry.suiCui.sui, entry.suiCui.cui, tui, sourceId));
               }
             }
-            wrote = 0;
-            for (Entry<String, List<ConceptRow>> entry : lowercaseMap.entrySet()) {
-              List<ConceptRow> suiCuiTuis = entry.getValue();
-              byte[] suiCuiTuiBytes = getBytes(suiCuiTuis);
-              lowercase.put(entry.getKey().getBytes(), suiCuiTuiBytes);
-              if (++wrote % 10_000 == 0) {
-                System.out.println("Wrote " + wrote + " of " + lowercaseMap.size() + " lowercase phrases");
-              }
-            }
-          }
-        } catch (RocksDBException e) {
-          e.printStackTrace();
-          return;
+          });
+
+      norms.write(dbPath.resolve("norms"), "norm term bags", termsBag -> {
+        trieBuilder.addNorms(termsBag);
+        filterBuilder.addNorms(termsBag);
+      });
+    } finally {
+      executor.shutdownNow();
+      try (Stream<Path> runs = Files.list(runsPath)) {
+        for (Path run : (Iterable<Path>) runs::iterator) {
+          Files.delete(run);
         }
       }
+      Files.delete(runsPath);
     }
 
-    Path mrxnsPath = umlsPath.resolve("MRXNS_ENG.RRF");
-    System.out.println("Loading lowercase normalized strings from MRXNS_ENG: " + mrxnsPath);
-
-    int lineCount = 0;
-    long totalLines = Files.lines(mrxnsPath).count();
-
-    NavigableMap<StringsBag, List<ConceptRow>> map = new TreeMap<>();
-
-    try (BufferedReader bufferedReader = Files.newBufferedReader(mrxnsPath)) {
-      String line;
-      while ((line = bufferedReader.readLine()) != null) {
-        if (++lineCount % 10_000 == 0) {
-          System.out.println("Read " + lineCount + " of " + totalLines);
-        }
-        Iterable<String> columns = Splitter.on("|").split(line);
-        Iterator<String> it = columns.iterator();
-        if ("ENG".equals(it.next())) {
-          List<String> norms = Arrays.asList(SPACE_SPLITTER.split(it.next()));
-          CUI cui = new CUI(it.next());
-          it.next();
-          SUI sui = new SUI(it.next());
-
-          if (norms.size() < 2) {
-            continue;
-          }
-
-          if (bannedSUIs.contains(sui)) {
-            continue;
-          }
+    System.out.println("Writing phrase and norms trie.");
+    trieBuilder.write(dbPath.resolve("trie.bin"));
 
-          StringsBag termsBag = normIndex.getTermsBag(norms);
-          List<TUI> tuis = cuiToTUIs.get(cui);
-          if (tuis == null || tuis.size() == 0) {
-            LOGGER.trace("Filtering \"{}\" because it has no interesting types", termsBag);
-            continue;
-          }
-          for (TUI tui : tuis) {
-            SuiCui sc = new SuiCui(sui, cui);
-            if (filteredCuis.contains(cui) || filteredTuis.contains(tui)
-                || filteredSuiCuis.contains(sc) || filteredSuis.contains(sui)) {
-              continue;
-            }
-
-            List<Integer> sourceList = suiCuiSources.get(sc);
-            for (Integer sourceId : sourceList) {
-              multimapPut(map, termsBag, new ConceptRow(sui, cui, tui, sourceId));
-            }
-          }
-        }
-      }
-    }
+    System.out.println("Writing phrase and norms filter.");
+    filterBuilder.write(dbPath.resolve("filter.bin"));
 
-    int wrote = 0;
-    try (Options options = new Options().setCreateIfMissing(true).prepareForBulkLoad();
-        RocksDB normsDb = RocksDB.open(options, dbPath.resolve("norms").toString())) {
-      for (Entry<StringsBag, List<ConceptRow>> entry : map.entrySet()) {
-        List<ConceptRow> suiCuiTuis = entry.getValue();
-        byte[] suiCuiTuiBytes = getBytes(suiCuiTuis);
-        normsDb.put(entry.getKey().getBytes(), suiCuiTuiBytes);
-        if (++wrote % 10_000 == 0) {
-          System.out.println("Wrote " + wrote + " of " + map.size() + " norm term bags.");
+    System.out.println("Writing memory-mapped concepts tables.");
+    try (Options options = new Options()) {
+      for (String name : Arrays.asList("phrases", "lowercase", "norms")) {
+        try (RocksDB db = RocksDB.openReadOnly(options, dbPath.resolve(name).toString())) {
+          MappedConceptTable.write(db, dbPath.resolve(name + ".map"));
         }
       }
     } catch (RocksDBException e) {
@@ -372,7 +342,185 @@ public class ConceptDictionaryBuilder {
     }
   }
 
-  private byte[] getBytes(List<ConceptRow> rows) {
+  private <K> ConceptTable<K> newTable(
+      Path runsPath,
+      Function<K, byte[]> keyBytes,
+      Function<byte[], K> bytesKey
+  ) {
+    if (sst) {
+      return new SortedRunsTable<>(new SortedRuns(runsPath, runMegabytes * 1024L * 1024L),
+          keyBytes, bytesKey);
+    }
+    return new InMemoryTable<>(keyBytes);
+  }
+
+  /**
+   * Reads the lines of a file in chunks, parsing the chunks on the executor and passing the parsed
+   * lines to the consumer on this thread in the order they occur in the file. Progress is reported
+   * from the number of bytes read.
+   */
+  private <T> void readInParallel(
+      Path path,
+      ExecutorService executor,
+      Function<String, T> parse,
+      ParsedLineConsumer<T> consumer
+  ) throws IOException {
+    long totalBytes = Files.size(path);
+    Deque<Future<List<T>>> pending = new ArrayDeque<>();
+    try (CountingInputStream counting = new CountingInputStream(Files.newInputStream(path));
+        BufferedReader bufferedReader = new BufferedReader(
+            new InputStreamReader(counting, StandardCharsets.UTF_8))) {
+      List<String> chunk = new ArrayList<>(CHUNK_LINES);
+      String line;
+      while ((line = bufferedReader.readLine()) != null) {
+        chunk.add(line);
+        if (chunk.size() == CHUNK_LINES) {
+          pending.add(submitChunk(executor, chunk, parse));
+          chunk = new ArrayList<>(CHUNK_LINES);
+          // bounds the number of chunks held in memory
+          if (pending.size() > 2 * threads) {
+            consumeChunk(pending.remove(), consumer);
+          }
+          System.out.println(String.format("Read %d of %d MB (%.1f%%) of %s",
+              counting.getCount() >> 20, totalBytes >> 20,
+              100.0 * counting.getCount() / totalBytes, path.getFileName()));
+        }
+      }
+      if (!chunk.isEmpty()) {
+        pending.add(submitChunk(executor, chunk, parse));
+      }
+      while (!pending.isEmpty()) {
+        consumeChunk(pending.remove(), consumer);
+      }
+    } finally {
+      for (Future<List<T>> future : pending) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  private static <T> Future<List<T>> submitChunk(
+      ExecutorService executor,
+      List<String> chunk,
+      Function<String, T> parse
+  ) {
+    return executor.submit(() -> chunk.stream()
+        .map(parse)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList()));
+  }
+
+  private static <T> void consumeChunk(
+      Future<List<T>> future,
+      ParsedLineConsumer<T> consumer
+  ) throws IOException {
+    List<T> parsed;
+    try {
+      parsed = future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IOException(e.getCause());
+    }
+    for (T t : parsed) {
+      consumer.accept(t);
+    }
+  }
+
+  @Nullable
+  private ConsoEntry parseConso(
+      String line,
+      Set<String> ttyBanlist,
+      Map<CUI, List<TUI>> cuiToTUIs
+  ) {
+    String[] splitLine = SPLITTER.split(line);
+    if (!"ENG".equals(splitLine[1])) {
+      return null;
+    }
+    CUI cui = new CUI(splitLine[0]);
+    SUI sui = new SUI(splitLine[5]);
+    String obsoleteOrSuppressible = splitLine[16];
+    String source = splitLine[11];
+    String tty = splitLine[12];
+    String phrase = splitLine[14];
+
+    if (phrase.length() < 3) {
+      return null;
+    }
+
+    SuiCui sc = new SuiCui(sui, cui);
+    if (!"N".equals(obsoleteOrSuppressible) || ttyBanlist.contains(tty)) {
+      return new ConsoEntry(sc, source, phrase, null);
+    }
+
+    List<TUI> tuis = cuiToTUIs.get(cui);
+    if (tuis == null || tuis.size() == 0) {
+      LOGGER.trace("Filtering \"{}\" because it has no interesting types", phrase);
+      return null;
+    }
+    List<TUI> unfiltered = unfilteredTuis(sc, tuis);
+    return unfiltered.isEmpty() ? null : new ConsoEntry(sc, source, phrase, unfiltered);
+  }
+
+  @Nullable
+  private NormsEntry parseNorms(
+      String line,
+      Set<SUI> bannedSUIs,
+      Map<CUI, List<TUI>> cuiToTUIs,
+      BidirectionalDictionary normIndex
+  ) {
+    Iterable<String> columns = Splitter.on("|").split(line);
+    Iterator<String> it = columns.iterator();
+    if (!"ENG".equals(it.next())) {
+      return null;
+    }
+    List<String> norms = Arrays.asList(SPACE_SPLITTER.split(it.next()));
+    CUI cui = new CUI(it.next());
+    it.next();
+    SUI sui = new SUI(it.next());
+
+    if (norms.size() < 2) {
+      return null;
+    }
+
+    if (bannedSUIs.contains(sui)) {
+      return null;
+    }
+
+    StringsBag termsBag = normIndex.getTermsBag(norms);
+    List<TUI> tuis = cuiToTUIs.get(cui);
+    if (tuis == null || tuis.size() == 0) {
+      LOGGER.trace("Filtering \"{}\" because it has no interesting types", termsBag);
+      return null;
+    }
+    SuiCui sc = new SuiCui(sui, cui);
+    List<TUI> unfiltered = unfilteredTuis(sc, tuis);
+    return unfiltered.isEmpty() ? null : new NormsEntry(termsBag, sc, unfiltered);
+  }
+
+  private List<TUI> unfilteredTuis(SuiCui sc, List<TUI> tuis) {
+    List<TUI> unfiltered = new ArrayList<>(tuis.size());
+    for (TUI tui : tuis) {
+      if (filteredCuis.contains(sc.cui) || filteredTuis.contains(tui)
+          || filteredSuiCuis.contains(sc) || filteredSuis.contains(sc.sui)) {
+        continue;
+      }
+      unfiltered.add(tui);
+    }
+    return unfiltered;
+  }
+
+  private static byte[] utf8Bytes(String string) {
+    return string.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String utf8String(byte[] bytes) {
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static byte[] getBytes(List<ConceptRow> rows) {
     ByteBuffer byteBuffer = ByteBuffer.allocate(ConceptRow.NUM_BYTES * rows.size());
     for (ConceptRow row : rows) {
       byteBuffer.put(row.getBytes());
@@ -391,6 +539,166 @@ public class ConceptDictionaryBuilder {
     });
   }
 
+  private interface ParsedLineConsumer<T> {
+
+    void accept(T parsed) throws IOException;
+  }
+
+  /**
+   * The rows for each key of one of the dictionary databases, collected either in memory or in
+   * sorted runs on disk.
+   */
+  private abstract static class ConceptTable<K> {
+
+    abstract void add(K key, ConceptRow row) throws IOException;
+
+    /**
+     * Writes the rows to a database, passing each key to the key consumer.
+     */
+    abstract void write(
+        Path path,
+        String description,
+        Consumer<K> keyConsumer
+    ) throws IOException;
+  }
+
+  private static final class InMemoryTable<K> extends ConceptTable<K> {
+
+    private final NavigableMap<K, List<ConceptRow>> map = new TreeMap<>();
+
+    private final Function<K, byte[]> keyBytes;
+
+    InMemoryTable(Function<K, byte[]> keyBytes) {
+      this.keyBytes = keyBytes;
+    }
+
+    @Override
+    void add(K key, ConceptRow row) {
+      map.computeIfAbsent(key, unused -> new ArrayList<>()).add(row);
+    }
+
+    @Override
+    void write(Path path, String description, Consumer<K> keyConsumer) {
+      try (Options options = new Options().setCreateIfMissing(true).prepareForBulkLoad();
+          RocksDB db = RocksDB.open(options, path.toString())) {
+        int wrote = 0;
+        for (Entry<K, List<ConceptRow>> entry : map.entrySet()) {
+          keyConsumer.accept(entry.getKey());
+          db.put(keyBytes.apply(entry.getKey()), getBytes(entry.getValue()));
+          if (++wrote % 10_000 == 0) {
+            System.out.println("Wrote " + wrote + " of " + map.size() + " " + description);
+          }
+        }
+      } catch (RocksDBException e) {
+        throw new IllegalStateException(e);
+      }
+      map.clear();
+    }
+  }
+
+  /**
+   * Externally sorts the keys and writes them to a SST file which is ingested into the database,
+   * skipping the memtable and compaction.
+   */
+  private static final class SortedRunsTable<K> extends ConceptTable<K> {
+
+    private final SortedRuns sortedRuns;
+
+    private final Function<K, byte[]> keyBytes;
+
+    private final Function<byte[], K> bytesKey;
+
+    SortedRunsTable(
+        SortedRuns sortedRuns,
+        Function<K, byte[]> keyBytes,
+        Function<byte[], K> bytesKey
+    ) {
+      this.sortedRuns = sortedRuns;
+      this.keyBytes = keyBytes;
+      this.bytesKey = bytesKey;
+    }
+
+    @Override
+    void add(K key, ConceptRow row) throws IOException {
+      sortedRuns.add(keyBytes.apply(key), row.getBytes());
+    }
+
+    @Override
+    void write(Path path, String description, Consumer<K> keyConsumer) throws IOException {
+      Path sstPath = path.resolveSibling(path.getFileName() + ".sst");
+      try {
+        long keys;
+        try (EnvOptions envOptions = new EnvOptions();
+            Options options = new Options();
+            SstFileWriter writer = new SstFileWriter(envOptions, options)) {
+          writer.open(sstPath.toString());
+          keys = sortedRuns.merge((key, value) -> {
+            keyConsumer.accept(bytesKey.apply(key));
+            try {
+              writer.put(key, value);
+            } catch (RocksDBException e) {
+              throw new IOException(e);
+            }
+          });
+          // an empty SST file cannot be finished or ingested
+          if (keys > 0) {
+            writer.finish();
+          }
+        }
+        System.out.println("Wrote " + keys + " " + description + ", ingesting into " + path);
+        try (Options options = new Options().setCreateIfMissing(true);
+            RocksDB db = RocksDB.open(options, path.toString());
+            IngestExternalFileOptions ingestOptions = new IngestExternalFileOptions()
+                .setMoveFiles(true)) {
+          if (keys > 0) {
+            db.ingestExternalFile(Collections.singletonList(sstPath.toString()), ingestOptions);
+          }
+        }
+      } catch (RocksDBException e) {
+        throw new IllegalStateException(e);
+      } finally {
+        Files.deleteIfExists(sstPath);
+      }
+    }
+  }
+
+  private static final class ConsoEntry {
+
+    private final SuiCui suiCui;
+
+    private final String source;
+
+    private final String phrase;
+
+    /**
+     * The TUIs to add rows for, or null if the SUI is banned.
+     */
+    @Nullable
+    private final List<TUI> tuis;
+
+    ConsoEntry(SuiCui suiCui, String source, String phrase, @Nullable List<TUI> tuis) {
+      this.suiCui = suiCui;
+      this.source = source;
+      this.phrase = phrase;
+      this.tuis = tuis;
+    }
+  }
+
+  private static final class NormsEntry {
+
+    private final StringsBag termsBag;
+
+    private final SuiCui suiCui;
+
+    private final List<TUI> tuis;
+
+    NormsEntry(StringsBag termsBag, SuiCui suiCui, List<TUI> tuis) {
+      this.termsBag = termsBag;
+      this.suiCui = suiCui;
+      this.tuis = tuis;
+    }
+  }
+
   private static final class SuiCui implements Comparable<SuiCui> {
 
     private final SUI sui;
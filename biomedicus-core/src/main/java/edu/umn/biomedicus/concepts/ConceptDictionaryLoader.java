@@ -23,6 +23,7 @@ import edu.umn.biomedicus.common.dictionary.StringsBag;
 import edu.umn.biomedicus.exc.BiomedicusException;
 import edu.umn.biomedicus.framework.DataLoader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
@@ -46,11 +47,19 @@ public class ConceptDictionaryLoader extends DataLoader<ConceptDictionary> {
 
   private final boolean inMemory;
 
+  private final boolean memoryMapped;
+
+  private final int rowCacheSize;
+
   @Inject
   ConceptDictionaryLoader(@Setting("concepts.db.asDataPath") Path dbPath,
-      @Setting("concepts.inMemory") boolean inMemory) {
+      @Setting("concepts.inMemory") boolean inMemory,
+      @Setting("concepts.memoryMapped") boolean memoryMapped,
+      @Setting("concepts.rowCacheSize") int rowCacheSize) {
     this.dbPath = dbPath;
     this.inMemory = inMemory;
+    this.memoryMapped = memoryMapped;
+    this.rowCacheSize = rowCacheSize;
   }
 
   @Override
@@ -58,7 +67,8 @@ public class ConceptDictionaryLoader extends DataLoader<ConceptDictionary> {
     RocksDB.loadLibrary();
 
     try (Options options = new Options().setInfoLogLevel(InfoLogLevel.ERROR_LEVEL)) {
-      LOGGER.info("Opening concepts dictionary: {}. inMemory = {}.", dbPath, inMemory);
+      LOGGER.info("Opening concepts dictionary: {}. inMemory = {}. memoryMapped = {}.", dbPath,
+          inMemory, memoryMapped);
 
       RocksDB phrasesDB = RocksDB.openReadOnly(options, dbPath.resolve("phrases").toString());
       RocksDB lowercaseDB = RocksDB.openReadOnly(options, dbPath.resolve("lowercase").toString());
@@ -67,15 +77,46 @@ public class ConceptDictionaryLoader extends DataLoader<ConceptDictionary> {
 
       Files.lines(dbPath.resolve("sources.txt")).forEach(s -> sources.put(sources.size(), s));
 
+      ConceptTrie trie = null;
+      Path triePath = dbPath.resolve("trie.bin");
+      if (Files.exists(triePath)) {
+        LOGGER.info("Loading concepts trie: {}", triePath);
+        trie = ConceptTrie.load(triePath);
+      } else {
+        LOGGER.info("No concepts trie found, phrases will be looked up without it.");
+      }
+      final ConceptTrie finalTrie = trie;
+
+      ConceptDictionary dictionary;
+      if (memoryMapped) {
+        for (String name : new String[]{"phrases", "lowercase", "norms"}) {
+          Path mapPath = dbPath.resolve(name + ".map");
+          if (!Files.exists(mapPath)) {
+            phrasesDB.close();
+            lowercaseDB.close();
+            normsDB.close();
+            throw new BiomedicusException("Memory-mapped concepts table " + mapPath
+                + " not found, rebuild the concepts dictionary using ConceptDictionaryBuilder"
+                + " or disable concepts.memoryMapped.");
+          }
+        }
+        LOGGER.info("Mapping concepts tables into memory.");
+        MappedConceptTable phrases = mapTable(phrasesDB, dbPath.resolve("phrases.map"));
+        MappedConceptTable lowercase = mapTable(lowercaseDB, dbPath.resolve("lowercase.map"));
+        MappedConceptTable norms = mapTable(normsDB, dbPath.resolve("norms.map"));
+
+        LOGGER.info("Done mapping concepts tables into memory.");
 
-      if (inMemory) {
+        dictionary = new MappedConceptDictionary(phrases, lowercase, norms, sources, trie);
+      } else if (inMemory) {
         LOGGER.info("Loading concepts phrases into memory.");
         final Map<String, List<ConceptRow>> phrases = new HashMap<>();
-        dumpToMap(phrasesDB, phrases, String::new);
+        dumpToMap(phrasesDB, phrases, bytes -> new String(bytes, StandardCharsets.UTF_8));
 
         LOGGER.info("Loading concepts lowercases into memory.");
         final Map<String, List<ConceptRow>> lowercasePhrases = new HashMap<>();
-        dumpToMap(lowercaseDB, lowercasePhrases, String::new);
+        dumpToMap(lowercaseDB, lowercasePhrases,
+            bytes -> new String(bytes, StandardCharsets.UTF_8));
 
         LOGGER.info("Loading concepts norms into memory.");
         final Map<StringsBag, List<ConceptRow>> normDictionary = new HashMap<>();
@@ -83,7 +124,7 @@ public class ConceptDictionaryLoader extends DataLoader<ConceptDictionary> {
 
         LOGGER.info("Done loading concepts into memory.");
 
-        return new ConceptDictionary () {
+        dictionary = new ConceptDictionary () {
           @Override
           @Nullable
           public List<ConceptRow> forPhrase(String phrase) {
@@ -109,18 +150,45 @@ public class ConceptDictionaryLoader extends DataLoader<ConceptDictionary> {
           public String source(int identifier) {
             return sources.get(identifier);
           }
+
+          @Override
+          @Nullable
+          public ConceptTrie trie() {
+            return finalTrie;
+          }
         };
+      } else {
+        LOGGER.info("Done opening concepts dictionary.");
+
+        dictionary = new RocksDbConceptDictionary(phrasesDB, lowercaseDB, normsDB, sources, trie);
+      }
 
+      // the in-memory dictionary already shares its decoded rows between lookups
+      if (rowCacheSize > 0 && (memoryMapped || !inMemory)) {
+        LOGGER.info("Caching decoded concepts for up to {} keys of each kind per thread.",
+            rowCacheSize);
+        dictionary = new CachingConceptDictionary(dictionary, rowCacheSize);
       }
 
-      LOGGER.info("Done opening concepts dictionary.");
+      Path filterPath = dbPath.resolve("filter.bin");
+      if (Files.exists(filterPath)) {
+        LOGGER.info("Loading concepts filter: {}", filterPath);
+        dictionary = new FilteredConceptDictionary(dictionary, ConceptFilter.load(filterPath));
+      } else {
+        LOGGER.info("No concepts filter found, all lookups will go to the dictionary.");
+      }
 
-      return new RocksDbConceptDictionary(phrasesDB, lowercaseDB, normsDB, sources);
+      return dictionary;
     } catch (RocksDBException | IOException e) {
       throw new BiomedicusException(e);
     }
   }
 
+  private static MappedConceptTable mapTable(RocksDB db, Path path) throws IOException {
+    db.close();
+    return MappedConceptTable.load(path);
+  }
+
   private static <T> void dumpToMap(RocksDB db, Map<T, List<ConceptRow>> suiCuiTuis,
       Function<byte[], T> keyMapper) {
     try (RocksIterator rocksIterator = db.newIterator()) {
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.concepts;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import edu.umn.biomedicus.common.dictionary.StringsBag;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Bloom filter of every phrase, lowercase phrase, and norm bag key in the concept dictionary,
+ * used to reject lookups of keys which are not in the dictionary without reading the dictionary.
+ *
+ * <p>The filter counts the lookups it is asked about, the ones it rejects, and the false positives
+ * reported back to it by {@link #recordFalsePositives(int)}, lookups it let through which were not
+ * in the dictionary.</p>
+ *
+ * @since 2.2.0
+ */
+public final class ConceptFilter {
+
+  private static final int FORMAT_VERSION = 1;
+
+  private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+  private static final HashFunction[] HASH_FUNCTIONS = {
+      Hashing.murmur3_128(0), Hashing.murmur3_128(1), Hashing.murmur3_128(2)
+  };
+
+  private static final int PHRASE = 0;
+
+  private static final int LOWERCASE = 1;
+
+  private static final int NORMS = 2;
+
+  private final long[] bits;
+
+  private final long bitCount;
+
+  private final int hashCount;
+
+  private final LongAdder probes = new LongAdder();
+
+  private final LongAdder rejections = new LongAdder();
+
+  private final LongAdder falsePositives = new LongAdder();
+
+  private ConceptFilter(long[] bits, int hashCount) {
+    this.bits = bits;
+    bitCount = (long) bits.length * Long.SIZE;
+    this.hashCount = hashCount;
+  }
+
+  /**
+   * Returns whether the phrase might be in the dictionary.
+   *
+   * @param phrase the phrase
+   * @return false if the phrase is definitely not in the dictionary
+   */
+  public boolean mightContainPhrase(String phrase) {
+    return probe(hash(PHRASE, phrase.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Returns whether the lowercased phrase might be in the dictionary.
+   *
+   * @param phrase the lowercased phrase
+   * @return false if the lowercased phrase is definitely not in the dictionary
+   */
+  public boolean mightContainLowercasePhrase(String phrase) {
+    return probe(hash(LOWERCASE, phrase.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Returns whether the bag of norms might be in the dictionary.
+   *
+   * @param norms the bag of norms
+   * @return false if the bag of norms is definitely not in the dictionary
+   */
+  public boolean mightContainNorms(StringsBag norms) {
+    return probe(hash(NORMS, norms.getBytes()));
+  }
+
+  /**
+   * Records lookups which were let through by this filter but were not in the dictionary.
+   *
+   * @param count the number of false positives
+   */
+  public void recordFalsePositives(int count) {
+    falsePositives.add(count);
+  }
+
+  public long getProbes() {
+    return probes.sum();
+  }
+
+  public long getRejections() {
+    return rejections.sum();
+  }
+
+  public long getFalsePositives() {
+    return falsePositives.sum();
+  }
+
+  /**
+   * Returns the fraction of lookups which were rejected by the filter.
+   *
+   * @return the rejection rate, or 0 if there have not been any lookups
+   */
+  public double rejectionRate() {
+    long probes = getProbes();
+    return probes == 0 ? 0 : (double) getRejections() / probes;
+  }
+
+  /**
+   * Returns the fraction of lookups of keys not in the dictionary which were let through by the
+   * filter.
+   *
+   * @return the false positive rate, or 0 if there have not been any misses
+   */
+  public double falsePositiveRate() {
+    long falsePositives = getFalsePositives();
+    long negatives = getRejections() + falsePositives;
+    return negatives == 0 ? 0 : (double) falsePositives / negatives;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("ConceptFilter{probes=%d, rejections=%d (%.1f%%), "
+            + "falsePositives=%d (%.2f%%)}", getProbes(), getRejections(), rejectionRate() * 100,
+        getFalsePositives(), falsePositiveRate() * 100);
+  }
+
+  private boolean probe(long hash) {
+    probes.increment();
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      int combined = hash1 + i * hash2;
+      if (combined < 0) {
+        combined = ~combined;
+      }
+      long index = combined % bitCount;
+      if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+        rejections.increment();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void set(long hash) {
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      int combined = hash1 + i * hash2;
+      if (combined < 0) {
+        combined = ~combined;
+      }
+      long index = combined % bitCount;
+      bits[(int) (index >>> 6)] |= 1L << index;
+    }
+  }
+
+  private static long hash(int kind, byte[] key) {
+    return HASH_FUNCTIONS[kind].hashBytes(key).asLong();
+  }
+
+  /**
+   * Loads a filter written by a {@link Builder}.
+   *
+   * @param path the path to the filter file
+   * @return the loaded filter
+   * @throws IOException if there is a failure reading the file
+   */
+  public static ConceptFilter load(Path path) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(path)))) {
+      int version = in.readInt();
+      if (version != FORMAT_VERSION) {
+        throw new IOException("Unsupported concept filter version: " + version);
+      }
+      int hashCount = in.readInt();
+      long[] bits = new long[in.readInt()];
+      for (int i = 0; i < bits.length; i++) {
+        bits[i] = in.readLong();
+      }
+      return new ConceptFilter(bits, hashCount);
+    }
+  }
+
+  /**
+   * Collects the keys of the dictionary and writes the filter file, sized for a false positive
+   * probability of 1%.
+   */
+  public static final class Builder {
+
+    private long[] hashes = new long[1024];
+
+    private int size = 0;
+
+    public void addPhrase(String phrase) {
+      add(hash(PHRASE, phrase.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public void addLowercasePhrase(String phrase) {
+      add(hash(LOWERCASE, phrase.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public void addNorms(StringsBag norms) {
+      add(hash(NORMS, norms.getBytes()));
+    }
+
+    private void add(long hash) {
+      if (size == hashes.length) {
+        hashes = Arrays.copyOf(hashes, size * 2);
+      }
+      hashes[size++] = hash;
+    }
+
+    /**
+     * Writes the filter to a file.
+     *
+     * @param path the path to write to
+     * @throws IOException if there is a failure writing the file
+     */
+    public void write(Path path) throws IOException {
+      int keys = Math.max(1, size);
+      double ln2 = Math.log(2);
+      double optimalBits = -keys * Math.log(FALSE_POSITIVE_PROBABILITY) / (ln2 * ln2);
+      int words = (int) Math.ceil(optimalBits / Long.SIZE);
+      int hashCount = Math.max(1, (int) Math.round((double) words * Long.SIZE / keys * ln2));
+
+      ConceptFilter filter = new ConceptFilter(new long[words], hashCount);
+      for (int i = 0; i < size; i++) {
+        filter.set(hashes[i]);
+      }
+
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(path)))) {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(hashCount);
+        out.writeInt(words);
+        for (long word : filter.bits) {
+          out.writeLong(word);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.concepts;
+
+import edu.umn.biomedicus.common.dictionary.StringIdentifier;
+import edu.umn.biomedicus.common.dictionary.StringsBag;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A trie of the lowercased phrases in the concept dictionary and a summary of the terms in its norm
+ * bags, used by {@link DetectDictionaryConcepts} to stop extending a phrase once no dictionary
+ * entry can start with it, and to skip dictionary lookups which cannot succeed.
+ *
+ * <p>Phrases are split into chunks: runs of letters, runs of digits, and single other characters,
+ * with whitespace dropped. Splitting on every change in character class means that text which ends
+ * at a token boundary ends at a chunk boundary of any phrase it is the start of, except when a
+ * token boundary falls in the middle of a run, which is handled by allowing the last chunk to be a
+ * prefix of a chunk in the trie. The trie is stored in compressed sparse row form, with the edges of
+ * every node sorted by chunk identifier, and chunk identifiers assigned in the sorted order of the
+ * chunks.</p>
+ *
+ * @since 2.2.0
+ */
+public final class ConceptTrie {
+
+  private static final int FORMAT_VERSION = 1;
+
+  private static final int LETTER = 0;
+
+  private static final int DIGIT = 1;
+
+  private static final int SPACE = 2;
+
+  private static final int OTHER = 3;
+
+  private final String[] chunks;
+
+  private final int[] edgeOffsets;
+
+  private final int[] edgeChunks;
+
+  private final int[] edgeTargets;
+
+  private final BitSet phraseNodes;
+
+  private final int[] normTerms;
+
+  private final int maxNormsSize;
+
+  private ConceptTrie(
+      String[] chunks,
+      int[] edgeOffsets,
+      int[] edgeChunks,
+      int[] edgeTargets,
+      BitSet phraseNodes,
+      int[] normTerms,
+      int maxNormsSize
+  ) {
+    this.chunks = chunks;
+    this.edgeOffsets = edgeOffsets;
+    this.edgeChunks = edgeChunks;
+    this.edgeTargets = edgeTargets;
+    this.phraseNodes = phraseNodes;
+    this.normTerms = normTerms;
+    this.maxNormsSize = maxNormsSize;
+  }
+
+  /**
+   * Returns whether any phrase in the dictionary, ignoring case and whitespace, starts with the
+   * text.
+   *
+   * @param text the text, ending at a token boundary
+   * @return true if the text, or text which continues it, could be a phrase in the dictionary
+   */
+  public boolean isPrefix(String text) {
+    List<String> textChunks = chunks(text);
+    int node = 0;
+    for (int i = 0; i < textChunks.size() - 1; i++) {
+      node = child(node, textChunks.get(i));
+      if (node == -1) {
+        return false;
+      }
+    }
+    if (textChunks.isEmpty()) {
+      return true;
+    }
+    String last = textChunks.get(textChunks.size() - 1);
+    int chunksFrom = lowerBound(last);
+    int chunksTo = lowerBound(last + Character.MAX_VALUE);
+    int edge = lowerBound(edgeChunks, edgeOffsets[node], edgeOffsets[node + 1], chunksFrom);
+    return edge < edgeOffsets[node + 1] && edgeChunks[edge] < chunksTo;
+  }
+
+  /**
+   * Returns whether the text, ignoring case and whitespace, is a phrase in the dictionary.
+   *
+   * @param text the text
+   * @return true if the phrase or lowercase phrase lookups could find the text
+   */
+  public boolean containsPhrase(String text) {
+    int node = 0;
+    for (String chunk : chunks(text)) {
+      node = child(node, chunk);
+      if (node == -1) {
+        return false;
+      }
+    }
+    return phraseNodes.get(node);
+  }
+
+  /**
+   * Returns whether the norms could be all or part of a bag of norms in the dictionary, meaning
+   * that every norm occurs in some bag, and there are no more norms than in the largest bag.
+   *
+   * @param norms the bag of norms
+   * @return false if neither the bag, nor any bag containing it, is in the dictionary
+   */
+  public boolean couldContainNorms(StringsBag norms) {
+    if (norms.size() > maxNormsSize) {
+      return false;
+    }
+    for (StringIdentifier norm : norms.toTerms()) {
+      if (Arrays.binarySearch(normTerms, norm.value()) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int child(int node, String chunk) {
+    int chunkId = Arrays.binarySearch(chunks, chunk);
+    if (chunkId < 0) {
+      return -1;
+    }
+    int edge = Arrays.binarySearch(edgeChunks, edgeOffsets[node], edgeOffsets[node + 1], chunkId);
+    return edge < 0 ? -1 : edgeTargets[edge];
+  }
+
+  private int lowerBound(String chunk) {
+    int index = Arrays.binarySearch(chunks, chunk);
+    return index < 0 ? -(index + 1) : index;
+  }
+
+  private static int lowerBound(int[] array, int fromIndex, int toIndex, int value) {
+    int index = Arrays.binarySearch(array, fromIndex, toIndex, value);
+    return index < 0 ? -(index + 1) : index;
+  }
+
+  /**
+   * Splits text into the lowercase chunks used as the keys of the trie.
+   *
+   * @param text the text
+   * @return list of chunks
+   */
+  static List<String> chunks(String text) {
+    String lowercase = text.toLowerCase(Locale.ENGLISH);
+    List<String> chunks = new ArrayList<>();
+    int begin = 0;
+    int previousClass = SPACE;
+    for (int i = 0; i < lowercase.length(); i++) {
+      int charClass = characterClass(lowercase.charAt(i));
+      if (charClass != previousClass || charClass == OTHER) {
+        if (previousClass != SPACE) {
+          chunks.add(lowercase.substring(begin, i));
+        }
+        begin = i;
+      }
+      previousClass = charClass;
+    }
+    if (previousClass != SPACE) {
+      chunks.add(lowercase.substring(begin));
+    }
+    return chunks;
+  }
+
+  private static int characterClass(char ch) {
+    if (Character.isLetter(ch)) {
+      return LETTER;
+    }
+    if (Character.isDigit(ch)) {
+      return DIGIT;
+    }
+    if (Character.isWhitespace(ch)) {
+      return SPACE;
+    }
+    return OTHER;
+  }
+
+  /**
+   * Loads a trie written by a {@link Builder}.
+   *
+   * @param path the path to the trie file
+   * @return the loaded trie
+   * @throws IOException if there is a failure reading the file
+   */
+  public static ConceptTrie load(Path path) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(path)))) {
+      int version = in.readInt();
+      if (version != FORMAT_VERSION) {
+        throw new IOException("Unsupported concept trie version: " + version);
+      }
+
+      String[] chunks = new String[in.readInt()];
+      for (int i = 0; i < chunks.length; i++) {
+        chunks[i] = in.readUTF();
+      }
+
+      int nodeCount = in.readInt();
+      int[] edgeOffsets = readInts(in, nodeCount + 1);
+      int[] edgeChunks = readInts(in, nodeCount - 1);
+      int[] edgeTargets = readInts(in, nodeCount - 1);
+      byte[] phraseNodeBytes = new byte[in.readInt()];
+      in.readFully(phraseNodeBytes);
+
+      int[] normTerms = readInts(in, in.readInt());
+      int maxNormsSize = in.readInt();
+
+      return new ConceptTrie(chunks, edgeOffsets, edgeChunks, edgeTargets,
+          BitSet.valueOf(phraseNodeBytes), normTerms, maxNormsSize);
+    }
+  }
+
+  private static int[] readInts(DataInputStream in, int count) throws IOException {
+    int[] ints = new int[count];
+    for (int i = 0; i < count; i++) {
+      ints[i] = in.readInt();
+    }
+    return ints;
+  }
+
+  private static void writeInts(DataOutputStream out, int[] ints) throws IOException {
+    for (int value : ints) {
+      out.writeInt(value);
+    }
+  }
+
+  /**
+   * Collects the phrases and norm bags of the dictionary and writes the trie file.
+   */
+  public static final class Builder {
+
+    private final List<List<String>> phrases = new ArrayList<>();
+
+    private final TreeSet<String> chunks = new TreeSet<>();
+
+    private final TreeSet<Integer> normTerms = new TreeSet<>();
+
+    private int maxNormsSize = 0;
+
+    /**
+     * Adds a phrase to the trie.
+     *
+     * @param phrase the dictionary phrase
+     */
+    public void addPhrase(String phrase) {
+      List<String> phraseChunks = chunks(phrase);
+      if (!phraseChunks.isEmpty()) {
+        phrases.add(phraseChunks);
+        chunks.addAll(phraseChunks);
+      }
+    }
+
+    /**
+     * Adds a bag of norms to the summary of norm bags.
+     *
+     * @param norms the dictionary bag of norms
+     */
+    public void addNorms(StringsBag norms) {
+      for (StringIdentifier norm : norms.toTerms()) {
+        normTerms.add(norm.value());
+      }
+      maxNormsSize = Math.max(maxNormsSize, norms.size());
+    }
+
+    /**
+     * Writes the trie to a file.
+     *
+     * @param path the path to write to
+     * @throws IOException if there is a failure writing the file
+     */
+    public void write(Path path) throws IOException {
+      String[] chunkArray = chunks.toArray(new String[0]);
+
+      Map<Long, Integer> edges = new HashMap<>();
+      BitSet phraseNodes = new BitSet();
+      int nodeCount = 1;
+      for (List<String> phrase : phrases) {
+        int node = 0;
+        for (String chunk : phrase) {
+          long key = ((long) node << 32) | Arrays.binarySearch(chunkArray, chunk);
+          Integer child = edges.get(key);
+          if (child == null) {
+            edges.put(key, child = nodeCount++);
+          }
+          node = child;
+        }
+        phraseNodes.set(node);
+      }
+
+      long[] keys = new long[edges.size()];
+      int i = 0;
+      for (long key : edges.keySet()) {
+        keys[i++] = key;
+      }
+      Arrays.sort(keys);
+
+      int[] edgeOffsets = new int[nodeCount + 1];
+      int[] edgeChunks = new int[keys.length];
+      int[] edgeTargets = new int[keys.length];
+      for (int edge = 0; edge < keys.length; edge++) {
+        edgeOffsets[(int) (keys[edge] >>> 32) + 1]++;
+        edgeChunks[edge] = (int) keys[edge];
+        edgeTargets[edge] = edges.get(keys[edge]);
+      }
+      for (int node = 0; node < nodeCount; node++) {
+        edgeOffsets[node + 1] += edgeOffsets[node];
+      }
+
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(path)))) {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(chunkArray.length);
+        for (String chunk : chunkArray) {
+          out.writeUTF(chunk);
+        }
+        out.writeInt(nodeCount);
+        writeInts(out, edgeOffsets);
+        writeInts(out, edgeChunks);
+        writeInts(out, edgeTargets);
+        byte[] phraseNodeBytes = phraseNodes.toByteArray();
+        out.writeInt(phraseNodeBytes.length);
+        out.write(phraseNodeBytes);
+        out.writeInt(normTerms.size());
+        for (int normTerm : normTerms) {
+          out.writeInt(normTerm);
+        }
+        out.writeInt(maxNormsSize);
+      }
+    }
+  }
+}
@@ -46,11 +46,14 @@ import edu.umn.nlpengine.TextRange;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import javax.inject.Inject;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,6 +62,14 @@ import org.slf4j.LoggerFactory;
  * matches against all in-order sublists of tokens in a sentence. Then it will perform syntactic
  * permutations on any prepositional phrases in those sublists.
  *
+ * <p>If the dictionary has a {@link ConceptTrie}, sublists are extended from each token until no
+ * phrase in the dictionary can start with them, or up to {@code SPAN_SIZE} tokens while their norms
+ * could be part of a bag of norms in the dictionary, and lookups are only performed for phrases in
+ * the trie. Otherwise sublists are limited to {@code SPAN_SIZE} tokens.</p>
+ *
+ * <p>The phrases, lowercased phrases, and bags of norms for all of the sublists in a sentence are
+ * gathered first and looked up in one batch for each kind of key.</p>
+ *
  * @author Ben Knoll
  * @author Serguei Pakhomov
  * @since 1.0.0
@@ -81,6 +92,12 @@ class DetectDictionaryConcepts implements DocumentTask {
 
   private Labeler<UmlsConcept> conceptLabeler;
 
+  private Map<String, List<ConceptRow>> phraseConcepts;
+
+  private Map<String, List<ConceptRow>> lowercaseConcepts;
+
+  private Map<StringsBag, List<ConceptRow>> normsConcepts;
+
   /**
    * Creates a dictionary concept recognizer from a concept dictionary and a document.
    *
@@ -112,7 +129,7 @@ class DetectDictionaryConcepts implements DocumentTask {
   }
 
   private boolean checkPhrase(Span span, String phrase, boolean oneToken, double confMod) {
-    List<ConceptRow> phraseSUI = conceptDictionary.forPhrase(phrase);
+    List<ConceptRow> phraseSUI = phraseConcepts.get(phrase);
 
     if (phraseSUI != null) {
       makeTerm(span, phraseSUI, 1 - confMod);
@@ -123,7 +140,7 @@ class DetectDictionaryConcepts implements DocumentTask {
       return false;
     }
 
-    phraseSUI = conceptDictionary.forLowercasePhrase(phrase.toLowerCase(Locale.ENGLISH));
+    phraseSUI = lowercaseConcepts.get(phrase.toLowerCase(Locale.ENGLISH));
 
     if (phraseSUI != null) {
       makeTerm(span, phraseSUI, 0.6 - confMod);
@@ -133,13 +150,7 @@ class DetectDictionaryConcepts implements DocumentTask {
     return false;
   }
 
-  private void checkTokenSet(List<TermToken> tokenSet) {
-    if (tokenSet.size() <= 1) {
-      return;
-    }
-
-    Span phraseAsSpan = new Span(tokenSet.get(0).getStartIndex(),
-        tokenSet.get(tokenSet.size() - 1).getEndIndex());
+  private StringsBag normBag(Span phraseAsSpan) {
     StringsBag.Builder builder = StringsBag.builder();
     for (NormForm normForm : normIndexes.inside(phraseAsSpan)) {
 
@@ -151,9 +162,11 @@ class DetectDictionaryConcepts implements DocumentTask {
 
       builder.addTerm(normForm.normIdentifier());
     }
-    StringsBag normBag = builder.build();
+    return builder.build();
+  }
 
-    List<ConceptRow> normsCUI = conceptDictionary.forNorms(normBag);
+  private void checkTokenSet(Span phraseAsSpan, StringsBag normBag) {
+    List<ConceptRow> normsCUI = normsConcepts.get(normBag);
     if (normsCUI != null) {
       makeTerm(phraseAsSpan, normsCUI, .3);
     }
@@ -166,20 +179,34 @@ class DetectDictionaryConcepts implements DocumentTask {
         source = "unknown";
         LOGGER.warn("Unknown source");
       }
-      conceptLabeler.add(
-          new UmlsConcept(
-              label,
-              row.getSui().toString(),
-              row.getCui().toString(),
-              row.getTui().toString(),
-              source,
-              confidence
-          )
-      );
+      conceptLabeler.add(new UmlsConcept(label, row, source, confidence));
     }
     termLabeler.add(new DictionaryTerm(label));
   }
 
+  private void lookup(List<Candidate> candidates) {
+    Set<String> phrases = new LinkedHashSet<>();
+    Set<String> lowercasePhrases = new LinkedHashSet<>();
+    Set<StringsBag> normBags = new LinkedHashSet<>();
+    for (Candidate candidate : candidates) {
+      for (String phrase : new String[]{candidate.phrase, candidate.editedPhrase}) {
+        if (phrase != null) {
+          phrases.add(phrase);
+          if (!candidate.oneToken) {
+            lowercasePhrases.add(phrase.toLowerCase(Locale.ENGLISH));
+          }
+        }
+      }
+      if (candidate.normBag != null) {
+        normBags.add(candidate.normBag);
+      }
+    }
+
+    phraseConcepts = conceptDictionary.forPhrases(phrases);
+    lowercaseConcepts = conceptDictionary.forLowercasePhrases(lowercasePhrases);
+    normsConcepts = conceptDictionary.forNormBags(normBags);
+  }
+
   @Override
   public void run(@Nonnull Document document) {
     LOGGER.debug("Finding concepts in document.");
@@ -192,6 +219,8 @@ class DetectDictionaryConcepts implements DocumentTask {
     LabelIndex<TermToken> termTokenLabelIndex = document.labelIndex(TermToken.class);
     LabelIndex<Acronym> acronymLabelIndex = document.labelIndex(Acronym.class);
 
+    ConceptTrie trie = conceptDictionary.trie();
+
     String documentText = document.getText();
     for (Sentence sentence : sentences) {
       LOGGER.trace("Identifying concepts in a sentence");
@@ -219,36 +248,96 @@ class DetectDictionaryConcepts implements DocumentTask {
         editedStringSpans.add(span);
       }
 
+      List<Candidate> candidates = new ArrayList<>();
       for (int from = 0; from < sentenceTermTokens.size(); from++) {
-        int to = Math.min(from + SPAN_SIZE, sentenceTermTokens.size());
+        int to = trie == null ? Math.min(from + SPAN_SIZE, sentenceTermTokens.size())
+            : sentenceTermTokens.size();
         List<TermToken> window = sentenceTermTokens.subList(from, to);
 
         TermToken first = window.get(0);
 
         for (int subsetSize = 1; subsetSize <= window.size(); subsetSize++) {
-          List<TermToken> windowSubset = window.subList(0, subsetSize);
-          TermToken last = windowSubset.get(subsetSize - 1);
+          TermToken last = window.get(subsetSize - 1);
           Span entire = new Span(first.getStartIndex(), last.getEndIndex());
 
+          String phrase = entire.coveredString(documentText);
+          int editedBegin = editedStringSpans.get(from).getStartIndex();
+          int editedEnd = editedStringSpans.get(from + subsetSize - 1).getEndIndex();
+          String editedSubstring = editedString.substring(editedBegin, editedEnd);
+          // couldContainNorms is not a prefix test, so bags of norms alone only extend the window
+          // to SPAN_SIZE tokens
+          boolean checkNorms = subsetSize > 1 && (trie == null || subsetSize <= SPAN_SIZE);
+          StringsBag normBag = checkNorms ? normBag(entire) : null;
+
+          if (trie != null) {
+            boolean phrasePrefix = trie.isPrefix(phrase) || trie.isPrefix(editedSubstring);
+            checkNorms = checkNorms && trie.couldContainNorms(normBag);
+            if (!phrasePrefix && !checkNorms) {
+              if (subsetSize == 1) {
+                continue;
+              }
+              break;
+            }
+          }
+
           if (posTags.inside(entire).stream()
               .map(PosTag::getPartOfSpeech).allMatch(TRIVIAL_POS::contains)) {
             continue;
           }
 
-          if (checkPhrase(entire, entire.coveredString(documentText), subsetSize == 1, 0)) {
-            continue;
-          }
+          candidates.add(new Candidate(entire,
+              trie == null || trie.containsPhrase(phrase) ? phrase : null,
+              trie == null || trie.containsPhrase(editedSubstring) ? editedSubstring : null,
+              subsetSize == 1, checkNorms ? normBag : null));
+        }
+      }
 
-          int editedBegin = editedStringSpans.get(from).getStartIndex();
-          int editedEnd = editedStringSpans.get(from + subsetSize - 1).getEndIndex();
-          String editedSubstring = editedString.substring(editedBegin, editedEnd);
-          if (checkPhrase(entire, editedSubstring, subsetSize == 1, .1)) {
-            continue;
-          }
+      lookup(candidates);
+
+      for (Candidate candidate : candidates) {
+        if (candidate.phrase != null
+            && checkPhrase(candidate.span, candidate.phrase, candidate.oneToken, 0)) {
+          continue;
+        }
+
+        if (candidate.editedPhrase != null
+            && checkPhrase(candidate.span, candidate.editedPhrase, candidate.oneToken, .1)) {
+          continue;
+        }
 
-          checkTokenSet(windowSubset);
+        if (candidate.normBag != null) {
+          checkTokenSet(candidate.span, candidate.normBag);
         }
       }
     }
   }
+
+  /**
+   * A sublist of tokens in a sentence and the keys it will be looked up with, null for the keys
+   * which should not be looked up.
+   */
+  private static final class Candidate {
+
+    final Span span;
+
+    @Nullable
+    final String phrase;
+
+    @Nullable
+    final String editedPhrase;
+
+    final boolean oneToken;
+
+    @Nullable
+    final StringsBag normBag;
+
+    Candidate(Span span, @Nullable String phrase, @Nullable String editedPhrase,
+        boolean oneToken, @Nullable StringsBag normBag) {
+      this.span = span;
+      this.phrase = phrase;
+      this.editedPhrase = editedPhrase;
+      this.oneToken = oneToken;
+      this.normBag = normBag;
+    }
+  }
 }
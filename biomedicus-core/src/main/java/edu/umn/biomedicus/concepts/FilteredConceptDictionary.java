@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.concepts;
+
+import edu.umn.biomedicus.common.dictionary.StringsBag;
+import edu.umn.biomedicus.exc.BiomedicusException;
+import edu.umn.biomedicus.framework.LifecycleManaged;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link ConceptDictionary} which checks every lookup against a {@link ConceptFilter} before
+ * passing it on to the dictionary it wraps.
+ *
+ * @since 2.2.0
+ */
+class FilteredConceptDictionary implements ConceptDictionary, LifecycleManaged {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FilteredConceptDictionary.class);
+
+  private final ConceptDictionary dictionary;
+
+  private final ConceptFilter filter;
+
+  FilteredConceptDictionary(ConceptDictionary dictionary, ConceptFilter filter) {
+    this.dictionary = dictionary;
+    this.filter = filter;
+  }
+
+  @Nullable
+  private List<ConceptRow> checked(@Nullable List<ConceptRow> rows) {
+    if (rows == null) {
+      filter.recordFalsePositives(1);
+    }
+    return rows;
+  }
+
+  private <T> List<T> passing(Collection<T> keys, Predicate<T> mightContain) {
+    List<T> passing = new ArrayList<>(keys.size());
+    for (T key : keys) {
+      if (mightContain.test(key)) {
+        passing.add(key);
+      }
+    }
+    return passing;
+  }
+
+  private <T> Map<T, List<ConceptRow>> checked(List<T> keys, Map<T, List<ConceptRow>> found) {
+    filter.recordFalsePositives(keys.size() - found.size());
+    return found;
+  }
+
+  @Nullable
+  @Override
+  public List<ConceptRow> forPhrase(String phrase) {
+    return filter.mightContainPhrase(phrase) ? checked(dictionary.forPhrase(phrase)) : null;
+  }
+
+  @Nullable
+  @Override
+  public List<ConceptRow> forLowercasePhrase(String phrase) {
+    return filter.mightContainLowercasePhrase(phrase)
+        ? checked(dictionary.forLowercasePhrase(phrase)) : null;
+  }
+
+  @Nullable
+  @Override
+  public List<ConceptRow> forNorms(StringsBag norms) {
+    if (norms.uniqueTerms() == 0) {
+      return null;
+    }
+    return filter.mightContainNorms(norms) ? checked(dictionary.forNorms(norms)) : null;
+  }
+
+  @Override
+  public Map<String, List<ConceptRow>> forPhrases(Collection<String> phrases) {
+    List<String> passing = passing(phrases, filter::mightContainPhrase);
+    return checked(passing, dictionary.forPhrases(passing));
+  }
+
+  @Override
+  public Map<String, List<ConceptRow>> forLowercasePhrases(Collection<String> phrases) {
+    List<String> passing = passing(phrases, filter::mightContainLowercasePhrase);
+    return checked(passing, dictionary.forLowercasePhrases(passing));
+  }
+
+  @Override
+  public Map<StringsBag, List<ConceptRow>> forNormBags(Collection<StringsBag> normBags) {
+    List<StringsBag> passing = passing(normBags,
+        normBag -> normBag.uniqueTerms() != 0 && filter.mightContainNorms(normBag));
+    return checked(passing, dictionary.forNormBags(passing));
+  }
+
+  @Nullable
+  @Override
+  public String source(int identifier) {
+    return dictionary.source(identifier);
+  }
+
+  @Nullable
+  @Override
+  public ConceptTrie trie() {
+    return dictionary.trie();
+  }
+
+  @Override
+  public void doShutdown() throws BiomedicusException {
+    LOGGER.info("Concepts dictionary filter: {}", filter);
+    if (dictionary instanceof LifecycleManaged) {
+      ((LifecycleManaged) dictionary).doShutdown();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.concepts;
+
+import edu.umn.biomedicus.common.dictionary.StringsBag;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * An implementation of {@link ConceptDictionary} that looks up concepts in memory-mapped
+ * {@link MappedConceptTable} files, keeping the dictionary in memory but outside of the Java heap.
+ *
+ * @since 2.2.0
+ */
+class MappedConceptDictionary implements ConceptDictionary {
+
+  private final MappedConceptTable phrases;
+
+  private final MappedConceptTable lowercase;
+
+  private final MappedConceptTable norms;
+
+  private final Map<Integer, String> sources;
+
+  @Nullable
+  private final ConceptTrie trie;
+
+  MappedConceptDictionary(
+      MappedConceptTable phrases,
+      MappedConceptTable lowercase,
+      MappedConceptTable norms,
+      Map<Integer, String> sources,
+      @Nullable ConceptTrie trie
+  ) {
+    this.phrases = phrases;
+    this.lowercase = lowercase;
+    this.norms = norms;
+    this.sources = sources;
+    this.trie = trie;
+  }
+
+  @Nullable
+  @Override
+  public List<ConceptRow> forPhrase(String phrase) {
+    return phrases.get(phrase.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Nullable
+  @Override
+  public List<ConceptRow> forLowercasePhrase(String phrase) {
+    return lowercase.get(phrase.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Nullable
+  @Override
+  public List<ConceptRow> forNorms(StringsBag norms) {
+    if (norms.uniqueTerms() == 0) {
+      return null;
+    }
+    return this.norms.get(norms.getBytes());
+  }
+
+  @Nullable
+  @Override
+  public String source(int identifier) {
+    return sources.get(identifier);
+  }
+
+  @Nullable
+  @Override
+  public ConceptTrie trie() {
+    return trie;
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.concepts;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksIterator;
+
+/**
+ * A read-only hash table from keys to lists of {@link ConceptRow}, stored in a memory-mapped file
+ * so that it is kept outside of the Java heap and loads as fast as the file can be mapped.
+ *
+ * <p>The file is a header, followed by the records, followed by the slots of an open-addressing
+ * table with linear probing. Each record is the key length, the key bytes, the number of rows, and
+ * the rows as fixed-width records of four ints. Each slot is the hash of its key and the offset of
+ * its record, or -1 if it is empty. The table has a power of two number of slots, at most half
+ * full.</p>
+ *
+ * @since 2.2.0
+ */
+final class MappedConceptTable {
+
+  private static final int FORMAT_VERSION = 1;
+
+  private static final int HEADER_BYTES = 12;
+
+  private static final int SLOT_BYTES = 8;
+
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+
+  private final ByteBuffer buffer;
+
+  private final int slotsOffset;
+
+  private final int mask;
+
+  private MappedConceptTable(ByteBuffer buffer, int slotsOffset, int slotCount) {
+    this.buffer = buffer;
+    this.slotsOffset = slotsOffset;
+    mask = slotCount - 1;
+  }
+
+  /**
+   * Finds the rows for the key.
+   *
+   * @param key the key bytes
+   * @return the list of rows, or null if the key is not in the table
+   */
+  @Nullable
+  List<ConceptRow> get(byte[] key) {
+    int hash = HASH_FUNCTION.hashBytes(key).asInt();
+    for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+      int slotOffset = slotsOffset + slot * SLOT_BYTES;
+      int record = buffer.getInt(slotOffset + 4);
+      if (record == -1) {
+        return null;
+      }
+      if (buffer.getInt(slotOffset) == hash && keyEquals(record, key)) {
+        return rows(record + 4 + key.length);
+      }
+    }
+  }
+
+  private boolean keyEquals(int record, byte[] key) {
+    if (buffer.getInt(record) != key.length) {
+      return false;
+    }
+    for (int i = 0; i < key.length; i++) {
+      if (buffer.get(record + 4 + i) != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private List<ConceptRow> rows(int offset) {
+    int count = buffer.getInt(offset);
+    List<ConceptRow> rows = new ArrayList<>(count);
+    for (int i = 0, position = offset + 4; i < count; i++, position += ConceptRow.NUM_BYTES) {
+      rows.add(new ConceptRow(
+          buffer.getInt(position),
+          buffer.getInt(position + 4),
+          buffer.getInt(position + 8),
+          buffer.getInt(position + 12)
+      ));
+    }
+    return rows;
+  }
+
+  /**
+   * Maps a table file written by {@link #write(RocksDB, Path)}.
+   *
+   * @param path the path to the table file
+   * @return the mapped table
+   * @throws IOException if there is a failure reading the file
+   */
+  static MappedConceptTable load(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Concepts table is too large to map: " + path);
+      }
+      ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      int version = buffer.getInt(0);
+      if (version != FORMAT_VERSION) {
+        throw new IOException("Unsupported concepts table version: " + version);
+      }
+      return new MappedConceptTable(buffer, buffer.getInt(8), buffer.getInt(4));
+    }
+  }
+
+  /**
+   * Writes every key and value in a concepts database to a table file.
+   *
+   * @param db the concepts database, with values of serialized {@link ConceptRow} lists
+   * @param path the path to write to
+   * @throws IOException if there is a failure writing the file, or the table would be larger than
+   * can be mapped
+   */
+  static void write(RocksDB db, Path path) throws IOException {
+    int[] hashes = new int[1024];
+    int[] records = new int[1024];
+    int count = 0;
+    long offset = HEADER_BYTES;
+    int slotCount;
+
+    // written to a temporary file first so an interrupted write never leaves a partial table
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(temp)));
+        RocksIterator iterator = db.newIterator()) {
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(0);
+      out.writeInt(0);
+
+      for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+        byte[] key = iterator.key();
+        byte[] value = iterator.value();
+        if (count == hashes.length) {
+          hashes = Arrays.copyOf(hashes, count * 2);
+          records = Arrays.copyOf(records, count * 2);
+        }
+        hashes[count] = HASH_FUNCTION.hashBytes(key).asInt();
+        records[count++] = (int) offset;
+
+        out.writeInt(key.length);
+        out.write(key);
+        out.writeInt(value.length / ConceptRow.NUM_BYTES);
+        out.write(value);
+        offset += 8 + key.length + value.length;
+        if (offset > Integer.MAX_VALUE) {
+          throw new IOException("Concepts table is too large to map: " + path);
+        }
+      }
+
+      slotCount = Integer.highestOneBit(Math.max(1, count)) << 2;
+      if (offset + (long) slotCount * SLOT_BYTES > Integer.MAX_VALUE) {
+        throw new IOException("Concepts table is too large to map: " + path);
+      }
+      int[] slots = new int[slotCount];
+      Arrays.fill(slots, -1);
+      int mask = slotCount - 1;
+      for (int i = 0; i < count; i++) {
+        int slot = hashes[i] & mask;
+        while (slots[slot] != -1) {
+          slot = (slot + 1) & mask;
+        }
+        slots[slot] = i;
+      }
+      for (int entry : slots) {
+        out.writeInt(entry == -1 ? 0 : hashes[entry]);
+        out.writeInt(entry == -1 ? -1 : records[entry]);
+      }
+    }
+
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.allocate(8).putInt(slotCount).putInt((int) offset);
+      header.flip();
+      channel.write(header, 4);
+    }
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
@@ -21,8 +21,11 @@ import edu.umn.biomedicus.framework.LifecycleManaged;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import javax.annotation.Nullable;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
@@ -42,16 +45,21 @@ class RocksDbConceptDictionary implements ConceptDictionary, LifecycleManaged {
 
   private final Map<Integer, String> sources;
 
+  @Nullable
+  private final ConceptTrie trie;
+
   RocksDbConceptDictionary(
       RocksDB phrases,
       RocksDB lowercase,
       RocksDB normsDB,
-      Map<Integer, String> sources
+      Map<Integer, String> sources,
+      @Nullable ConceptTrie trie
   ) {
     this.phrases = phrases;
     this.lowercase = lowercase;
     this.normsDB = normsDB;
     this.sources = sources;
+    this.trie = trie;
   }
 
   static List<ConceptRow> toList(byte[] bytes) {
@@ -64,6 +72,35 @@ class RocksDbConceptDictionary implements ConceptDictionary, LifecycleManaged {
     return list;
   }
 
+  /**
+   * Looks up all of the keys with a single {@link RocksDB#multiGet(List)} call.
+   */
+  private static <T> Map<T, List<ConceptRow>> multiGet(RocksDB db, Collection<T> keys,
+      Function<T, byte[]> keyBytes) {
+    Map<T, List<ConceptRow>> map = new HashMap<>();
+    if (keys.isEmpty()) {
+      return map;
+    }
+    List<T> keyList = new ArrayList<>(keys);
+    List<byte[]> keyBytesList = new ArrayList<>(keyList.size());
+    for (T key : keyList) {
+      keyBytesList.add(keyBytes.apply(key));
+    }
+    try {
+      // the result is keyed by the identities of the key arrays which were passed in
+      Map<byte[], byte[]> values = db.multiGet(keyBytesList);
+      for (int i = 0; i < keyList.size(); i++) {
+        byte[] bytes = values.get(keyBytesList.get(i));
+        if (bytes != null) {
+          map.put(keyList.get(i), toList(bytes));
+        }
+      }
+    } catch (RocksDBException e) {
+      throw new RuntimeException(e);
+    }
+    return map;
+  }
+
   @Nullable
   @Override
   public List<ConceptRow> forPhrase(String phrase) {
@@ -100,12 +137,39 @@ class RocksDbConceptDictionary implements ConceptDictionary, LifecycleManaged {
     }
   }
 
+  @Override
+  public Map<String, List<ConceptRow>> forPhrases(Collection<String> phrases) {
+    return multiGet(this.phrases, phrases, phrase -> phrase.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public Map<String, List<ConceptRow>> forLowercasePhrases(Collection<String> phrases) {
+    return multiGet(lowercase, phrases, phrase -> phrase.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public Map<StringsBag, List<ConceptRow>> forNormBags(Collection<StringsBag> normBags) {
+    List<StringsBag> nonEmpty = new ArrayList<>(normBags.size());
+    for (StringsBag normBag : normBags) {
+      if (normBag.uniqueTerms() != 0) {
+        nonEmpty.add(normBag);
+      }
+    }
+    return multiGet(normsDB, nonEmpty, StringsBag::getBytes);
+  }
+
   @Nullable
   @Override
   public String source(int identifier) {
     return sources.get(identifier);
   }
 
+  @Nullable
+  @Override
+  public ConceptTrie trie() {
+    return trie;
+  }
+
   @Override
   public void doShutdown() {
 
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.concepts;
+
+import com.google.common.primitives.UnsignedBytes;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * An external sort of key and value byte arrays, using a bounded amount of memory. Records are
+ * buffered until the buffer reaches the run size, then sorted and written to a temporary run file.
+ * The runs are merged in the unsigned lexicographic order of the keys, the order of RocksDB's
+ * default comparator, with the values of equal keys concatenated in the order they were added.
+ *
+ * @since 2.2.0
+ */
+final class SortedRuns implements Closeable {
+
+  private static final Comparator<byte[]> KEY_ORDER = UnsignedBytes.lexicographicalComparator();
+
+  /**
+   * An estimate of the heap used by a buffered record beyond its key and value bytes.
+   */
+  private static final int RECORD_OVERHEAD = 64;
+
+  private final Path directory;
+
+  private final long maxRunBytes;
+
+  private final List<Record> buffer = new ArrayList<>();
+
+  private long bufferBytes = 0;
+
+  private final List<Path> runs = new ArrayList<>();
+
+  private final List<Integer> runSizes = new ArrayList<>();
+
+  /**
+   * Creates an empty sort.
+   *
+   * @param directory the directory to write the temporary run files in
+   * @param maxRunBytes the approximate number of bytes of records to buffer before writing a run
+   */
+  SortedRuns(Path directory, long maxRunBytes) {
+    this.directory = directory;
+    this.maxRunBytes = maxRunBytes;
+  }
+
+  /**
+   * Adds a record, writing a run if the buffer is full.
+   *
+   * @param key the key bytes
+   * @param value the value bytes
+   * @throws IOException if there is a failure writing a run
+   */
+  void add(byte[] key, byte[] value) throws IOException {
+    buffer.add(new Record(key, value));
+    bufferBytes += key.length + value.length + RECORD_OVERHEAD;
+    if (bufferBytes >= maxRunBytes) {
+      writeRun();
+    }
+  }
+
+  private void writeRun() throws IOException {
+    // List.sort is stable, keeping the values of equal keys in the order they were added
+    buffer.sort((first, second) -> KEY_ORDER.compare(first.key, second.key));
+    Path run = Files.createTempFile(directory, "run", ".bin");
+    runs.add(run);
+    runSizes.add(buffer.size());
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(run)))) {
+      for (Record record : buffer) {
+        out.writeInt(record.key.length);
+        out.write(record.key);
+        out.writeInt(record.value.length);
+        out.write(record.value);
+      }
+    }
+    buffer.clear();
+    bufferBytes = 0;
+  }
+
+  /**
+   * Merges the runs, passing each distinct key to the consumer in sorted order along with the
+   * concatenation of its values. The run files are deleted afterwards.
+   *
+   * @param consumer the consumer of keys and values
+   * @return the number of distinct keys
+   * @throws IOException if there is a failure reading or writing the runs, or in the consumer
+   */
+  long merge(MergedRecordConsumer consumer) throws IOException {
+    if (!buffer.isEmpty()) {
+      writeRun();
+    }
+
+    PriorityQueue<RunReader> queue = new PriorityQueue<>((first, second) -> {
+      int compare = KEY_ORDER.compare(first.key, second.key);
+      return compare != 0 ? compare : Integer.compare(first.index, second.index);
+    });
+    List<RunReader> readers = new ArrayList<>(runs.size());
+    try {
+      for (int i = 0; i < runs.size(); i++) {
+        RunReader reader = new RunReader(i);
+        readers.add(reader);
+        if (reader.advance()) {
+          queue.add(reader);
+        }
+      }
+
+      long keys = 0;
+      ByteArrayOutputStream values = new ByteArrayOutputStream();
+      while (!queue.isEmpty()) {
+        byte[] key = queue.peek().key;
+        values.reset();
+        while (!queue.isEmpty() && Arrays.equals(queue.peek().key, key)) {
+          RunReader reader = queue.poll();
+          values.write(reader.value);
+          if (reader.advance()) {
+            queue.add(reader);
+          }
+        }
+        consumer.accept(key, values.toByteArray());
+        keys++;
+      }
+      return keys;
+    } finally {
+      for (RunReader reader : readers) {
+        reader.in.close();
+      }
+      close();
+    }
+  }
+
+  /**
+   * Deletes any run files.
+   *
+   * @throws IOException if there is a failure deleting a file
+   */
+  @Override
+  public void close() throws IOException {
+    for (Path run : runs) {
+      Files.deleteIfExists(run);
+    }
+    runs.clear();
+    runSizes.clear();
+  }
+
+  /**
+   * Receives the merged keys and values.
+   */
+  interface MergedRecordConsumer {
+
+    void accept(byte[] key, byte[] value) throws IOException;
+  }
+
+  private static final class Record {
+
+    private final byte[] key;
+
+    private final byte[] value;
+
+    Record(byte[] key, byte[] value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  private final class RunReader {
+
+    private final int index;
+
+    private final DataInputStream in;
+
+    private int remaining;
+
+    private byte[] key;
+
+    private byte[] value;
+
+    RunReader(int index) throws IOException {
+      this.index = index;
+      in = new DataInputStream(new BufferedInputStream(Files.newInputStream(runs.get(index))));
+      remaining = runSizes.get(index);
+    }
+
+    boolean advance() throws IOException {
+      if (remaining-- == 0) {
+        return false;
+      }
+      key = new byte[in.readInt()];
+      in.readFully(key);
+      value = new byte[in.readInt()];
+      in.readFully(value);
+      return true;
+    }
+  }
+}
@@ -16,12 +16,20 @@
 
 package edu.umn.biomedicus.framework;
 
+import com.google.inject.Binding;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Singleton;
+import com.google.inject.name.Named;
 import edu.umn.biomedicus.annotations.Setting;
+import edu.umn.biomedicus.exc.BiomedicusException;
+import edu.umn.nlpengine.Systems;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import kotlin.Unit;
 
 /**
  * A class that provides access to the functionality of Biomedicus. The instances of this class is
@@ -36,14 +44,60 @@ public final class Application {
   private final Injector injector;
   private final Path confFolder;
   private final Path dataFolder;
+  private final Map<String, Object> globalSettings;
+  private final Set<String> knownSearchExprs;
 
   @Inject
   Application(Injector injector,
       @Setting("paths.conf") Path confFolder,
-      @Setting("paths.data") Path dataFolder) {
+      @Setting("paths.data") Path dataFolder,
+      @Named("globalSettings") Map<String, Object> globalSettings,
+      @Named(SearchExprFactory.KNOWN_EXPRS) Set<String> knownSearchExprs) {
     this.injector = injector;
     this.confFolder = confFolder;
     this.dataFolder = dataFolder;
+    this.globalSettings = globalSettings;
+    this.knownSearchExprs = knownSearchExprs;
+  }
+
+  /**
+   * If the "eagerLoading.enabled" setting is true, concurrently loads all of the models bound in
+   * the injector and all of the models that the classes depend on, using the number of threads in
+   * the "eagerLoading.threads" setting.
+   *
+   * @param classes the pipeline components or other classes which will be used
+   * @throws BiomedicusException if any of the models fails to load
+   */
+  public void eagerLoad(Collection<? extends Class<?>> classes) throws BiomedicusException {
+    if (!Boolean.TRUE.equals(globalSettings.get("eagerLoading.enabled"))) {
+      return;
+    }
+    Object threads = globalSettings.get("eagerLoading.threads");
+    injector.getInstance(EagerLoader.class).loadAll(classes, threads instanceof Number
+        ? ((Number) threads).intValue() : Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Compiles all of the known search expressions bound by modules, so that errors in them are found
+   * and the cost of parsing them is paid at startup. The label classes of the configured systems
+   * are added as label aliases first, the same aliases the UIMA label adapters add.
+   *
+   * @throws BiomedicusException if any of the expressions fails to compile
+   */
+  public void precompileSearchExprs() throws BiomedicusException {
+    Binding<Systems> systemsBinding = injector.getExistingBinding(Key.get(Systems.class));
+    if (systemsBinding != null) {
+      LabelAliases labelAliases = injector.getInstance(LabelAliases.class);
+      systemsBinding.getProvider().get().forEachLabelClass(labelClass -> {
+        labelAliases.addAlias(labelClass.getSimpleName(), labelClass);
+        return Unit.INSTANCE;
+      });
+    }
+    try {
+      injector.getInstance(SearchExprFactory.class).precompile(knownSearchExprs);
+    } catch (IllegalArgumentException e) {
+      throw new BiomedicusException(e);
+    }
   }
 
   public Injector getInjector() {
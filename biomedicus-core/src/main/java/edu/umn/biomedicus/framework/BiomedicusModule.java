@@ -42,5 +42,6 @@ final class BiomedicusModule extends AbstractModule {
   protected void configure() {
     bindScope(ProcessorScoped.class, BiomedicusScopes.PROCESSOR_SCOPE);
     bind(Key.get(Path.class, new SettingImpl("biomedicus.paths.home"))).toInstance(homePath);
+    SearchExprFactory.knownExprsBinder(binder());
   }
 }
@@ -119,14 +119,14 @@ public final class BiomedicusScopes {
 
     /**
      * Runs the callable inside of a context, providing objects from that context for injected types
-     * within the context.
+     * within the context. The context may be entered by multiple threads at the same time.
      *
      * @param callable the {@link Callable} to run.
      * @param <T> the return type of the callable.
      * @return the value of T returned by the callable.
      * @throws Exception any exception thrown by the callable.
      */
-    public synchronized <T> T call(Callable<T> callable) throws Exception {
+    public <T> T call(Callable<T> callable) throws Exception {
       if (contextRef.get() != null) {
         throw new IllegalStateException("Processor scope already in progress");
       }
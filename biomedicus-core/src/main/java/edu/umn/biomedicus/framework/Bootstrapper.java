@@ -22,6 +22,8 @@ import com.google.inject.Module;
 import com.google.inject.Stage;
 import edu.umn.biomedicus.exc.BiomedicusException;
 import edu.umn.biomedicus.measures.BiomedicusMeasuresModule;
+import edu.umn.biomedicus.sh.SocialHistorySearchExprsModule;
+import edu.umn.biomedicus.time.TimeSearchExprsModule;
 import edu.umn.biomedicus.vocabulary.VocabularyModule;
 import edu.umn.nlpengine.Systems;
 import edu.umn.nlpengine.SystemsModule;
@@ -66,6 +68,8 @@ public final class Bootstrapper {
   public Bootstrapper() {
     modules.add(new VocabularyModule());
     modules.add(new BiomedicusMeasuresModule());
+    modules.add(new TimeSearchExprsModule());
+    modules.add(new SocialHistorySearchExprsModule());
   }
 
   /**
@@ -285,7 +289,7 @@ public final class Bootstrapper {
     return Paths.get(home);
   }
 
-  private Application biomedicus() {
+  private Application biomedicus() throws BiomedicusException {
     Injector biomedicusInjector;
     if (injector != null) {
       biomedicusInjector = injector.createChildInjector(modules);
@@ -293,6 +297,9 @@ public final class Bootstrapper {
       biomedicusInjector = Guice.createInjector(Stage.PRODUCTION, modules);
     }
 
-    return biomedicusInjector.getInstance(Application.class);
+    Application application = biomedicusInjector.getInstance(Application.class);
+    application.eagerLoad(Collections.emptyList());
+    application.precompileSearchExprs();
+    return application;
   }
 }
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.framework;
+
+import com.google.inject.Binding;
+import com.google.inject.ConfigurationException;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.ProvisionException;
+import com.google.inject.Scopes;
+import com.google.inject.Singleton;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.HasDependencies;
+import com.google.inject.spi.InjectionPoint;
+import com.google.inject.spi.ProviderBinding;
+import com.google.inject.spi.ProviderInstanceBinding;
+import com.google.inject.spi.ProviderKeyBinding;
+import edu.umn.biomedicus.exc.BiomedicusException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the {@link EagerLoadable} providers of models, usually {@link DataLoader} instances, and
+ * loads them concurrently, so that the models are loaded before the first document is processed
+ * instead of by whichever thread first needs them.
+ *
+ * <p>Providers are found by walking the dependencies of the bindings in the injector and its
+ * parents, and of any additional classes, such as the pipeline components which will be run.
+ * Models bound only through {@link com.google.inject.ProvidedBy} are only found if something
+ * depends on them, since they have no binding until then.</p>
+ *
+ * @since 2.2.0
+ */
+@Singleton
+public final class EagerLoader {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EagerLoader.class);
+
+  private final Injector injector;
+
+  private final Set<String> loaded = ConcurrentHashMap.newKeySet();
+
+  @Inject
+  EagerLoader(Injector injector) {
+    this.injector = injector;
+  }
+
+  /**
+   * Finds and loads all of the eager loadables bound in the injector and its parents, and the
+   * eager loadables that the classes depend on. Eager loadables which were loaded by a previous
+   * call are skipped.
+   *
+   * @param classes the additional classes to find the dependencies of
+   * @param threads the number of threads to load on
+   * @throws BiomedicusException if any of the eager loadables failed to load
+   */
+  public void loadAll(Collection<? extends Class<?>> classes, int threads)
+      throws BiomedicusException {
+    Map<String, EagerLoadable> eagerLoadables;
+    try {
+      eagerLoadables = find(classes);
+    } catch (ProvisionException e) {
+      throw new BiomedicusException(e);
+    }
+    eagerLoadables.keySet().removeAll(loaded);
+    if (eagerLoadables.isEmpty()) {
+      return;
+    }
+    LOGGER.info("Eagerly loading {} models on {} threads", eagerLoadables.size(), threads);
+    long start = System.nanoTime();
+
+    ExecutorService executor = Executors
+        .newFixedThreadPool(Math.max(1, Math.min(threads, eagerLoadables.size())));
+    List<Exception> exceptionList = new ArrayList<>();
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      eagerLoadables.forEach((name, eagerLoadable) -> futures.add(executor.submit(() -> {
+        long loadStart = System.nanoTime();
+        eagerLoadable.eagerLoad();
+        loaded.add(name);
+        LOGGER.info("Loaded {} in {} ms", name, (System.nanoTime() - loadStart) / 1_000_000);
+        return null;
+      })));
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          exceptionList.add(cause instanceof Exception ? (Exception) cause : e);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BiomedicusException(e);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    if (!exceptionList.isEmpty()) {
+      BiomedicusException e = new BiomedicusException("Multiple exceptions ("
+          + exceptionList.size() + ") while eagerly loading models");
+      exceptionList.forEach(e::addSuppressed);
+      throw e;
+    }
+    LOGGER.info("Finished eagerly loading models in {} ms",
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Finds the eager loadables bound in the injector and its parents, and the eager loadables that
+   * the classes depend on.
+   *
+   * @param classes the additional classes to find the dependencies of
+   * @return map from names to the eager loadables
+   */
+  Map<String, EagerLoadable> find(Collection<? extends Class<?>> classes) {
+    Deque<Key<?>> keys = new ArrayDeque<>();
+    for (Injector current = injector; current != null; current = current.getParent()) {
+      keys.addAll(current.getAllBindings().keySet());
+    }
+    for (Class<?> aClass : classes) {
+      keys.add(Key.get(aClass));
+    }
+
+    Set<Key<?>> visited = new HashSet<>();
+    Set<Object> providers = Collections.newSetFromMap(new IdentityHashMap<>());
+    Map<String, EagerLoadable> eagerLoadables = new LinkedHashMap<>();
+    Key<?> key;
+    while ((key = keys.poll()) != null) {
+      if (!visited.add(key)) {
+        continue;
+      }
+      Binding<?> binding;
+      try {
+        binding = injector.getBinding(key);
+      } catch (ConfigurationException e) {
+        // depends on something bound in a child injector, for example a processor setting
+        keys.addAll(injectedKeys(key));
+        continue;
+      }
+
+      if (binding instanceof ProviderKeyBinding) {
+        Key<?> providerKey = ((ProviderKeyBinding<?>) binding).getProviderKey();
+        if (EagerLoadable.class.isAssignableFrom(providerKey.getTypeLiteral().getRawType())) {
+          if (Scopes.isSingleton(injector.getBinding(providerKey))) {
+            Object provider = injector.getInstance(providerKey);
+            if (providers.add(provider)) {
+              eagerLoadables.put(provider.getClass().getName(), (EagerLoadable) provider);
+            }
+          } else if (Scopes.isSingleton(binding)) {
+            // the loader is created per use, so load through the singleton binding instead
+            Key<?> bindingKey = binding.getKey();
+            eagerLoadables.put(bindingKey.toString(), () -> injector.getInstance(bindingKey));
+          }
+        }
+      } else if (binding instanceof ProviderInstanceBinding) {
+        Object provider = ((ProviderInstanceBinding<?>) binding).getUserSuppliedProvider();
+        if (provider instanceof EagerLoadable && providers.add(provider)) {
+          eagerLoadables.put(provider.getClass().getName(), (EagerLoadable) provider);
+        }
+      } else if (binding instanceof ProviderBinding) {
+        keys.add(((ProviderBinding<?>) binding).getProvidedKey());
+      }
+
+      if (binding instanceof HasDependencies) {
+        for (Dependency<?> dependency : ((HasDependencies) binding).getDependencies()) {
+          keys.add(dependency.getKey());
+        }
+      }
+    }
+    return eagerLoadables;
+  }
+
+  private static Collection<Key<?>> injectedKeys(Key<?> key) {
+    List<Key<?>> keys = new ArrayList<>();
+    if (key.getAnnotationType() != null) {
+      return keys;
+    }
+    Class<?> rawType = key.getTypeLiteral().getRawType();
+    try {
+      for (Dependency<?> dependency : InjectionPoint.forConstructorOf(rawType).getDependencies()) {
+        keys.add(dependency.getKey());
+      }
+      for (InjectionPoint injectionPoint : InjectionPoint.forInstanceMethodsAndFields(rawType)) {
+        for (Dependency<?> dependency : injectionPoint.getDependencies()) {
+          keys.add(dependency.getKey());
+        }
+      }
+    } catch (ConfigurationException e) {
+      // not a class that can be injected
+    }
+    return keys;
+  }
+}
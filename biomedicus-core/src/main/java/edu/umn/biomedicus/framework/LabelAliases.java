@@ -30,8 +30,25 @@ public class LabelAliases {
 
   private final Map<String, Class<? extends Label>> aliases = new HashMap<>();
 
+  private volatile int generation = 0;
+
   public void addAlias(String alias, Class<? extends Label> labelableClass) {
-    aliases.put(alias, labelableClass);
+    Class<? extends Label> previous = aliases.put(alias, labelableClass);
+    if (previous != null && previous != labelableClass) {
+      generation++;
+    }
+  }
+
+  /**
+   * Returns a number which changes whenever an existing alias is rebound to a different label
+   * class, meaning that expressions parsed with the aliases previously may no longer be valid.
+   * Adding new aliases does not change the generation, since any expression which parsed before
+   * did not use them.
+   *
+   * @return the current generation of the aliases
+   */
+  public int getGeneration() {
+    return generation;
   }
 
   @Nullable
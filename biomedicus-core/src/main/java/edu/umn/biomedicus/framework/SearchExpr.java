@@ -23,16 +23,20 @@ import edu.umn.nlpengine.Label;
 import edu.umn.nlpengine.LabelIndex;
 import edu.umn.nlpengine.Span;
 import edu.umn.nlpengine.TextRange;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import javax.annotation.Nonnull;
@@ -83,6 +87,7 @@ public class SearchExpr {
     }
   };
   static final int LOOP_LIMIT = 10_000;
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
   private static final Pattern NON_WHITESPACE = Pattern.compile("[\\p{all}&&[^\\p{Blank}]]");
   private final Node root;
 
@@ -94,6 +99,9 @@ public class SearchExpr {
 
   private final Map<String, Integer> groupNames;
 
+  @Nullable
+  final Set<Class<? extends Label>> firstTypes;
+
   SearchExpr(Node root,
       Node searchRoot,
       int numberGroups,
@@ -104,6 +112,41 @@ public class SearchExpr {
     this.numberGroups = numberGroups;
     this.numberLocals = numberLocals;
     this.groupNames = groupNames;
+    firstTypes = firstTypes(searchRoot);
+  }
+
+  /**
+   * Finds the label types which any match of the node must begin with, so that unanchored searches
+   * can skip to the first label of one of those types.
+   *
+   * @param node the node to start from
+   * @return the set of label types, or null if a match could begin with anything else
+   */
+  @Nullable
+  static Set<Class<? extends Label>> firstTypes(Node node) {
+    if (node instanceof TypeMatch) {
+      TypeMatch typeMatch = (TypeMatch) node;
+      if (typeMatch.contains || typeMatch.anonymous) {
+        return null;
+      }
+      return Collections.singleton(typeMatch.labelType);
+    }
+    if (node instanceof Branch) {
+      Branch branch = (Branch) node;
+      Set<Class<? extends Label>> types = new HashSet<>();
+      for (int i = 0; i < branch.size; i++) {
+        Set<Class<? extends Label>> pathTypes = firstTypes(branch.paths[i]);
+        if (pathTypes == null) {
+          return null;
+        }
+        types.addAll(pathTypes);
+      }
+      return types;
+    }
+    if (node instanceof Noop) {
+      return firstTypes(node.next);
+    }
+    return null;
   }
 
   /**
@@ -1588,8 +1631,8 @@ public class SearchExpr {
     @Override
     State search(DefaultSearcher search, State state) {
       LabelIndex<?> labelIndex = contains
-          ? search.document.labelIndex(labelType).containing(state.getCovered())
-          : search.document.labelIndex(labelType).inside(state.getUncovered());
+          ? search.labelIndex(labelType).containing(state.getCovered())
+          : search.labelIndex(labelType).inside(state.getUncovered());
 
       if (!seek) {
         Label label = labelIndex.first();
@@ -1693,10 +1736,28 @@ public class SearchExpr {
       requiredProperties.add(new EnumPropertyMatch(propertyName, enumName));
     }
 
+    /**
+     * Resolves a property read method to a method handle which takes any text range and returns the
+     * specified type, so that it can be invoked exactly.
+     *
+     * @param method the property read method
+     * @param returnType the type to convert the property value to
+     * @return method handle of type {@code (TextRange)returnType}
+     */
+    static MethodHandle propertyHandle(Method method, Class<?> returnType) {
+      try {
+        return LOOKUP.unreflect(method)
+            .asType(MethodType.methodType(returnType, TextRange.class));
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
     abstract class PropertyMatch {
 
       final String name;
       final Method readMethod;
+      final MethodHandle readHandle;
 
       PropertyMatch(String name) {
         this.name = name;
@@ -1705,6 +1766,15 @@ public class SearchExpr {
         } catch (NoSuchMethodException e) {
           throw new IllegalStateException(e);
         }
+        readHandle = propertyHandle(readMethod, Object.class);
+      }
+
+      Object readValue(TextRange label) {
+        try {
+          return (Object) readHandle.invokeExact(label);
+        } catch (Throwable throwable) {
+          throw new IllegalStateException(throwable);
+        }
       }
 
       abstract boolean doesMatch(DefaultSearcher search, TextRange label);
@@ -1721,13 +1791,8 @@ public class SearchExpr {
 
       @Override
       boolean doesMatch(DefaultSearcher search, TextRange label) {
-        try {
-          Object value = readMethod.invoke(label);
-          return value != null && value instanceof CharSequence
-              && pattern.matcher((CharSequence) value).matches();
-        } catch (IllegalAccessException | InvocationTargetException e) {
-          throw new IllegalStateException();
-        }
+        Object value = readValue(label);
+        return value instanceof CharSequence && pattern.matcher((CharSequence) value).matches();
       }
     }
 
@@ -1742,18 +1807,11 @@ public class SearchExpr {
 
       @Override
       boolean doesMatch(DefaultSearcher search, TextRange label) {
-        try {
-          Object result = readMethod.invoke(label);
-          if (result == null || !(result instanceof CharSequence)) {
-            return false;
-          }
-          if (!(result instanceof String)) {
-            result = result.toString();
-          }
-          return value.equalsIgnoreCase((String) result);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-          throw new IllegalStateException(e);
+        Object result = readValue(label);
+        if (!(result instanceof CharSequence)) {
+          return false;
         }
+        return value.equalsIgnoreCase(result.toString());
       }
     }
 
@@ -1781,24 +1839,41 @@ public class SearchExpr {
 
       final Object value;
 
+      final double doubleValue;
+
+      /**
+       * Reads primitive numeric properties without boxing, null if the property is an object.
+       */
+      @Nullable
+      final MethodHandle doubleHandle;
+
       NumberPropertyMatch(String name, Object value) {
         super(name);
         this.value = value;
+        doubleValue = ((Number) value).doubleValue();
+        Class<?> returnType = readMethod.getReturnType();
+        doubleHandle = returnType.isPrimitive() && returnType != boolean.class
+            && returnType != char.class && returnType != void.class
+            ? propertyHandle(readMethod, double.class) : null;
       }
 
       @Override
       boolean doesMatch(DefaultSearcher search, TextRange label) {
-        try {
-          Object invoke = readMethod.invoke(label);
-          if (invoke == null || !(invoke instanceof Number)) {
+        double first;
+        if (doubleHandle != null) {
+          try {
+            first = (double) doubleHandle.invokeExact(label);
+          } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+          }
+        } else {
+          Object invoke = readValue(label);
+          if (!(invoke instanceof Number)) {
             return false;
           }
-          double first = ((Number) invoke).doubleValue();
-          double second = ((Number) value).doubleValue();
-          return Math.abs(first - second) < 1e-10;
-        } catch (IllegalAccessException | InvocationTargetException e) {
-          throw new IllegalStateException("");
+          first = ((Number) invoke).doubleValue();
         }
+        return Math.abs(first - doubleValue) < 1e-10;
       }
     }
 
@@ -1806,44 +1881,59 @@ public class SearchExpr {
 
       final Object value;
 
+      /**
+       * Reads primitive boolean properties without boxing when the value is a boolean, otherwise
+       * null.
+       */
+      @Nullable
+      final MethodHandle booleanHandle;
+
       ValuedPropertyMatch(String name, Object value) {
         super(name);
         this.value = value;
+        booleanHandle = value instanceof Boolean && readMethod.getReturnType() == boolean.class
+            ? propertyHandle(readMethod, boolean.class) : null;
       }
 
       @Override
       boolean doesMatch(DefaultSearcher search, TextRange label) {
-        try {
-          Object invoke = readMethod.invoke(label);
-          return value.equals(invoke);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-          throw new IllegalStateException(e);
+        if (booleanHandle != null) {
+          try {
+            return (boolean) booleanHandle.invokeExact(label) == (Boolean) value;
+          } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+          }
         }
+        return value.equals(readValue(label));
       }
     }
 
     class PropertyValueBackReference extends PropertyMatch {
 
       private final String group;
-      private final Method backrefMethod;
+      private final MethodHandle backrefHandle;
 
       PropertyValueBackReference(String name,
           String group,
           Method backrefMethod) {
         super(name);
         this.group = group;
-        this.backrefMethod = backrefMethod;
+        backrefHandle = propertyHandle(backrefMethod, Object.class);
       }
 
       @Override
       boolean doesMatch(DefaultSearcher search, TextRange label) {
         TextRange groupLabel = search.getLabel(group);
+        if (groupLabel == null) {
+          return false;
+        }
+        Object backrefValue;
         try {
-          return groupLabel != null
-              && backrefMethod.invoke(groupLabel).equals(readMethod.invoke(label));
-        } catch (IllegalAccessException | InvocationTargetException e) {
-          throw new IllegalStateException("");
+          backrefValue = (Object) backrefHandle.invokeExact(groupLabel);
+        } catch (Throwable throwable) {
+          throw new IllegalStateException(throwable);
         }
+        return backrefValue.equals(readValue(label));
       }
     }
 
@@ -1859,11 +1949,7 @@ public class SearchExpr {
       @Override
       boolean doesMatch(DefaultSearcher search, TextRange label) {
         Span span = search.getSpan(group);
-        try {
-          return span != null && span.equals(readMethod.invoke(label));
-        } catch (IllegalAccessException | InvocationTargetException e) {
-          throw new IllegalStateException("");
-        }
+        return span != null && span.equals(readValue(label));
       }
     }
 
@@ -1889,12 +1975,7 @@ public class SearchExpr {
 
       @Override
       boolean doesMatch(DefaultSearcher search, TextRange label) {
-        try {
-          Object invoke = readMethod.invoke(label);
-          return value.equals(invoke);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-          throw new IllegalStateException(e);
-        }
+        return value == readValue(label);
       }
     }
   }
@@ -1976,6 +2057,7 @@ public class SearchExpr {
     final Label[] labels;
     final int[] groups;
     final int[] locals;
+    final Map<Class<? extends Label>, LabelIndex<?>> labelIndices;
     boolean anchored;
     boolean found;
     int from, to;
@@ -1986,12 +2068,22 @@ public class SearchExpr {
       labels = defaultSearcher.labels.clone();
       groups = defaultSearcher.groups.clone();
       locals = null;
+      labelIndices = defaultSearcher.labelIndices;
       found = defaultSearcher.found;
       result = defaultSearcher.result;
     }
 
     DefaultSearcher(Document document, TextRange span) {
+      this(document, span, new HashMap<>());
+    }
+
+    DefaultSearcher(
+        Document document,
+        TextRange span,
+        Map<Class<? extends Label>, LabelIndex<?>> labelIndices
+    ) {
       this.document = document;
+      this.labelIndices = labelIndices;
       labels = new Label[numberGroups];
       groups = new int[numberGroups * 2];
       locals = new int[numberLocals];
@@ -1999,6 +2091,32 @@ public class SearchExpr {
       to = span.getEndIndex();
     }
 
+    LabelIndex<?> labelIndex(Class<? extends Label> labelType) {
+      LabelIndex<?> labelIndex = labelIndices.get(labelType);
+      if (labelIndex == null) {
+        labelIndex = document.labelIndex(labelType);
+        labelIndices.put(labelType, labelIndex);
+      }
+      return labelIndex;
+    }
+
+    /**
+     * Finds the earliest position a match could begin at, the start of the first label of any of the
+     * first types of the expression.
+     *
+     * @return the position or -1 if there are no labels a match could begin with
+     */
+    int firstCandidate() {
+      int candidate = -1;
+      for (Class<? extends Label> firstType : firstTypes) {
+        Label first = labelIndex(firstType).inside(from, to).first();
+        if (first != null && (candidate == -1 || first.getStartIndex() < candidate)) {
+          candidate = first.getStartIndex();
+        }
+      }
+      return candidate;
+    }
+
     @Override
     @Nullable
     public Label getLabel(@Nonnull String name) {
@@ -2031,11 +2149,26 @@ public class SearchExpr {
 
     @Override
     public boolean search() {
+      return searchFrom(firstTypes != null ? firstCandidate() : from);
+    }
+
+    /**
+     * Performs an unanchored search starting at a position already known to be the earliest that a
+     * match could begin at.
+     *
+     * @param begin the position or -1 if no match is possible
+     * @return true if a match was found
+     */
+    boolean searchFrom(int begin) {
       anchored = false;
       Arrays.fill(groups, -1);
       Arrays.fill(labels, null);
 
-      result = searchRoot.search(this, new State(from, from, to, new ArrayList<>()));
+      if (begin == -1) {
+        result = State.miss();
+      } else {
+        result = searchRoot.search(this, new State(begin, begin, to, new ArrayList<>()));
+      }
       from = result.end;
       return found = result.isHit();
     }
@@ -16,10 +16,15 @@
 
 package edu.umn.biomedicus.framework;
 
+import com.google.inject.Binder;
+import com.google.inject.multibindings.Multibinder;
+import com.google.inject.name.Names;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -33,22 +38,71 @@ import javax.inject.Singleton;
 @Singleton
 public class SearchExprFactory {
 
+  /**
+   * The name of the set binding of known search expressions, which are compiled when the pipeline
+   * starts by {@link Application#precompileSearchExprs()}.
+   */
+  public static final String KNOWN_EXPRS = "knownSearchExprs";
+
   private final LabelAliases labelAliases;
 
+  /**
+   * Compiled expressions by their text. Search expressions are thread-safe, so they are shared
+   * between every task which parses the same text.
+   */
+  private final Map<String, SearchExpr> compiled = new ConcurrentHashMap<>();
+
+  private volatile int aliasesGeneration;
+
   @Inject
   public SearchExprFactory(LabelAliases labelAliases) {
     this.labelAliases = labelAliases;
+    aliasesGeneration = labelAliases.getGeneration();
   }
 
   /**
-   * Parses the search expression into a graph so it can be queried against documents.
+   * Returns the binder for the set of known search expressions, which modules can add the
+   * expressions of their tasks to.
+   *
+   * @param binder the module's binder
+   * @return the set binder for known expressions
+   */
+  public static Multibinder<String> knownExprsBinder(Binder binder) {
+    return Multibinder.newSetBinder(binder, String.class, Names.named(KNOWN_EXPRS));
+  }
+
+  /**
+   * Parses the search expression into a graph so it can be queried against documents. Expressions
+   * are compiled once, and the same object is returned every time the same text is parsed until a
+   * label alias is rebound.
    *
    * @param expr the string expression
    * @return the search expression graph object that can be used to search documents
    */
   @Nonnull
   public SearchExpr parse(@Nonnull String expr) {
-    return SearchExpr.parse(labelAliases, expr);
+    int generation = labelAliases.getGeneration();
+    if (generation != aliasesGeneration) {
+      synchronized (compiled) {
+        if (generation != aliasesGeneration) {
+          compiled.clear();
+          aliasesGeneration = generation;
+        }
+      }
+    }
+    return compiled.computeIfAbsent(expr, key -> SearchExpr.parse(labelAliases, key));
+  }
+
+  /**
+   * Compiles all of the expressions, so that errors in them are found and the cost of parsing them
+   * is paid when the pipeline starts instead of when the tasks using them are created.
+   *
+   * @param exprs the string expressions
+   */
+  public void precompile(@Nonnull Iterable<String> exprs) {
+    for (String expr : exprs) {
+      parse(expr);
+    }
   }
 
   /**
@@ -64,7 +118,7 @@ public class SearchExprFactory {
       @Nonnull String path,
       @Nonnull Charset charset
   ) throws IOException {
-    return SearchExpr.parse(labelAliases, new String(Files.readAllBytes(Paths.get(path)), charset));
+    return parse(new String(Files.readAllBytes(Paths.get(path)), charset));
   }
 
   /**
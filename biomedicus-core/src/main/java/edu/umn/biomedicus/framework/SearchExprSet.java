@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.framework;
+
+import edu.umn.biomedicus.framework.SearchExpr.DefaultSearcher;
+import edu.umn.nlpengine.Document;
+import edu.umn.nlpengine.Label;
+import edu.umn.nlpengine.LabelIndex;
+import edu.umn.nlpengine.TextRange;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * A set of named search expressions which are searched for together in one sweep over a document,
+ * finding the same matches as searching for each of the expressions separately.
+ *
+ * <p>The sweep shares the label indices and the positions of the labels that the expressions
+ * begin with between all of the expressions, and only runs an expression starting from the next
+ * label it could begin with. Expressions which cannot begin anywhere in the rest of the text are
+ * dropped from the sweep without being run.</p>
+ *
+ * <p>Instances of this class are thread-safe, but the sweeps created against specific documents
+ * are not.</p>
+ *
+ * @since 2.2.0
+ */
+public final class SearchExprSet {
+
+  private final String[] names;
+
+  private final SearchExpr[] exprs;
+
+  /**
+   * Creates a set of the expressions. When multiple expressions have matches beginning at the same
+   * index, they are reported in the iteration order of the map.
+   *
+   * @param exprs the expressions by their names
+   */
+  public SearchExprSet(Map<String, SearchExpr> exprs) {
+    names = exprs.keySet().toArray(new String[0]);
+    this.exprs = exprs.values().toArray(new SearchExpr[0]);
+  }
+
+  /**
+   * Returns the names of the expressions in the set.
+   *
+   * @return list of names
+   */
+  public List<String> getNames() {
+    return Collections.unmodifiableList(Arrays.asList(names));
+  }
+
+  /**
+   * Sweeps an entire document for the expressions.
+   *
+   * @param document the document to search
+   * @return a sweep that finds the matches of all the expressions in the document
+   */
+  public Sweep createSweep(Document document) {
+    return new Sweep(document, document);
+  }
+
+  /**
+   * Sweeps a portion of a document for the expressions.
+   *
+   * @param document the document to search
+   * @param span the portion of the document to search
+   * @return a sweep that finds the matches of all the expressions in the portion of the document
+   */
+  public Sweep createSweep(Document document, TextRange span) {
+    return new Sweep(document, span);
+  }
+
+  /**
+   * A search for all of the expressions in a set, which finds the matches of every expression in
+   * order of where they begin.
+   */
+  public final class Sweep {
+
+    private final int to;
+
+    private final DefaultSearcher[] searchers;
+
+    private final Map<Class<? extends Label>, LabelIndex<?>> labelIndices = new HashMap<>();
+
+    private final Map<Class<? extends Label>, FirstStart> firstStarts = new HashMap<>();
+
+    private final PriorityQueue<Pending> queue = new PriorityQueue<>();
+
+    @Nullable
+    private Pending current = null;
+
+    Sweep(Document document, TextRange span) {
+      to = span.getEndIndex();
+      searchers = new DefaultSearcher[exprs.length];
+      for (int i = 0; i < exprs.length; i++) {
+        searchers[i] = exprs[i].new DefaultSearcher(document, span, labelIndices);
+        enqueueCandidate(i);
+      }
+    }
+
+    /**
+     * Finds the next match of any of the expressions. Matches are found in order of the index
+     * they begin at, and each expression continues searching after the end of its previous match,
+     * the same as {@link Searcher#search()}.
+     *
+     * @return true if a match was found, false if there are no more matches
+     */
+    public boolean search() {
+      if (current != null) {
+        enqueueCandidate(current.expr);
+        current = null;
+      }
+      Pending pending;
+      while ((pending = queue.poll()) != null) {
+        if (pending.found) {
+          current = pending;
+          return true;
+        }
+        DefaultSearcher searcher = searchers[pending.expr];
+        if (searcher.searchFrom(pending.begin)) {
+          queue.add(new Pending(pending.expr, searcher.getBegin(), true));
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns the name of the expression which matched during the last search.
+     *
+     * @return the expression name
+     * @throws IllegalStateException if the last search did not find a match
+     */
+    public String getName() {
+      return names[currentExpr()];
+    }
+
+    /**
+     * Returns the match found during the last search.
+     *
+     * @return a search result of the match
+     * @throws IllegalStateException if the last search did not find a match
+     */
+    public SearchResult toSearchResult() {
+      return searchers[currentExpr()].toSearchResult();
+    }
+
+    private int currentExpr() {
+      if (current == null) {
+        throw new IllegalStateException("No current match");
+      }
+      return current.expr;
+    }
+
+    private void enqueueCandidate(int expr) {
+      DefaultSearcher searcher = searchers[expr];
+      int candidate = searcher.from;
+      Set<Class<? extends Label>> firstTypes = exprs[expr].firstTypes;
+      if (firstTypes != null) {
+        candidate = -1;
+        for (Class<? extends Label> firstType : firstTypes) {
+          int start = firstStart(firstType, searcher.from);
+          if (start != -1 && (candidate == -1 || start < candidate)) {
+            candidate = start;
+          }
+        }
+      }
+      if (candidate != -1) {
+        queue.add(new Pending(expr, candidate, false));
+      }
+    }
+
+    private int firstStart(Class<? extends Label> labelType, int from) {
+      FirstStart firstStart = firstStarts.get(labelType);
+      if (firstStart == null) {
+        firstStart = new FirstStart();
+        firstStarts.put(labelType, firstStart);
+      }
+      if (from < firstStart.from || (firstStart.start != -1 && from > firstStart.start)) {
+        Label first = searchers[0].labelIndex(labelType).inside(from, to).first();
+        firstStart.from = from;
+        firstStart.start = first == null ? -1 : first.getStartIndex();
+      }
+      return firstStart.start;
+    }
+  }
+
+  /**
+   * The start of the first label of a type at or after a position, which is the answer for every
+   * position up to that start.
+   */
+  private static final class FirstStart {
+
+    int from = Integer.MAX_VALUE;
+
+    int start = -1;
+  }
+
+  /**
+   * Either the position an expression should be searched from next, or a match of the expression
+   * that has been found but not yet returned.
+   */
+  private static final class Pending implements Comparable<Pending> {
+
+    final int expr;
+
+    final int begin;
+
+    final boolean found;
+
+    Pending(int expr, int begin, boolean found) {
+      this.expr = expr;
+      this.begin = begin;
+      this.found = found;
+    }
+
+    @Override
+    public int compareTo(Pending o) {
+      int compare = Integer.compare(begin, o.begin);
+      if (compare != 0) {
+        return compare;
+      }
+      compare = Integer.compare(expr, o.expr);
+      if (compare != 0) {
+        return compare;
+      }
+      return Boolean.compare(found, o.found);
+    }
+  }
+}
@@ -21,8 +21,10 @@ import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.google.inject.Scopes;
 import com.google.inject.Singleton;
+import com.google.inject.multibindings.Multibinder;
 import edu.umn.biomedicus.exc.BiomedicusException;
 import edu.umn.biomedicus.framework.DataLoader;
+import edu.umn.biomedicus.framework.SearchExprFactory;
 import edu.umn.biomedicus.measures.UnitRecognizer.Factory;
 import edu.umn.biomedicus.numbers.NumberModel;
 import java.io.IOException;
@@ -35,6 +37,10 @@ public class BiomedicusMeasuresModule extends AbstractModule {
 
     bind(UnitRecognizer.Factory.class).toProvider(UnitsFactoryLoader.class).in(Scopes.SINGLETON);
     bind(UnitRecognizer.class).toProvider(UnitRecognizerProvider.class).in(Scopes.SINGLETON);
+
+    Multibinder<String> knownExprs = SearchExprFactory.knownExprsBinder(binder());
+    knownExprs.addBinding().toInstance(NumberRangesLabeler.EXPR);
+    knownExprs.addBinding().toInstance(QuantifierDetector.EXPR);
   }
 
   private static final class UnitRecognizerProvider implements Provider<UnitRecognizer> {
@@ -24,6 +24,7 @@ import edu.umn.biomedicus.tagging.PosTag;
 import edu.umn.biomedicus.tokenization.ParseToken;
 import edu.umn.biomedicus.tokenization.WordIndex;
 import edu.umn.biomedicus.vocabulary.Vocabulary;
+import edu.umn.nlpengine.ConcurrentProcessor;
 import edu.umn.nlpengine.Document;
 import edu.umn.nlpengine.DocumentTask;
 import edu.umn.nlpengine.DocumentsProcessor;
@@ -38,7 +39,7 @@ import org.slf4j.LoggerFactory;
  *
  * @since 1.7.0
  */
-final public class Normalizer implements DocumentsProcessor {
+final public class Normalizer implements DocumentsProcessor, ConcurrentProcessor {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Normalizer.class);
 
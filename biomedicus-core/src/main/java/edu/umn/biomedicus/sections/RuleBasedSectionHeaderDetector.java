@@ -23,6 +23,7 @@ import edu.umn.biomedicus.exc.BiomedicusException;
 import edu.umn.biomedicus.formatting.Bold;
 import edu.umn.biomedicus.formatting.Underlined;
 import edu.umn.biomedicus.sentences.Sentence;
+import edu.umn.nlpengine.ConcurrentProcessor;
 import edu.umn.nlpengine.Document;
 import edu.umn.nlpengine.DocumentsProcessor;
 import edu.umn.nlpengine.LabelIndex;
@@ -38,7 +39,7 @@ import javax.annotation.Nonnull;
  * @author Yan Wang (rules)
  * @since 1.4
  */
-public class RuleBasedSectionHeaderDetector implements DocumentsProcessor {
+public class RuleBasedSectionHeaderDetector implements DocumentsProcessor, ConcurrentProcessor {
 
   private final Pattern headers;
 
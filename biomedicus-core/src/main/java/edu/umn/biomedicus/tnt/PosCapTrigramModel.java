@@ -142,10 +142,21 @@ class PosCapTrigramModel {
    * @return a double precision probability between 0.0 and 1.0
    */
   public double getTrigramProbability(PosCap first, PosCap second, PosCap third) {
-    double unigramProbability = unigramProbabilities[third.ordinal()];
-    double bigramProbability = bigramProbabilities[second.ordinal()][third.ordinal()];
-    double trigramProbability = trigramProbabilities[first.ordinal()][second.ordinal()][third
-        .ordinal()];
+    return getTrigramProbability(first.ordinal(), second.ordinal(), third.ordinal());
+  }
+
+  /**
+   * Gets the probability of a trigram of part of speech capitalizations identified by ordinal.
+   *
+   * @param first the ordinal of the first pos cap
+   * @param second the ordinal of the second pos cap
+   * @param third the ordinal of the third pos cap
+   * @return the probability of the third pos cap following the first two
+   */
+  public double getTrigramProbability(int first, int second, int third) {
+    double unigramProbability = unigramProbabilities[third];
+    double bigramProbability = bigramProbabilities[second][third];
+    double trigramProbability = trigramProbabilities[first][second][third];
 
     return unigramLambda * unigramProbability + bigramLambda * bigramProbability
         + trigramLambda * trigramProbability;
@@ -21,8 +21,12 @@ import edu.umn.biomedicus.annotations.Setting;
 import edu.umn.biomedicus.common.grams.Bigram;
 import edu.umn.biomedicus.common.tuples.PosCap;
 import edu.umn.biomedicus.common.tuples.WordCap;
+import edu.umn.biomedicus.common.types.syntax.PartOfSpeech;
 import edu.umn.biomedicus.common.viterbi.CandidateProbability;
 import edu.umn.biomedicus.common.viterbi.EmissionProbabilityModel;
+import edu.umn.biomedicus.common.viterbi.OrdinalCandidates;
+import edu.umn.biomedicus.common.viterbi.OrdinalEmissionProbabilityModel;
+import edu.umn.biomedicus.common.viterbi.OrdinalTransitionProbabilityModel;
 import edu.umn.biomedicus.common.viterbi.TransitionProbabilityModel;
 import edu.umn.biomedicus.common.viterbi.Viterbi;
 import edu.umn.biomedicus.exc.BiomedicusException;
@@ -47,7 +51,8 @@ import org.yaml.snakeyaml.Yaml;
 @Singleton
 @ProvidedBy(TntModel.Loader.class)
 public class TntModel implements EmissionProbabilityModel<PosCap, WordCap>,
-    TransitionProbabilityModel<PosCap, Bigram<PosCap>> {
+    TransitionProbabilityModel<PosCap, Bigram<PosCap>>, OrdinalEmissionProbabilityModel<WordCap>,
+    OrdinalTransitionProbabilityModel {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TntModel.class);
 
@@ -113,12 +118,29 @@ public class TntModel implements EmissionProbabilityModel<PosCap, WordCap>,
         .collect(Collectors.toList());
   }
 
+  @Override
+  public void getCandidates(WordCap emittedValue, OrdinalCandidates candidates) {
+    WordProbabilityModel filteredAdaptedWordProbability = getWordProbabilityModel(emittedValue);
+
+    for (PartOfSpeech candidate : filteredAdaptedWordProbability.getCandidates(emittedValue)) {
+      double emissionLogProbability = filteredAdaptedWordProbability
+          .logProbabilityOfWord(candidate, emittedValue);
+      candidates.add(PosCap.ordinal(candidate, emittedValue.isCapitalized()),
+          emissionLogProbability);
+    }
+  }
+
   @Override
   public double getTransitionLogProbability(Bigram<PosCap> statesReduction, PosCap candidate) {
     return Math.log10(posCapTrigramModel.getTrigramProbability(statesReduction.getFirst(),
         statesReduction.getSecond(), candidate));
   }
 
+  @Override
+  public double getTransitionLogProbability(int first, int second, int candidate) {
+    return Math.log10(posCapTrigramModel.getTrigramProbability(first, second, candidate));
+  }
+
   /**
    *
    */
@@ -22,11 +22,12 @@ import edu.umn.biomedicus.common.grams.Ngram;
 import edu.umn.biomedicus.common.tuples.PosCap;
 import edu.umn.biomedicus.common.tuples.WordCap;
 import edu.umn.biomedicus.common.types.syntax.PartOfSpeech;
+import edu.umn.biomedicus.common.viterbi.OrdinalViterbiProcessor;
 import edu.umn.biomedicus.common.viterbi.Viterbi;
-import edu.umn.biomedicus.common.viterbi.ViterbiProcessor;
 import edu.umn.biomedicus.sentences.Sentence;
 import edu.umn.biomedicus.tagging.PosTag;
 import edu.umn.biomedicus.tokenization.ParseToken;
+import edu.umn.nlpengine.ConcurrentProcessor;
 import edu.umn.nlpengine.Document;
 import edu.umn.nlpengine.DocumentTask;
 import edu.umn.nlpengine.DocumentsProcessor;
@@ -43,7 +44,7 @@ import javax.annotation.Nonnull;
  * @author Ben Knoll
  * @since 1.0.0
  */
-public class TntPosTagger implements DocumentsProcessor {
+public class TntPosTagger implements DocumentsProcessor, ConcurrentProcessor {
 
   /**
    * A pos cap for before the beginning of sentences.
@@ -75,6 +76,11 @@ public class TntPosTagger implements DocumentsProcessor {
    */
   private final TntModel tntModel;
 
+  /**
+   * The viterbi processor of each thread, reset and reused for every sentence.
+   */
+  private final ThreadLocal<OrdinalViterbiProcessor<PosCap, WordCap>> viterbiProcessors;
+
   /**
    * Default constructor. Initializes the beam threshold and tnt model.
    *
@@ -89,6 +95,9 @@ public class TntPosTagger implements DocumentsProcessor {
   ) {
     this.tntModel = tntModel;
     this.beamThreshold = beamThreshold;
+    viterbiProcessors = ThreadLocal.withInitial(() -> Viterbi.secondOrderOrdinal(tntModel,
+        tntModel, PosCap.cardinality(), PosCap::createFromOrdinal, PosCap::ordinal,
+        Ngram.create(BBS, BOS)));
   }
 
   @Override
@@ -99,8 +108,8 @@ public class TntPosTagger implements DocumentsProcessor {
 
     for (Sentence sentence : sentenceLabelIndex) {
       Collection<ParseToken> tokens = parseTokenLabelIndex.inside(sentence);
-      ViterbiProcessor<PosCap, WordCap> viterbiProcessor = Viterbi.secondOrder(tntModel, tntModel,
-          Ngram.create(BBS, BOS), Ngram::create);
+      OrdinalViterbiProcessor<PosCap, WordCap> viterbiProcessor = viterbiProcessors.get();
+      viterbiProcessor.reset();
 
       String docText = document.getText();
       for (ParseToken token : tokens) {
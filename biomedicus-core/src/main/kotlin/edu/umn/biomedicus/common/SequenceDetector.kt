@@ -34,6 +34,8 @@ class SequenceDetector<T, U>(
         vararg val sequences: List<T>,
         val test: (T, U) -> Boolean
 ) {
+    private val trie = SequenceTrie(sequences)
+
     /**
      * Creates a matcher object against the sequences for this detector
      */
@@ -42,12 +44,23 @@ class SequenceDetector<T, U>(
     /**
      * Tests if the list contains any elements of the subsequences
      */
-    fun matches(sequence: List<U>): IntRange? = createMatcher().matches(sequence)
+    fun matches(sequence: List<U>): IntRange? {
+        var first: IntRange? = null
+        trie.scan(sequence, test) {
+            first = it
+            false
+        }
+        return first
+    }
 
     /**
      * Detects all of the sub-sequences in this collection that match in the sequence.
      */
-    fun detectAll(sequence: List<U>): Collection<IntRange> = createMatcher().detectAll(sequence)
+    fun detectAll(sequence: List<U>): Collection<IntRange> {
+        val ranges = ArrayList<IntRange>()
+        trie.scan(sequence, test) { ranges.add(it) }
+        return ranges
+    }
 
     companion object Factory {
         /**
@@ -79,7 +92,7 @@ class SequenceDetector<T, U>(
 
 
 fun <U : TextRange> SequenceDetector<*, U>.detectAllSpans(sequence: List<U>): List<Span> {
-    return createMatcher().detectAll(sequence)
+    return detectAll(sequence)
             .map { Span(sequence[it.first].startIndex, sequence[it.last].endIndex) }
 }
 
@@ -155,8 +168,10 @@ class SequenceMatcher<T, U> internal constructor(val detector: SequenceDetector<
             val inProgress = it.next()
             if (detector.test(inProgress.sequence[inProgress.tokenIndex + 1], element)) {
                 val size = inProgress.sequence.size
-                if (inProgress.tokenIndex + 2 == size) completed.add(size)
-                else inProgress.tokenIndex += 1
+                if (inProgress.tokenIndex + 2 == size) {
+                    completed.add(size)
+                    it.remove()
+                } else inProgress.tokenIndex += 1
             } else it.remove()
         }
 
@@ -183,3 +198,85 @@ class SequenceMatcher<T, U> internal constructor(val detector: SequenceDetector<
             var tokenIndex: Int = 0
     )
 }
+
+
+/**
+ * The sub-sequences of a [SequenceDetector] merged into a trie, so that sub-sequences which share a
+ * prefix share the tests of that prefix and every element of a longer sequence is sent through the
+ * trie once.
+ *
+ * Because the test between sub-sequence elements and sequence items is an arbitrary predicate and
+ * not an equivalence, a single item can advance several branches of the trie at once, so instead
+ * of following failure links the scan keeps the set of live trie nodes, each one a partial match
+ * which started at a distinct item.
+ */
+internal class SequenceTrie<T>(sequences: Array<out List<T>>) {
+    private class Node<T>(val depth: Int) {
+        val children = LinkedHashMap<T, Node<T>>()
+
+        var completions = 0
+
+        var childElements: List<T> = emptyList()
+
+        var childNodes: List<Node<T>> = emptyList()
+
+        fun freeze() {
+            childElements = ArrayList(children.keys)
+            childNodes = ArrayList(children.values)
+            childNodes.forEach { it.freeze() }
+        }
+    }
+
+    private val root = Node<T>(0)
+
+    init {
+        for (sequence in sequences) {
+            var node = root
+            for (element in sequence) {
+                node = node.children.getOrPut(element) { Node(node.depth + 1) }
+            }
+            if (node !== root) node.completions++
+        }
+        root.freeze()
+    }
+
+    /**
+     * Scans [sequence] once, calling [onMatch] for every matching sub-sequence in order of the end
+     * index and then start index of the match, once for each sub-sequence that matches the range.
+     * The scan stops when [onMatch] returns false.
+     */
+    fun <U> scan(sequence: List<U>, test: (T, U) -> Boolean, onMatch: (IntRange) -> Boolean) {
+        var live = ArrayList<Node<T>>()
+        var next = ArrayList<Node<T>>()
+        for ((index, item) in sequence.withIndex()) {
+            for (node in live) {
+                if (!advance(node, index, item, test, next, onMatch)) return
+            }
+            if (!advance(root, index, item, test, next, onMatch)) return
+
+            val swap = live
+            live = next
+            next = swap
+            next.clear()
+        }
+    }
+
+    private fun <U> advance(
+            node: Node<T>,
+            index: Int,
+            item: U,
+            test: (T, U) -> Boolean,
+            next: MutableList<Node<T>>,
+            onMatch: (IntRange) -> Boolean
+    ): Boolean {
+        val elements = node.childElements
+        for (i in elements.indices) {
+            if (!test(elements[i], item)) continue
+            val child = node.childNodes[i]
+            val range = IntRange(index - child.depth + 1, index)
+            repeat(child.completions) { if (!onMatch(range)) return false }
+            if (child.childNodes.isNotEmpty()) next.add(child)
+        }
+        return true
+    }
+}
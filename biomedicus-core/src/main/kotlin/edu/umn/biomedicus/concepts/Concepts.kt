@@ -76,6 +76,13 @@ data class UmlsConcept(
             confidence: Double
     ) : this(textRange.startIndex, textRange.endIndex, sui, cui, tui, source, confidence)
 
+    constructor(
+            textRange: TextRange,
+            row: ConceptRow,
+            source: String,
+            confidence: Double
+    ) : this(textRange, row.suiString(), row.cuiString(), row.tuiString(), source, confidence)
+
     override val identifier: String
         get() = cui
 
@@ -95,24 +102,59 @@ data class DictionaryTerm(
 }
 
 /**
- * Representative form of concept for storage.
- * @property sui the concept's string unique identifier
- * @property cui the concept's
+ * Representative form of concept for storage, keeping the identifiers as ints and only creating
+ * the [SUI], [CUI], and [TUI] objects or their strings when they are asked for.
+ *
+ * @property suiId the concept's string unique identifier
+ * @property cuiId the concept's concept unique identifier
+ * @property tuiId the concept's type unique identifier
+ * @property source the identifier of the concept's source
  */
 data class ConceptRow(
-        val sui: SUI,
-        val cui: CUI,
-        val tui: TUI,
+        val suiId: Int,
+        val cuiId: Int,
+        val tuiId: Int,
         val source: Int
 ) {
+    constructor(sui: SUI, cui: CUI, tui: TUI, source: Int)
+            : this(sui.identifier(), cui.identifier(), tui.identifier(), source)
+
+    val sui: SUI get() = SUI(suiId)
+
+    val cui: CUI get() = CUI(cuiId)
+
+    val tui: TUI get() = TUI(tuiId)
+
+    // formatted strings are kept so rows shared by a cache are only formatted once
+    private var formattedSui: String? = null
+
+    private var formattedCui: String? = null
+
+    private var formattedTui: String? = null
+
+    /**
+     * The SUI formatted as a string, for example "S0000001".
+     */
+    fun suiString(): String = formattedSui ?: sui.toString().also { formattedSui = it }
+
+    /**
+     * The CUI formatted as a string, for example "C0000001".
+     */
+    fun cuiString(): String = formattedCui ?: cui.toString().also { formattedCui = it }
+
+    /**
+     * The TUI formatted as a string, for example "T001".
+     */
+    fun tuiString(): String = formattedTui ?: tui.toString().also { formattedTui = it }
+
     /**
      * Serializes the ConceptRow to bytes.
      */
     val bytes: ByteArray get() {
-        return ByteBuffer.allocate(16 )
-                .putInt(sui.identifier())
-                .putInt(cui.identifier())
-                .putInt(tui.identifier())
+        return ByteBuffer.allocate(NUM_BYTES)
+                .putInt(suiId)
+                .putInt(cuiId)
+                .putInt(tuiId)
                 .putInt(source)
                 .array()
     }
@@ -124,9 +166,9 @@ data class ConceptRow(
         @JvmStatic
         fun next(buffer: ByteBuffer): ConceptRow {
             return ConceptRow(
-                    sui = SUI(buffer.int),
-                    cui = CUI(buffer.int),
-                    tui = TUI(buffer.int),
+                    suiId = buffer.int,
+                    cuiId = buffer.int,
+                    tuiId = buffer.int,
                     source = buffer.int
             )
         }
@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.framework
+
+import com.google.inject.name.Named
+import edu.umn.nlpengine.*
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import java.io.IOException
+import java.lang.System
+import java.lang.management.ManagementFactory
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.nio.file.StandardOpenOption
+import java.time.Instant
+import java.util.Collections
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.LongAdder
+import javax.inject.Inject
+import javax.inject.Singleton
+import javax.management.JMException
+import javax.management.ObjectName
+
+/**
+ * Collects runtime metrics for every pipeline stage created by [RunnerFactory] when the
+ * "metrics.enabled" setting is true.
+ *
+ * The metrics of each stage are registered as a [StageMetricsMBean] under
+ * "edu.umn.biomedicus:type=RunnerMetrics,name=<stage identifier>", and a summary of every stage is
+ * logged every "metrics.logInterval" seconds and when a runner for the stage is done. If the
+ * "metrics.csv" setting is a path, the summaries are also appended to that file as CSV rows.
+ */
+@Singleton
+class RunnerMetrics @Inject constructor(
+        @Named("globalSettings") globalSettings: Map<String, Any>
+) {
+    companion object {
+        val log: Logger = LoggerFactory.getLogger(RunnerMetrics::class.java)
+
+        private const val CSV_HEADER = "time,stage,documents,exceptions,labels,totalMillis," +
+                "meanMillis,p50Millis,p90Millis,p99Millis,maxMillis"
+    }
+
+    private val enabled = globalSettings["metrics.enabled"] == true
+
+    private val logInterval = (globalSettings["metrics.logInterval"] as? Number)?.toLong() ?: 0L
+
+    private val csv = (globalSettings["metrics.csv"] as? String)?.let { Paths.get(it) }
+
+    private val stages = ConcurrentHashMap<String, StageMetrics>()
+
+    private var reporter: ScheduledExecutorService? = null
+
+    /**
+     * Returns the metrics for the stage with [identifier], or null if no stage with that
+     * identifier has been instrumented.
+     */
+    fun stage(identifier: String): StageMetrics? = stages[identifier]
+
+    /**
+     * Returns a runner which records metrics for [runner] under the stage [identifier], or [runner]
+     * itself if metrics are not enabled. Runners with the same identifier share their metrics.
+     */
+    fun instrument(identifier: String, runner: Runner): Runner {
+        if (!enabled) return runner
+        return MeteredRunner(runner, stages.computeIfAbsent(identifier) {
+            StageMetrics(it).also { register(it) }
+        }, this)
+    }
+
+    /**
+     * Logs the current summary of every stage, and appends it to the CSV file if there is one.
+     */
+    fun report() {
+        report(stages.values.sortedBy { it.stage })
+    }
+
+    /**
+     * Logs the current summary of the [stageMetrics], and appends it to the CSV file if there is
+     * one.
+     */
+    internal fun report(stageMetrics: StageMetrics) {
+        report(listOf(stageMetrics))
+    }
+
+    private fun report(summaries: List<StageMetrics>) {
+        val time = Instant.now()
+        summaries.forEach { log.info(it.summary()) }
+
+        if (csv == null || summaries.isEmpty()) return
+        try {
+            synchronized(this) {
+                val writeHeader = Files.notExists(csv)
+                Files.newBufferedWriter(csv, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                        .use { writer ->
+                            if (writeHeader) {
+                                writer.write(CSV_HEADER)
+                                writer.newLine()
+                            }
+                            summaries.forEach {
+                                writer.write("$time,${it.csvRow()}")
+                                writer.newLine()
+                            }
+                        }
+            }
+        } catch (e: IOException) {
+            log.warn("Failed to write metrics to $csv", e)
+        }
+    }
+
+    private fun register(stageMetrics: StageMetrics) {
+        try {
+            val server = ManagementFactory.getPlatformMBeanServer()
+            val name = ObjectName("edu.umn.biomedicus:type=RunnerMetrics,name=" +
+                    ObjectName.quote(stageMetrics.stage))
+            if (server.isRegistered(name)) server.unregisterMBean(name)
+            server.registerMBean(stageMetrics, name)
+        } catch (e: JMException) {
+            log.warn("Failed to register metrics MBean for stage: ${stageMetrics.stage}", e)
+        }
+
+        if (logInterval > 0) synchronized(this) {
+            if (reporter == null) {
+                reporter = Executors.newSingleThreadScheduledExecutor {
+                    Thread(it, "runner-metrics").apply { isDaemon = true }
+                }.apply {
+                    scheduleAtFixedRate({ report() }, logInterval, logInterval, TimeUnit.SECONDS)
+                }
+            }
+        }
+    }
+}
+
+/**
+ * The JMX interface of [StageMetrics]. Latencies are the time taken by the stage to process a
+ * single artifact.
+ */
+interface StageMetricsMBean {
+    val documentsProcessed: Long
+
+    val exceptions: Long
+
+    val labelsProduced: Long
+
+    val totalTimeMillis: Double
+
+    val meanLatencyMillis: Double
+
+    val p50LatencyMillis: Double
+
+    val p90LatencyMillis: Double
+
+    val p99LatencyMillis: Double
+
+    val maxLatencyMillis: Double
+}
+
+/**
+ * The metrics of a single pipeline [stage], safe to update from multiple threads.
+ */
+class StageMetrics(val stage: String) : StageMetricsMBean {
+    private val processed = LongAdder()
+
+    private val failed = LongAdder()
+
+    private val labels = LongAdder()
+
+    private val histogram = LatencyHistogram()
+
+    override val documentsProcessed get() = processed.sum()
+
+    override val exceptions get() = failed.sum()
+
+    override val labelsProduced get() = labels.sum()
+
+    override val totalTimeMillis get() = histogram.totalNanos.toMillis()
+
+    override val meanLatencyMillis: Double
+        get() = histogram.count.let { if (it == 0L) 0.0 else histogram.totalNanos.toMillis() / it }
+
+    override val p50LatencyMillis get() = histogram.percentileNanos(0.5).toMillis()
+
+    override val p90LatencyMillis get() = histogram.percentileNanos(0.9).toMillis()
+
+    override val p99LatencyMillis get() = histogram.percentileNanos(0.99).toMillis()
+
+    override val maxLatencyMillis get() = histogram.maxNanos.toMillis()
+
+    /**
+     * Records that an artifact was processed in [nanos], adding [labelCount] labels, and whether
+     * it [failed][exception].
+     */
+    fun record(nanos: Long, labelCount: Long, exception: Boolean) {
+        histogram.record(nanos)
+        labels.add(labelCount)
+        if (exception) failed.increment() else processed.increment()
+    }
+
+    internal fun summary() = "Stage $stage: $documentsProcessed documents, $exceptions " +
+            "exceptions, $labelsProduced labels, ${totalTimeMillis.format()} ms total, latency " +
+            "mean ${meanLatencyMillis.format()} p50 ${p50LatencyMillis.format()} " +
+            "p90 ${p90LatencyMillis.format()} p99 ${p99LatencyMillis.format()} " +
+            "max ${maxLatencyMillis.format()} ms"
+
+    internal fun csvRow() = "\"${stage.replace("\"", "\"\"")}\",$documentsProcessed," +
+            "$exceptions,$labelsProduced,${totalTimeMillis.format()}," +
+            "${meanLatencyMillis.format()},${p50LatencyMillis.format()}," +
+            "${p90LatencyMillis.format()},${p99LatencyMillis.format()},${maxLatencyMillis.format()}"
+
+    private fun Long.toMillis() = this / 1_000_000.0
+
+    private fun Double.format() = String.format("%.3f", this)
+}
+
+/**
+ * A histogram of latencies with buckets of powers of two microseconds, accurate to within a factor
+ * of two, which is enough to tell apart stages and to catch regressions without keeping every
+ * sample.
+ */
+class LatencyHistogram {
+    private val buckets = AtomicLongArray(64)
+
+    private val total = LongAdder()
+
+    private val max = AtomicLong()
+
+    val count: Long get() = (0 until buckets.length()).fold(0L) { sum, i -> sum + buckets[i] }
+
+    val totalNanos: Long get() = total.sum()
+
+    val maxNanos: Long get() = max.get()
+
+    fun record(nanos: Long) {
+        val micros = maxOf(nanos, 0L) / 1000
+        buckets.incrementAndGet(64 - java.lang.Long.numberOfLeadingZeros(micros))
+        total.add(nanos)
+        max.accumulateAndGet(nanos) { current, latency -> maxOf(current, latency) }
+    }
+
+    /**
+     * Returns the upper bound of the bucket containing the [percentile], between 0 and 1, of
+     * recorded latencies in nanoseconds, no greater than the maximum recorded latency.
+     */
+    fun percentileNanos(percentile: Double): Long {
+        val counts = LongArray(buckets.length()) { buckets[it] }
+        val count = counts.sum()
+        if (count == 0L) return 0
+        val rank = maxOf(1L, Math.ceil(percentile * count).toLong())
+        var seen = 0L
+        for ((i, bucketCount) in counts.withIndex()) {
+            seen += bucketCount
+            if (seen >= rank) {
+                val upperMicros = if (i == 0) 1L else 1L shl i
+                return minOf(upperMicros * 1000, maxNanos)
+            }
+        }
+        return maxNanos
+    }
+}
+
+/**
+ * Records the [metrics] of every artifact processed by [runner], and reports them to
+ * [runnerMetrics] when the runner is done. Labels are counted by passing the runner an artifact
+ * whose documents wrap the originals, so the runner does not see the original artifact and
+ * document instances.
+ */
+internal class MeteredRunner(
+        private val runner: Runner,
+        private val metrics: StageMetrics,
+        private val runnerMetrics: RunnerMetrics
+) : Runner {
+    override fun processArtifact(artifact: Artifact) {
+        val labelCount = LongAdder()
+        val start = System.nanoTime()
+        var exception = true
+        try {
+            runner.processArtifact(CountingArtifact(artifact, labelCount))
+            exception = false
+        } finally {
+            metrics.record(System.nanoTime() - start, labelCount.sum(), exception)
+        }
+    }
+
+    override fun done() {
+        runner.done()
+        runnerMetrics.report(metrics)
+    }
+}
+
+private class CountingArtifact(
+        private val artifact: Artifact,
+        private val labelCount: LongAdder
+) : Artifact by artifact {
+    private val countingDocuments = LinkedHashMap<String, Document>()
+
+    private val unmodifiableDocuments = Collections.unmodifiableMap(countingDocuments)
+
+    /**
+     * The documents are wrapped once per artifact, only documents added to the original artifact
+     * since the last access need new wrappers.
+     */
+    override val documents: Map<String, Document>
+        get() {
+            val documents = artifact.documents
+            if (documents.size != countingDocuments.size) {
+                documents.forEach { (name, document) ->
+                    countingDocuments.getOrPut(name) { CountingDocument(document, labelCount) }
+                }
+            }
+            return unmodifiableDocuments
+        }
+
+    override fun addDocument(name: String, text: String): Document {
+        val document = CountingDocument(artifact.addDocument(name, text), labelCount)
+        countingDocuments[name] = document
+        return document
+    }
+}
+
+private class CountingDocument(
+        private val document: Document,
+        private val labelCount: LongAdder
+) : Document by document {
+    override fun <T : Label> labeler(labelClass: Class<T>): Labeler<T> {
+        val labeler = document.labeler(labelClass)
+        return object : Labeler<T> {
+            override fun add(label: T) {
+                labeler.add(label)
+                labelCount.increment()
+            }
+        }
+    }
+
+    override fun <T : Label> copyIndex(labelIndex: LabelIndex<T>) {
+        labeler(labelIndex.labelClass).addAll(labelIndex)
+    }
+
+    override fun copyIndices(document: Document) {
+        document.labelIndexes().forEach { copyIndex(it) }
+    }
+}
@@ -36,7 +36,8 @@ import javax.inject.Singleton
 class RunnerFactory @Inject constructor(
         private val injector: Injector,
         @Named("globalSettings") private val globalSettings: Map<String, Any>,
-        private val settingsTransformerProvider: Provider<SettingsTransformer>
+        private val settingsTransformerProvider: Provider<SettingsTransformer>,
+        private val runnerMetrics: RunnerMetrics
 ) {
     private val contexts = ConcurrentHashMap<String, BiomedicusScopes.Context>()
     private val processorRunners = ConcurrentHashMap<String, Runner>()
@@ -45,44 +46,46 @@ class RunnerFactory @Inject constructor(
             processorIdentifier: String,
             processorSettings: Map<String, *>,
             processorScopedObjects: Map<Key<*>, Any>,
-            pipelineComponent: Class<*> = processorSettings["pipelineComponent"]
-                    ?.let { it as? String }
-                    ?.let {
-                        Class.forName(it)
-                    } ?: error("pipelineComponent illegal value")
+            pipelineComponent: Class<*> = pipelineComponentClass(processorSettings)
     ): Runner {
         val (settingsInjector, processorContext) =
                 createContext(processorIdentifier, processorSettings, processorScopedObjects)
 
         @Suppress("UNCHECKED_CAST")
         return when {
-            pipelineComponent.isSubclass<DocumentTask>() -> DocumentTaskRunner(
-                    pipelineComponent as Class<out DocumentTask>,
-                    processorContext,
-                    settingsInjector,
-                    processorSettings
+            pipelineComponent.isSubclass<DocumentTask>() -> runnerMetrics.instrument(
+                    processorIdentifier,
+                    DocumentTaskRunner(
+                            pipelineComponent as Class<out DocumentTask>,
+                            processorContext,
+                            settingsInjector,
+                            processorSettings
+                    )
             )
-            pipelineComponent.isSubclass<ArtifactTask>() -> ArtifactTaskRunner(
-                    pipelineComponent as Class<out ArtifactTask>,
-                    processorContext,
-                    settingsInjector
+            pipelineComponent.isSubclass<ArtifactTask>() -> runnerMetrics.instrument(
+                    processorIdentifier,
+                    ArtifactTaskRunner(
+                            pipelineComponent as Class<out ArtifactTask>,
+                            processorContext,
+                            settingsInjector
+                    )
             )
             pipelineComponent.isSubclass<ArtifactsProcessor>() -> processorRunners
                     .computeIfAbsent(processorIdentifier) {
-                        ArtifactsProcessorRunner(
+                        runnerMetrics.instrument(processorIdentifier, ArtifactsProcessorRunner(
                                 pipelineComponent as Class<out ArtifactsProcessor>,
                                 processorContext,
                                 settingsInjector
-                        )
+                        ))
                     }
             pipelineComponent.isSubclass<DocumentsProcessor>() -> processorRunners
                     .computeIfAbsent(processorIdentifier) {
-                        DocumentsProcessorRunner(
+                        runnerMetrics.instrument(processorIdentifier, DocumentsProcessorRunner(
                                 pipelineComponent as Class<out DocumentsProcessor>,
                                 processorContext,
                                 settingsInjector,
                                 processorSettings
-                        )
+                        ))
                     }
             else -> throw IllegalArgumentException("Unknown processor class ${pipelineComponent.canonicalName}")
         }
@@ -92,11 +95,7 @@ class RunnerFactory @Inject constructor(
             processorIdentifier: String,
             processorSettings: Map<String, *>,
             processorScopedObjects: Map<Key<*>, Any>,
-            sourceClass: Class<out ArtifactSource> = processorSettings["sourceClass"]
-                    ?.let { it as? String }
-                    ?.let {
-                        Class.forName(it).asSubclass(ArtifactSource::class.java)
-                    } ?: throw IllegalStateException("sourceClass illegal value")
+            sourceClass: Class<out ArtifactSource> = sourceClass(processorSettings)
     ): ArtifactSourceRunner {
         val (settingsInjector, processorContext) =
                 createContext(processorIdentifier, processorSettings, processorScopedObjects)
@@ -105,6 +104,51 @@ class RunnerFactory @Inject constructor(
         return ArtifactSourceRunner(sourceClass, processorContext, settingsInjector)
     }
 
+    /**
+     * Creates a [PipelineExecutor] which reads artifacts from the source configured by
+     * [sourceSettings] and runs them through each of the pipeline [components], specified as pairs
+     * of processor identifier and processor settings, using [threadCount] worker threads.
+     */
+    fun pipelineExecutor(
+            sourceIdentifier: String,
+            sourceSettings: Map<String, *>,
+            components: List<Pair<String, Map<String, *>>>,
+            threadCount: Int = Runtime.getRuntime().availableProcessors(),
+            ordered: Boolean = false
+    ): PipelineExecutor {
+        val sourceClass = sourceClass(sourceSettings)
+        val componentClasses = components.map { pipelineComponentClass(it.second) }
+        val application = injector.getInstance(Application::class.java)
+        application.eagerLoad(listOf<Class<*>>(sourceClass) + componentClasses)
+        application.precompileSearchExprs()
+        val source = sourceRunner(sourceIdentifier, sourceSettings, emptyMap(), sourceClass)
+        val runners = components.zip(componentClasses) { (identifier, settings), componentClass ->
+            getRunner(identifier, settings, emptyMap(), componentClass)
+        }
+        return PipelineExecutor(source, runners, threadCount = threadCount, ordered = ordered)
+    }
+
+    private fun pipelineComponentClass(processorSettings: Map<String, *>): Class<*> {
+        return settingClass(processorSettings, "pipelineComponent")
+    }
+
+    private fun sourceClass(processorSettings: Map<String, *>): Class<out ArtifactSource> {
+        return settingClass(processorSettings, "sourceClass")
+                .takeIf { ArtifactSource::class.java.isAssignableFrom(it) }
+                ?.asSubclass(ArtifactSource::class.java)
+                ?: throw IllegalStateException("sourceClass illegal value")
+    }
+
+    private fun settingClass(processorSettings: Map<String, *>, key: String): Class<*> {
+        val className = processorSettings[key] as? String
+                ?: throw IllegalStateException("$key illegal value")
+        return try {
+            Class.forName(className)
+        } catch (e: ClassNotFoundException) {
+            throw IllegalStateException("$key illegal value: $className", e)
+        }
+    }
+
     private fun createContext(
             processorIdentifier: String,
             processorSettings: Map<String, *>,
@@ -144,13 +188,16 @@ class ArtifactTaskRunner(
         val log: Logger = LoggerFactory.getLogger(ArtifactTaskRunner::class.java)
     }
 
+    private val taskInstances = TaskInstances(taskClass, settingsInjector)
+
     override fun processArtifact(artifact: Artifact): Unit = processorContext.call {
-        val processor = settingsInjector.getInstance(taskClass)
-        try {
-            processor.run(artifact)
-        } catch (e: Exception) {
-            log.error("Processing failed on artifact: ${artifact.artifactID}")
-            throw e
+        taskInstances.use { processor ->
+            try {
+                processor.run(artifact)
+            } catch (e: Exception) {
+                log.error("Processing failed on artifact: ${artifact.artifactID}")
+                throw e
+            }
         }
     }
 }
@@ -170,6 +217,8 @@ class DocumentTaskRunner(
 
     private val documentName = processorSettings.getSetting<String>("documentName")
 
+    private val taskInstances = TaskInstances(taskClass, settingsInjector)
+
     init {
         processorContext.call {
             settingsInjector.getInstance(taskClass)
@@ -179,11 +228,13 @@ class DocumentTaskRunner(
     override fun processArtifact(artifact: Artifact): Unit = artifact.documents[documentName]
             ?.let {
                 processorContext.call {
-                    try {
-                        settingsInjector.getInstance(taskClass).run(it)
-                    } catch (e: Exception) {
-                        log.error("Processing failed on artifact: ${artifact.artifactID}")
-                        throw e
+                    taskInstances.use { task ->
+                        try {
+                            task.run(it)
+                        } catch (e: Exception) {
+                            log.error("Processing failed on artifact: ${artifact.artifactID}")
+                            throw e
+                        }
                     }
                 }
             } ?: throw IllegalArgumentException("No document with name: $documentName")
@@ -206,17 +257,23 @@ class ArtifactsProcessorRunner(
         settingsInjector.getInstance(pipelineComponent)
     }
 
+    private val lock = ProcessorLock(processor)
+
     override fun processArtifact(artifact: Artifact): Unit = processorContext.call {
-        try {
-            processor.process(artifact)
-        } catch (e: Exception) {
-            log.error("Processing failed on artifact: ${artifact.artifactID}")
-            throw e
+        lock.withLock {
+            try {
+                processor.process(artifact)
+            } catch (e: Exception) {
+                log.error("Processing failed on artifact: ${artifact.artifactID}")
+                throw e
+            }
         }
     }
 
     override fun done(): Unit = processorContext.call {
-        processor.done()
+        lock.withLock {
+            processor.done()
+        }
     }
 }
 
@@ -239,20 +296,39 @@ class DocumentsProcessorRunner(
         settingsInjector.getInstance(pipelineComponent)
     }
 
+    private val lock = ProcessorLock(processor)
+
     override fun processArtifact(artifact: Artifact) = artifact.documents[documentName]
             ?.let {
                 processorContext.call {
-                    try {
-                        processor.process(it)
-                    } catch (e: Exception) {
-                        log.error("Processing failed on artifact: ${artifact.artifactID}")
-                        throw e
+                    lock.withLock {
+                        try {
+                            processor.process(it)
+                        } catch (e: Exception) {
+                            log.error("Processing failed on artifact: ${artifact.artifactID}")
+                            throw e
+                        }
                     }
                 }
             } ?: throw IllegalArgumentException("No document with name: $documentName")
 
     override fun done(): Unit = processorContext.call {
-        processor.done()
+        lock.withLock {
+            processor.done()
+        }
+    }
+}
+
+/**
+ * Serializes the calls to a processor shared by all the threads of a pipeline, unless the
+ * processor is a [ConcurrentProcessor].
+ */
+internal class ProcessorLock(processor: Any) {
+    private val lock: Any? = if (processor is ConcurrentProcessor) null else Any()
+
+    fun <R> withLock(block: () -> R): R {
+        val monitor = lock ?: return block()
+        return synchronized(monitor, block)
     }
 }
 
@@ -263,16 +339,16 @@ class ArtifactSourceRunner(
         sourceClass: Class<out ArtifactSource>,
         private val processorContext: BiomedicusScopes.Context,
         private val settingsInjector: Injector
-) : Closeable {
+) : ArtifactSource, Closeable {
     private val source = processorContext.call {
         settingsInjector.getInstance(sourceClass)
     }
 
-    fun estimateTotal(): Long = processorContext.call {
+    override fun estimateTotal(): Long = processorContext.call {
         source.estimateTotal()
     }
 
-    fun tryAdvance(consumer: (Artifact) -> Unit): Boolean =
+    override fun tryAdvance(consumer: (Artifact) -> Unit): Boolean =
             processorContext.call {
                 source.tryAdvance(consumer)
             }
@@ -282,6 +358,33 @@ class ArtifactSourceRunner(
     }
 }
 
+/**
+ * Provides the instances of [taskClass] for a task runner, a new instance for every use, or one
+ * instance per thread which is reset after every use if the task is a [ReusableTask]. Must be used
+ * inside the processor context.
+ */
+internal class TaskInstances<T>(
+        private val taskClass: Class<out T>,
+        private val settingsInjector: Injector
+) {
+    private val threadInstances: ThreadLocal<T>? =
+            if (taskClass.isSubclass<ReusableTask>()) ThreadLocal() else null
+
+    fun <R> use(block: (T) -> R): R {
+        val instances = threadInstances ?: return block(settingsInjector.getInstance(taskClass))
+
+        val task = instances.get() ?: settingsInjector.getInstance(taskClass)
+        instances.remove()
+        val result = try {
+            block(task)
+        } finally {
+            (task as ReusableTask).reset()
+        }
+        instances.set(task)
+        return result
+    }
+}
+
 internal inline fun <reified T> Map<String, *>.getSetting(key: String): T {
     return this[key]?.let { it as? T }
             ?: throw IllegalStateException("Setting not found with key: $key")
@@ -35,6 +35,22 @@ class TagExFactory @Inject constructor(private val searchExprFactory: SearchExpr
     fun parse(expr: String): TagEx {
         return TagEx(searchExprFactory.parse(expr))
     }
+
+    /**
+     * Compiles all of the expressions [exprs] ahead of time, so that parsing them later only
+     * retrieves the compiled expressions.
+     */
+    fun precompile(exprs: Iterable<String>) {
+        searchExprFactory.precompile(exprs)
+    }
+
+    /**
+     * Parses the expressions [exprs] into a [TagExSet] which finds all of their matches in one pass,
+     * using the keys of the map as the names of the expressions.
+     */
+    fun parseSet(exprs: Map<String, String>): TagExSet {
+        return TagExSet(exprs.mapValues { parse(it.value) })
+    }
 }
 
 /**
@@ -88,7 +104,7 @@ interface NamedSpans {
 /**
  * A compiled search expression.
  */
-class TagEx(private val expr: SearchExpr) {
+class TagEx(internal val expr: SearchExpr) {
     /**
      * Finds the first match of the expression in the [document] or null if there is no match.
      */
@@ -173,6 +189,50 @@ class TagEx(private val expr: SearchExpr) {
     }
 }
 
+/**
+ * A set of named [TagEx] expressions [tagExes] which are searched for together in one pass over
+ * the text, finding the same matches as each expression's [TagEx.findAll].
+ */
+class TagExSet(tagExes: Map<String, TagEx>) {
+    private val exprSet = SearchExprSet(tagExes.mapValues { it.value.expr })
+
+    /**
+     * Finds all the matches of the expressions in the [document], in order of where they begin,
+     * paired with the names of the expressions that matched.
+     */
+    fun findAll(document: Document): Sequence<Pair<String, TagExMatch>> {
+        return findAll(document, document)
+    }
+
+    /**
+     * Finds all the matches of the expressions in the [textRange] in the [document], in order of
+     * where they begin, paired with the names of the expressions that matched.
+     */
+    fun findAll(
+            document: Document,
+            textRange: TextRange
+    ): Sequence<Pair<String, TagExMatch>> = object : Sequence<Pair<String, TagExMatch>> {
+        override fun iterator(): Iterator<Pair<String, TagExMatch>> =
+                object : Iterator<Pair<String, TagExMatch>> {
+                    val sweep = exprSet.createSweep(document, textRange)
+                    var hasNext = sweep.search()
+
+                    override fun hasNext(): Boolean {
+                        return hasNext
+                    }
+
+                    override fun next(): Pair<String, TagExMatch> {
+                        if (!hasNext) {
+                            throw NoSuchElementException("No next TagEx result.")
+                        }
+                        val next = sweep.name to SearcherTagExMatch(sweep.toSearchResult())
+                        hasNext = sweep.search()
+                        return next
+                    }
+                }
+    }
+}
+
 internal class SearcherTagExMatch(private val searchResult: SearchResult) : TagExMatch {
     override val namedLabels: NamedLabels = object : NamedLabels {
         override fun getLabel(name: String): Label? {
@@ -61,11 +61,14 @@ data class NumberRange(
  * The document processor which is responsible for detecting number ranges in text.
  */
 class NumberRangesLabeler(val expr: TagEx) : DocumentsProcessor {
-    @Inject internal constructor(tagExFactory: TagExFactory) : this(
-            tagExFactory.parse(
-                    "(?<range> [?lower:Number] ParseToken<getText=\"-\"|i\"to\"> -> upper:Number | [?ParseToken<getText=i\"between\">] -> lower:Number ParseToken<getText=\"and\"> -> upper:Number)"
-            )
-    )
+    companion object {
+        /**
+         * The number range TagEx expression.
+         */
+        const val EXPR = "(?<range> [?lower:Number] ParseToken<getText=\"-\"|i\"to\"> -> upper:Number | [?ParseToken<getText=i\"between\">] -> lower:Number ParseToken<getText=\"and\"> -> upper:Number)"
+    }
+
+    @Inject internal constructor(tagExFactory: TagExFactory) : this(tagExFactory.parse(EXPR))
 
     override fun process(document: Document) {
         val labeler = document.labeler(NumberRange::class.java)
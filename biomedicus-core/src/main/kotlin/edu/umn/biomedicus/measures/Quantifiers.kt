@@ -213,13 +213,16 @@ class StandaloneQuantifierDetector(
  * Detects [Quantifier] instances in text.
  */
 class QuantifierDetector(private val expr: TagEx) : DocumentsProcessor {
-    @Inject constructor(factory: TagExFactory) : this(
-        factory.parse(
-            """([?indef:IndefiniteQuantifierCue] ->)?
+    companion object {
+        /**
+         * The quantifier TagEx expression.
+         */
+        const val EXPR = """([?indef:IndefiniteQuantifierCue] ->)?
                                    ([?NumberRange] | [?Number] | [?fuzz:FuzzyValue]
                                      | [?PosTag<getPartOfSpeech=eDT> ParseToken<getText="a">])"""
-        )
-    )
+    }
+
+    @Inject constructor(factory: TagExFactory) : this(factory.parse(EXPR))
 
     override fun process(document: Document) {
         val labeler = document.labeler<Quantifier>()
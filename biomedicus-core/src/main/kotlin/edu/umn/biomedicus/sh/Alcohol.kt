@@ -177,7 +177,7 @@ class AlcoholAmountExpr(val expr: TagEx) {
  *
  * @property expr the alcohol amount TagEx expression.
  */
-class AlcoholAmountDetector(private val expr: TagEx) : DocumentTask {
+class AlcoholAmountDetector(private val expr: TagEx) : DocumentTask, ReusableTask {
     @Inject internal constructor(amountExpr: AlcoholAmountExpr) : this(amountExpr.expr)
 
     override fun run(document: Document) {
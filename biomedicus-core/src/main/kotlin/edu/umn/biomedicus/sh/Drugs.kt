@@ -177,7 +177,7 @@ class DrugAmountExpr(val expr: TagEx) {
  *
  * @property expr the drug amount TagEx expression.
  */
-class DrugAmountDetector(private val expr: TagEx) : DocumentTask {
+class DrugAmountDetector(private val expr: TagEx) : DocumentTask, ReusableTask {
     @Inject internal constructor(amountExpr: DrugAmountExpr) : this(amountExpr.expr)
 
     override fun run(document: Document) {
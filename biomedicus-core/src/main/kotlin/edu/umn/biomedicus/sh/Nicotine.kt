@@ -190,7 +190,7 @@ class NicotineAmountSearchExpr(val expr: TagEx) {
  *
  * @property expr the nicotine amount TagEx search expression
  */
-class NicotineAmountDetector(private val expr: TagEx) : DocumentTask {
+class NicotineAmountDetector(private val expr: TagEx) : DocumentTask, ReusableTask {
     @Inject internal constructor(
             nicotineAmountSearchExpr: NicotineAmountSearchExpr
     ) : this(nicotineAmountSearchExpr.expr)
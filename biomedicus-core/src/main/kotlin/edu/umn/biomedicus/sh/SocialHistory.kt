@@ -16,6 +16,7 @@
 
 package edu.umn.biomedicus.sh
 
+import com.google.inject.AbstractModule
 import edu.umn.biomedicus.annotations.Setting
 import edu.umn.biomedicus.common.SequenceDetector
 import edu.umn.biomedicus.dependencies
@@ -39,6 +40,17 @@ import java.util.*
 import javax.inject.Inject
 import javax.inject.Singleton
 
+/**
+ * Binds the social history search expressions as known expressions, so they are compiled at
+ * startup.
+ */
+class SocialHistorySearchExprsModule : AbstractModule() {
+    override fun configure() {
+        SearchExprFactory.knownExprsBinder(binder()).addBinding()
+                .toInstance(UsageFrequencyPattern.EXPR)
+    }
+}
+
 class SocialHistoryModule : SystemModule() {
     override fun setup() {
         addLabelClass<AlcoholCandidate>()
@@ -384,9 +396,11 @@ class UsageFrequencyPhraseDetector @Inject constructor(
  */
 @Singleton
 data class UsageFrequencyPattern(val searchExpr: SearchExpr) {
-    @Inject constructor(searchExprFactory: SearchExprFactory) : this(
-            searchExprFactory.parse(
-                    """
+    companion object {
+        /**
+         * The usage frequency search expression.
+         */
+        const val EXPR = """
 [?Quantifier] ParseToken<getText="times"|i"x"> ((ParseToken<getText="a"|"per"|"/"> ->)? TimeUnit | -> TimeFrequencyUnit) |
 ([?Quantifier] -> TimeUnit ->)? [?ParseToken<getText="per"|"/">] -> TimeUnit |
 [?ParseToken<getText="per"|"every">] (-> Quantifier)? -> TimeUnit |
@@ -394,8 +408,9 @@ data class UsageFrequencyPattern(val searchExpr: SearchExpr) {
 [?UsageFrequencyPhrase] |
 [?TimeFrequencyUnit]
                         """
-            )
-    )
+    }
+
+    @Inject constructor(searchExprFactory: SearchExprFactory) : this(searchExprFactory.parse(EXPR))
 }
 
 /**
@@ -16,6 +16,7 @@
 
 package edu.umn.biomedicus.time
 
+import com.google.inject.AbstractModule
 import edu.umn.biomedicus.annotations.Setting
 import edu.umn.biomedicus.common.types.syntax.PartOfSpeech
 import edu.umn.biomedicus.exc.BiomedicusException
@@ -31,6 +32,19 @@ import java.nio.file.Path
 import javax.inject.Inject
 import javax.inject.Singleton
 
+/**
+ * Binds the time search expressions as known expressions, so they are compiled at startup.
+ */
+class TimeSearchExprsModule : AbstractModule() {
+    override fun configure() {
+        val knownExprs = SearchExprFactory.knownExprsBinder(binder())
+        knownExprs.addBinding().toInstance(YearRangePattern.EXPR)
+        knownExprs.addBinding().toInstance(TextTimePattern.EXPR)
+        knownExprs.addBinding().toInstance(DatePattern.EXPR)
+        knownExprs.addBinding().toInstance(TemporalPhrasePattern.EXPR)
+    }
+}
+
 class TimeModule : SystemModule() {
     override fun setup() {
         addLabelClass<DayOfWeek>()
@@ -227,15 +241,18 @@ class DetectYearNumbers : DocumentTask {
 
 @Singleton
 class YearRangePattern(val expr: SearchExpr) {
-    @Inject constructor(searchExprFactory: SearchExprFactory) : this(
-            searchExprFactory.parse(
-                    "[?NumberRange YearNumber (Number<getNumberType=eCARDINAL> | YearNumber)]"
-            )
-    )
+    companion object {
+        /**
+         * The year range search expression.
+         */
+        const val EXPR = "[?NumberRange YearNumber (Number<getNumberType=eCARDINAL> | YearNumber)]"
+    }
+
+    @Inject constructor(searchExprFactory: SearchExprFactory) : this(searchExprFactory.parse(EXPR))
 }
 
 
-class DetectYearRanges(val expr: SearchExpr) : DocumentTask {
+class DetectYearRanges(val expr: SearchExpr) : DocumentTask, ReusableTask {
     @Inject constructor(pattern: YearRangePattern) : this(pattern.expr)
 
     override fun run(document: Document) {
@@ -252,15 +269,20 @@ class DetectYearRanges(val expr: SearchExpr) : DocumentTask {
 
 @Singleton
 data class TextTimePattern(val expr: SearchExpr) {
-    @Inject constructor(searchExprFactory: SearchExprFactory) : this(searchExprFactory.parse(
-            """
+    companion object {
+        /**
+         * The text time search expression.
+         */
+        const val EXPR = """
 [?Number] ParseToken<getText=i"a.m."|i"am"|i"p.m."|i"pm"|i"a.m"|i"p.m"> |
 [?ParseToken<getText=r"[0-2]?[0-9]">] ParseToken<getText=":"> ParseToken<getText=r"[0-5][0-9]"> ParseToken<getText=i"a.m."|i"am"|i"p.m."|i"pm"|i"a.m"|i"p.m">?
                 """
-    ))
+    }
+
+    @Inject constructor(searchExprFactory: SearchExprFactory) : this(searchExprFactory.parse(EXPR))
 }
 
-class DetectTextTimes(val expr: SearchExpr) : DocumentTask {
+class DetectTextTimes(val expr: SearchExpr) : DocumentTask, ReusableTask {
     @Inject constructor(textTimePattern: TextTimePattern) : this(textTimePattern.expr)
 
     override fun run(document: Document) {
@@ -280,15 +302,22 @@ class DetectTextTimes(val expr: SearchExpr) : DocumentTask {
 
 @Singleton
 data class DatePattern(val expr: SearchExpr) {
-    @Inject constructor(searchExprFactory: SearchExprFactory) : this(searchExprFactory.parse("""
+    companion object {
+        /**
+         * The date search expression.
+         */
+        const val EXPR = """
 ([?weekday:DayOfWeek] ParseToken<getText=",">? ->)? [?month:Month] (-> dayNo:Number<getNumberType=eCARDINAL>)? (ParseToken<getText=","|"of"> -> year:YearNumber)?
 | [?monthNo:ParseToken<getText=r"([1-9]|1[0-2])">] ParseToken<getText="/"> ParseToken<getText=r"[1-9]|[1-2][1-9]|3[0-1]"> (ParseToken<getText="/"|"-"> -> YearNumber)?
 | [?monthNo:ParseToken<getText=r"([1-9]|1[0-2])">] ParseToken<getText="-"> ParseToken<getText=r"[1-9]|[1-2][1-9]|3[0-1]"> ParseToken<getText="-"> -> YearNumber
 | [?YearNumber] ParseToken<getText="-"> ParseToken<getText=r"[1-9]|[1-2][1-9]|3[0-1]"> ParseToken<getText="-"> monthNo:ParseToken<getText=r"([1-9]|1[0-2])">
-"""))
+"""
+    }
+
+    @Inject constructor(searchExprFactory: SearchExprFactory) : this(searchExprFactory.parse(EXPR))
 }
 
-class DetectDates(val expr: SearchExpr) : DocumentTask {
+class DetectDates(val expr: SearchExpr) : DocumentTask, ReusableTask {
     @Inject constructor(pattern: DatePattern) : this(pattern.expr)
 
     override fun run(document: Document) {
@@ -309,8 +338,11 @@ class DetectDates(val expr: SearchExpr) : DocumentTask {
 
 @Singleton
 class TemporalPhrasePattern(val expr: SearchExpr) {
-    @Inject constructor(searchExprFactory: SearchExprFactory) : this(
-            searchExprFactory.parse("""
+    companion object {
+        /**
+         * The temporal phrase search expression.
+         */
+        const val EXPR = """
 ([?PosTag<getPartOfSpeech=eIN>] ->)? ([?ParseToken<getText="a"|"the">] ->)? (
   ([?PosTag<getPartOfSpeech=eJJ>] PosTag<getPartOfSpeech=eJJ>{0,2} ->)? ([?Quantifier] ->)? [?TimeUnit] ParseToken<getText="ago">? |
   [?DayOfWeek] -> TimeOfDayWord |
@@ -322,11 +354,13 @@ class TemporalPhrasePattern(val expr: SearchExpr) {
   [?TextTime] |
   [?YearRange] |
   [?TimeOfDayWord]
-)""")
-    )
+)"""
+    }
+
+    @Inject constructor(searchExprFactory: SearchExprFactory) : this(searchExprFactory.parse(EXPR))
 }
 
-class DetectTemporalPhrases(val expr: SearchExpr) : DocumentTask {
+class DetectTemporalPhrases(val expr: SearchExpr) : DocumentTask, ReusableTask {
     @Inject constructor(pattern: TemporalPhrasePattern) : this(pattern.expr)
 
     override fun run(document: Document) {
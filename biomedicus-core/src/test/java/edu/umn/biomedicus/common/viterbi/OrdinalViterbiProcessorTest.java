@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.common.viterbi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.umn.biomedicus.common.grams.Bigram;
+import edu.umn.biomedicus.common.grams.Ngram;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for {@link OrdinalViterbiProcessor}.
+ */
+class OrdinalViterbiProcessorTest {
+
+  private static final int STATES = 8;
+
+  private static final int SKIP = 0;
+
+  private static final int START = 1;
+
+  private static final int END = 2;
+
+  @Test
+  void testMatchesSecondOrder() {
+    Random random = new Random(13);
+    for (int trial = 0; trial < 50; trial++) {
+      double[][][] transitions = new double[STATES][STATES][STATES];
+      for (double[][] first : transitions) {
+        for (double[] second : first) {
+          for (int i = 0; i < STATES; i++) {
+            second[i] = random.nextInt(10) == 0 ? Double.NEGATIVE_INFINITY
+                : Math.log10(random.nextDouble());
+          }
+        }
+      }
+      Model model = new Model(transitions);
+
+      List<double[]> emissions = new ArrayList<>();
+      int length = 1 + random.nextInt(20);
+      for (int i = 0; i < length; i++) {
+        double[] emission = new double[STATES];
+        for (int state = 0; state < STATES; state++) {
+          emission[state] = state <= END || random.nextInt(3) == 0 ? Double.NaN
+              : random.nextInt(8) == 0 ? Double.NEGATIVE_INFINITY
+                  : Math.log10(random.nextDouble());
+        }
+        emissions.add(emission);
+      }
+
+      double beam = 0.5 + random.nextDouble() * 3;
+
+      ViterbiProcessor<Integer, double[]> expected = Viterbi.secondOrder(model, model,
+          Ngram.create(START, START), Ngram::create);
+      OrdinalViterbiProcessor<Integer, double[]> actual = Viterbi.secondOrderOrdinal(model, model,
+          STATES, Integer::valueOf, Integer::intValue, Ngram.create(START, START));
+      if (trial % 2 == 1) {
+        actual.advance(emissions.get(0));
+        actual.reset();
+      }
+
+      for (double[] emission : emissions) {
+        expected.advance(emission);
+        expected.beamFilter(beam);
+        actual.advance(emission);
+        actual.beamFilter(beam);
+      }
+
+      assertEquals(expected.end(SKIP, END), actual.end(SKIP, END));
+    }
+  }
+
+  private static class Model implements EmissionProbabilityModel<Integer, double[]>,
+      TransitionProbabilityModel<Integer, Bigram<Integer>>,
+      OrdinalEmissionProbabilityModel<double[]>, OrdinalTransitionProbabilityModel {
+
+    private final double[][][] transitions;
+
+    Model(double[][][] transitions) {
+      this.transitions = transitions;
+    }
+
+    @Override
+    public Collection<CandidateProbability<Integer>> getCandidates(double[] emittedValue) {
+      List<CandidateProbability<Integer>> candidates = new ArrayList<>();
+      for (int state = 0; state < emittedValue.length; state++) {
+        if (!Double.isNaN(emittedValue[state])) {
+          candidates.add(Viterbi.candidateOf(state, emittedValue[state]));
+        }
+      }
+      return candidates;
+    }
+
+    @Override
+    public void getCandidates(double[] emittedValue, OrdinalCandidates candidates) {
+      for (int state = 0; state < emittedValue.length; state++) {
+        if (!Double.isNaN(emittedValue[state])) {
+          candidates.add(state, emittedValue[state]);
+        }
+      }
+    }
+
+    @Override
+    public double getTransitionLogProbability(Bigram<Integer> statesReduction, Integer candidate) {
+      return getTransitionLogProbability(statesReduction.getFirst(), statesReduction.getSecond(),
+          candidate);
+    }
+
+    @Override
+    public double getTransitionLogProbability(int first, int second, int candidate) {
+      return transitions[first][second][candidate];
+    }
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.ProvidedBy;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EagerLoaderTest {
+
+  private static final AtomicInteger LOADS = new AtomicInteger();
+
+  private static final AtomicInteger GETS = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    LOADS.set(0);
+    GETS.set(0);
+  }
+
+  private static EagerLoader eagerLoader(Module module) {
+    return Guice.createInjector(module).getInstance(EagerLoader.class);
+  }
+
+  @Test
+  void testSingletonProviderKeyBinding() throws Exception {
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      @Override
+      protected void configure() {
+        bind(Model.class).toProvider(StubLoader.class);
+        bind(StubLoader.class).in(Singleton.class);
+      }
+    });
+    EagerLoader eagerLoader = injector.getInstance(EagerLoader.class);
+
+    Map<String, EagerLoadable> eagerLoadables = eagerLoader.find(Collections.emptyList());
+
+    assertEquals(1, eagerLoadables.size());
+    assertSame(injector.getInstance(StubLoader.class),
+        eagerLoadables.get(StubLoader.class.getName()));
+
+    eagerLoader.loadAll(Collections.emptyList(), 2);
+
+    assertEquals(1, LOADS.get());
+  }
+
+  @Test
+  void testNonSingletonProviderKeyBindingLoadsThroughSingletonBinding() throws Exception {
+    EagerLoader eagerLoader = eagerLoader(new AbstractModule() {
+      @Override
+      protected void configure() {
+        bind(Model.class).toProvider(StubLoader.class).in(Singleton.class);
+      }
+    });
+
+    eagerLoader.loadAll(Collections.emptyList(), 2);
+
+    assertEquals(0, LOADS.get());
+    assertEquals(1, GETS.get());
+  }
+
+  @Test
+  void testNonSingletonProviderKeyBindingNotFound() throws Exception {
+    EagerLoader eagerLoader = eagerLoader(new AbstractModule() {
+      @Override
+      protected void configure() {
+        bind(Model.class).toProvider(StubLoader.class);
+      }
+    });
+
+    assertTrue(eagerLoader.find(Collections.emptyList()).isEmpty());
+  }
+
+  @Test
+  void testProviderInstanceBinding() throws Exception {
+    StubLoader stubLoader = new StubLoader();
+    EagerLoader eagerLoader = eagerLoader(new AbstractModule() {
+      @Override
+      protected void configure() {
+        bind(Model.class).toProvider(stubLoader);
+      }
+    });
+
+    Map<String, EagerLoadable> eagerLoadables = eagerLoader.find(Collections.emptyList());
+
+    assertEquals(1, eagerLoadables.size());
+    assertSame(stubLoader, eagerLoadables.get(StubLoader.class.getName()));
+  }
+
+  /**
+   * Classes which depend on something bound in a child injector cannot be bound in the parent
+   * injector, the dependencies of their injection points should be searched instead.
+   */
+  @Test
+  void testChildInjectorDependencyFallback() throws Exception {
+    EagerLoader eagerLoader = eagerLoader(new AbstractModule() {
+      @Override
+      protected void configure() {
+      }
+    });
+
+    assertTrue(eagerLoader.find(Collections.emptyList()).isEmpty());
+
+    Map<String, EagerLoadable> eagerLoadables = eagerLoader
+        .find(Collections.singletonList(Component.class));
+
+    assertEquals(1, eagerLoadables.size());
+    assertTrue(eagerLoadables.get(ProvidedModelLoader.class.getName())
+        instanceof ProvidedModelLoader);
+  }
+
+  @Test
+  void testSkipsLoadedModels() throws Exception {
+    EagerLoader eagerLoader = eagerLoader(new AbstractModule() {
+      @Override
+      protected void configure() {
+        bind(Model.class).toProvider(StubLoader.class);
+        bind(StubLoader.class).in(Singleton.class);
+      }
+    });
+
+    eagerLoader.loadAll(Collections.emptyList(), 1);
+    eagerLoader.loadAll(Collections.emptyList(), 1);
+    eagerLoader.loadAll(Collections.singletonList(Component.class), 1);
+
+    assertEquals(2, LOADS.get());
+  }
+
+  static class Model {
+
+  }
+
+  static class StubLoader implements Provider<Model>, EagerLoadable {
+
+    @Override
+    public void eagerLoad() {
+      LOADS.incrementAndGet();
+    }
+
+    @Override
+    public Model get() {
+      GETS.incrementAndGet();
+      return new Model();
+    }
+  }
+
+  @ProvidedBy(ProvidedModelLoader.class)
+  static class ProvidedModel {
+
+  }
+
+  @Singleton
+  static class ProvidedModelLoader implements Provider<ProvidedModel>, EagerLoadable {
+
+    @Override
+    public void eagerLoad() {
+      LOADS.incrementAndGet();
+    }
+
+    @Override
+    public ProvidedModel get() {
+      return new ProvidedModel();
+    }
+  }
+
+  /**
+   * Stands in for a setting or other dependency only bound in a child injector.
+   */
+  interface ChildBound {
+
+  }
+
+  static class Component {
+
+    @Inject
+    Component(ProvidedModel providedModel, ChildBound childBound) {
+    }
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
+import edu.umn.biomedicus.exc.BiomedicusException;
+import edu.umn.biomedicus.framework.SearchExprTest.Blah;
+import edu.umn.biomedicus.framework.SearchExprTest.Foo;
+import edu.umn.nlpengine.Label;
+import edu.umn.nlpengine.SystemModule;
+import edu.umn.nlpengine.Systems;
+import edu.umn.nlpengine.SystemsModule;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.PatternSyntaxException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SearchExprFactoryTest {
+
+  LabelAliases labelAliases;
+
+  SearchExprFactory searchExprFactory;
+
+  @BeforeEach
+  void setUp() {
+    labelAliases = new LabelAliases();
+    labelAliases.addAlias("Blah", Blah.class);
+    searchExprFactory = new SearchExprFactory(labelAliases);
+  }
+
+  @Test
+  void testParseReusesCompiled() {
+    SearchExpr first = searchExprFactory.parse("Blah");
+
+    assertSame(first, searchExprFactory.parse("Blah"));
+  }
+
+  @Test
+  void testNewAliasKeepsCompiled() {
+    SearchExpr first = searchExprFactory.parse("Blah");
+    labelAliases.addAlias("Foo", Foo.class);
+
+    assertSame(first, searchExprFactory.parse("Blah"));
+  }
+
+  @Test
+  void testReboundAliasRecompiles() {
+    SearchExpr first = searchExprFactory.parse("Blah");
+    labelAliases.addAlias("Blah", Foo.class);
+
+    assertNotSame(first, searchExprFactory.parse("Blah"));
+  }
+
+  @Test
+  void testPrecompile() {
+    searchExprFactory.precompile(Arrays.asList("Blah", "[?Blah]"));
+    SearchExpr first = searchExprFactory.parse("[?Blah]");
+
+    assertSame(first, searchExprFactory.parse("[?Blah]"));
+  }
+
+  @Test
+  void testPrecompileInvalid() {
+    assertThrows(PatternSyntaxException.class,
+        () -> searchExprFactory.precompile(Arrays.asList("Blah", "Missing")));
+  }
+
+  private Injector knownExprsInjector(String... exprs) {
+    return Guice.createInjector(new AbstractModule() {
+      @Override
+      protected void configure() {
+        bind(LabelAliases.class).toInstance(labelAliases);
+        for (String expr : exprs) {
+          SearchExprFactory.knownExprsBinder(binder()).addBinding().toInstance(expr);
+        }
+      }
+    });
+  }
+
+  private static Set<String> knownExprs(Injector injector) {
+    return injector.getInstance(Key.get(new TypeLiteral<Set<String>>() {},
+        Names.named(SearchExprFactory.KNOWN_EXPRS)));
+  }
+
+  @Test
+  void testKnownExprsPrecompiled() throws Exception {
+    AtomicInteger lookups = new AtomicInteger();
+    labelAliases = new LabelAliases() {
+      @Override
+      public Class<? extends Label> getLabelable(String alias) {
+        lookups.incrementAndGet();
+        return super.getLabelable(alias);
+      }
+    };
+    labelAliases.addAlias("Blah", Blah.class);
+    Injector injector = knownExprsInjector("Blah", "[?Blah]");
+    Set<String> knownExprs = knownExprs(injector);
+    Application application = new Application(injector, Paths.get("."), Paths.get("."),
+        Collections.emptyMap(), knownExprs);
+    SearchExprFactory factory = injector.getInstance(SearchExprFactory.class);
+
+    application.precompileSearchExprs();
+    int precompileLookups = lookups.get();
+    SearchExpr first = factory.parse("[?Blah]");
+
+    assertEquals(2, knownExprs.size());
+    assertSame(first, factory.parse("[?Blah]"));
+    assertSame(factory.parse("Blah"), factory.parse("Blah"));
+    assertEquals(precompileLookups, lookups.get());
+  }
+
+  @Test
+  void testKnownExprsUseSystemsLabelClasses() throws Exception {
+    Systems systems = new Systems();
+    systems.addSystem(FooSystem.class.getName());
+    Injector injector = knownExprsInjector("Foo").createChildInjector(new SystemsModule(systems));
+    Application application = new Application(injector, Paths.get("."), Paths.get("."),
+        Collections.emptyMap(), knownExprs(injector));
+
+    application.precompileSearchExprs();
+
+    assertEquals(Foo.class, labelAliases.getLabelable("Foo"));
+  }
+
+  @Test
+  void testKnownExprsInvalid() {
+    Injector injector = knownExprsInjector("Blah", "Missing");
+    Application application = new Application(injector, Paths.get("."), Paths.get("."),
+        Collections.emptyMap(), knownExprs(injector));
+
+    assertThrows(BiomedicusException.class, application::precompileSearchExprs);
+  }
+
+  public static class FooSystem extends edu.umn.nlpengine.System {
+
+    @Override
+    protected void setup() {
+      addModule(new SystemModule() {
+        @Override
+        public void setup() {
+          addLabelClass(Foo.class);
+        }
+      });
+    }
+  }
+}
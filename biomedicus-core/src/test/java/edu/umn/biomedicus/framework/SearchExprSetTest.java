@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import edu.umn.biomedicus.framework.SearchExprTest.Blah;
+import edu.umn.biomedicus.framework.SearchExprTest.Foo;
+import edu.umn.biomedicus.framework.SearchExprTest.HasEnum;
+import edu.umn.nlpengine.Document;
+import edu.umn.nlpengine.Span;
+import edu.umn.nlpengine.StandardLabelIndex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SearchExprSetTest {
+
+  Document document;
+
+  Map<String, SearchExpr> exprs;
+
+  SearchExprSet searchExprSet;
+
+  @BeforeEach
+  void setUp() {
+    document = mock(Document.class);
+    when(document.getStartIndex()).thenReturn(0);
+    when(document.getEndIndex()).thenReturn(25);
+    when(document.labelIndex(Blah.class)).thenReturn(StandardLabelIndex.create(Blah.class,
+        new Blah(0, 5), new Blah(10, 14)));
+    when(document.labelIndex(Foo.class)).thenReturn(StandardLabelIndex.create(Foo.class,
+        new Foo(5, 8), new Foo(20, 25)));
+    when(document.labelIndex(HasEnum.class))
+        .thenReturn(StandardLabelIndex.create(HasEnum.class));
+
+    LabelAliases labelAliases = new LabelAliases();
+    labelAliases.addAlias("Blah", Blah.class);
+    labelAliases.addAlias("Foo", Foo.class);
+    labelAliases.addAlias("HasEnum", HasEnum.class);
+
+    exprs = new LinkedHashMap<>();
+    exprs.put("blah", SearchExpr.parse(labelAliases, "Blah"));
+    exprs.put("foo", SearchExpr.parse(labelAliases, "Foo"));
+    exprs.put("fooBlah", SearchExpr.parse(labelAliases, "Foo Blah"));
+    exprs.put("hasEnum", SearchExpr.parse(labelAliases, "HasEnum"));
+    exprs.put("optional", SearchExpr.parse(labelAliases, "HasEnum? Foo"));
+    exprs.put("seek", SearchExpr.parse(labelAliases, "[?Blah] | Foo"));
+    searchExprSet = new SearchExprSet(exprs);
+  }
+
+  @Test
+  void testSweepFindsMatchesInOrder() {
+    SearchExprSet.Sweep sweep = searchExprSet.createSweep(document);
+    List<String> matches = new ArrayList<>();
+    while (sweep.search()) {
+      SearchResult result = sweep.toSearchResult();
+      if (!sweep.getName().equals("optional") && !sweep.getName().equals("seek")) {
+        matches.add(sweep.getName() + new Span(result.getBegin(), result.getEnd()));
+      }
+    }
+
+    assertEquals(Arrays.asList(
+        "blah" + new Span(0, 5),
+        "foo" + new Span(5, 8),
+        "fooBlah" + new Span(5, 14),
+        "blah" + new Span(10, 14),
+        "foo" + new Span(20, 25)
+    ), matches);
+  }
+
+  @Test
+  void testSweepSameAsSearchers() {
+    List<int[]> expected = new ArrayList<>();
+    int index = 0;
+    for (SearchExpr expr : exprs.values()) {
+      Searcher searcher = expr.createSearcher(document);
+      while (searcher.search()) {
+        expected.add(new int[]{searcher.getBegin(), index, searcher.getEnd()});
+      }
+      index++;
+    }
+    expected.sort((first, second) -> first[0] != second[0] ? Integer.compare(first[0], second[0])
+        : Integer.compare(first[1], second[1]));
+
+    List<String> names = searchExprSet.getNames();
+    List<String> expectedMatches = new ArrayList<>();
+    for (int[] match : expected) {
+      expectedMatches.add(names.get(match[1]) + new Span(match[0], match[2]));
+    }
+
+    SearchExprSet.Sweep sweep = searchExprSet.createSweep(document);
+    List<String> matches = new ArrayList<>();
+    while (sweep.search()) {
+      SearchResult result = sweep.toSearchResult();
+      matches.add(sweep.getName() + new Span(result.getBegin(), result.getEnd()));
+    }
+
+    assertEquals(expectedMatches, matches);
+  }
+
+  @Test
+  void testSweepSpan() {
+    SearchExprSet.Sweep sweep = searchExprSet.createSweep(document, new Span(8, 20));
+
+    assertTrue(sweep.search());
+    assertEquals("blah", sweep.getName());
+    assertEquals(10, sweep.toSearchResult().getBegin());
+    assertTrue(sweep.search());
+    assertEquals("seek", sweep.getName());
+    assertEquals(14, sweep.toSearchResult().getEnd());
+    assertFalse(sweep.search());
+  }
+
+  @Test
+  void testNoCurrentMatch() {
+    SearchExprSet.Sweep sweep = searchExprSet.createSweep(document, new Span(15, 19));
+
+    assertFalse(sweep.search());
+    assertThrows(IllegalStateException.class, sweep::getName);
+  }
+}
@@ -22,6 +22,8 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import edu.umn.nlpengine.Document;
@@ -529,6 +531,27 @@ class SearchExprTest {
     assertFalse(searcher.search());
   }
 
+  @Test
+  void testBooleanPropertyMatch() {
+    Foo foo = new Foo(0, 5);
+    Foo negated = new Foo(5, 10);
+    negated.setNegated(true);
+
+    when(document.getStartIndex()).thenReturn(0);
+    when(document.getEndIndex()).thenReturn(10);
+    when(document.labelIndex(Foo.class))
+        .thenReturn(StandardLabelIndex.create(Foo.class, foo, negated));
+
+    SearchExpr blah = SearchExpr.parse(labelAliases, "[?Foo<isNegated=true>]");
+
+    Searcher searcher = blah.createSearcher(document);
+    searcher.search();
+
+    Optional<Span> opt = searcher.getSpan();
+    assertTrue(opt.isPresent());
+    assertEquals(opt.get(), new Span(5, 10));
+  }
+
   @Test
   void testPropertyMatchNull() {
     Foo foo = new Foo(0, 5);
@@ -1272,6 +1295,40 @@ class SearchExprTest {
     assertFalse(searcher.search());
   }
 
+  @Test
+  void testSearchWithoutFirstTypeLabels() {
+    when(document.labelIndex(Blah.class)).thenReturn(StandardLabelIndex.create(Blah.class));
+
+    when(document.getStartIndex()).thenReturn(0);
+    when(document.getEndIndex()).thenReturn(25);
+
+    SearchExpr expr = SearchExpr.parse(labelAliases, "Blah Foo");
+
+    Searcher searcher = expr.createSearcher(document);
+
+    assertFalse(searcher.search());
+    verify(document, never()).labelIndex(Foo.class);
+  }
+
+  @Test
+  void testSearchOptionalFirstType() {
+    when(document.labelIndex(Foo.class))
+        .thenReturn(StandardLabelIndex.create(Foo.class, new Foo(10, 14)));
+    when(document.labelIndex(Blah.class))
+        .thenReturn(StandardLabelIndex.create(Blah.class, new Blah(0, 5)));
+
+    when(document.getStartIndex()).thenReturn(0);
+    when(document.getEndIndex()).thenReturn(25);
+
+    SearchExpr expr = SearchExpr.parse(labelAliases, "(Foo)? Blah");
+
+    Searcher searcher = expr.createSearcher(document);
+
+    assertTrue(searcher.search());
+    assertEquals(searcher.getBegin(), 0);
+    assertEquals(searcher.getEnd(), 5);
+  }
+
   enum BAZ {
     FOO,
     BAR
@@ -1337,6 +1394,7 @@ class SearchExprTest {
 
     private String value;
     private int baz;
+    private boolean negated;
     private int startIndex;
     private int endIndex;
 
@@ -1366,6 +1424,14 @@ class SearchExprTest {
       this.baz = baz;
     }
 
+    public boolean isNegated() {
+      return negated;
+    }
+
+    void setNegated(boolean negated) {
+      this.negated = negated;
+    }
+
     @Override
     public int getStartIndex() {
       return startIndex;
@@ -16,6 +16,8 @@
 
 package edu.umn.biomedicus.common
 
+import edu.umn.nlpengine.Span
+import java.util.*
 import kotlin.test.*
 
 class SequenceDetectorTest {
@@ -39,4 +41,65 @@ class SequenceDetectorTest {
     fun testSequenceFail() {
         assertNull(tested.matches(listOf("x", "y", "z", "a", "b", "t", "u")))
     }
+
+    @Test
+    fun testDetectAll() {
+        assertEquals(
+                listOf(IntRange(0, 2), IntRange(1, 2), IntRange(3, 3)),
+                tested.detectAll(listOf("a", "b", "c", "d", "e"))
+        )
+    }
+
+    @Test
+    fun testDetectAllDoesNotRepeatLastElement() {
+        assertEquals(listOf(IntRange(1, 2)), tested.detectAll(listOf("x", "b", "c", "c")))
+    }
+
+    @Test
+    fun testDetectAllDuplicateSequences() {
+        val detector = SequenceDetector(listOf("a", "b"), listOf("a", "b")) { a, b: String -> a == b }
+
+        assertEquals(listOf(IntRange(0, 1), IntRange(0, 1)), detector.detectAll(listOf("a", "b")))
+    }
+
+    @Test
+    fun testDetectAllMatchesMatcherEquality() {
+        assertMatchesMatcher { a, b -> a == b }
+    }
+
+    @Test
+    fun testDetectAllMatchesMatcherStartsWith() {
+        assertMatchesMatcher { a, b -> b.startsWith(a) }
+    }
+
+    @Test
+    fun testDetectAllSpansMatchesMatcher() {
+        val text = "x a b c d b c a b"
+        val tokens = Regex("\\S+").findAll(text).map { Span(it.range.first, it.range.last + 1) }
+                .toList()
+        val detector = SequenceDetector(listOf("a", "b", "c"), listOf("b", "c"), listOf("d"),
+                listOf("a", "b")) { a, b: Span -> a == b.coveredString(text) }
+
+        val expected = detector.createMatcher().detectAll(tokens)
+                .map { Span(tokens[it.first].startIndex, tokens[it.last].endIndex) }
+        assertEquals(expected, detector.detectAllSpans(tokens))
+        assertEquals(listOf(Span(2, 5), Span(2, 7), Span(4, 7), Span(8, 9), Span(10, 13),
+                Span(14, 17)), detector.detectAllSpans(tokens))
+    }
+
+    private fun assertMatchesMatcher(test: (String, String) -> Boolean) {
+        val random = Random(7)
+        val words = listOf("a", "ab", "abc", "b", "bc", "c")
+
+        repeat(200) {
+            val sequences = Array(1 + random.nextInt(12)) {
+                List(1 + random.nextInt(4)) { words[random.nextInt(words.size)] }
+            }
+            val detector = SequenceDetector(*sequences, test = test)
+            val sequence = List(random.nextInt(30)) { words[random.nextInt(words.size)] }
+
+            assertEquals(detector.createMatcher().detectAll(sequence), detector.detectAll(sequence))
+            assertEquals(detector.createMatcher().matches(sequence), detector.matches(sequence))
+        }
+    }
 }
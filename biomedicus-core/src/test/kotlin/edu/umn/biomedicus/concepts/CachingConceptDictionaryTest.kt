@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.concepts
+
+import edu.umn.biomedicus.common.dictionary.StringsBag
+import kotlin.test.*
+
+class CachingConceptDictionaryTest {
+    private val lookups = ArrayList<String>()
+
+    private val dictionary = object : ConceptDictionary {
+        override fun forPhrase(phrase: String): List<ConceptRow>? {
+            lookups.add(phrase)
+            return if (phrase == "pain") listOf(ConceptRow(SUI(1), CUI(2), TUI(3), 0)) else null
+        }
+
+        override fun forLowercasePhrase(phrase: String): List<ConceptRow>? = null
+
+        override fun forNorms(norms: StringsBag): List<ConceptRow>? = null
+
+        override fun source(identifier: Int): String? = null
+
+        override fun trie(): ConceptTrie? = null
+    }
+
+    @Test
+    fun `test hits are cached`() {
+        val caching = CachingConceptDictionary(dictionary, 16)
+
+        val first = caching.forPhrase("pain")
+        val second = caching.forPhrase("pain")
+
+        assertSame(first, second)
+        assertEquals(listOf("pain"), lookups)
+    }
+
+    @Test
+    fun `test misses are not cached`() {
+        val caching = CachingConceptDictionary(dictionary, 16)
+
+        assertNull(caching.forPhrase("history"))
+        assertNull(caching.forPhrase("history"))
+        assertEquals(listOf("history", "history"), lookups)
+    }
+
+    @Test
+    fun `test batch lookups use cache`() {
+        val caching = CachingConceptDictionary(dictionary, 16)
+        caching.forPhrase("pain")
+
+        val found = caching.forPhrases(listOf("pain", "history"))
+
+        assertEquals(setOf("pain"), found.keys)
+        assertEquals(listOf("pain", "history"), lookups)
+    }
+
+    @Test
+    fun `test least recently used evicted`() {
+        val caching = CachingConceptDictionary(object : ConceptDictionary by dictionary {
+            override fun forPhrase(phrase: String): List<ConceptRow>? {
+                lookups.add(phrase)
+                return listOf(ConceptRow(SUI(1), CUI(2), TUI(3), 0))
+            }
+        }, 2)
+
+        caching.forPhrase("a")
+        caching.forPhrase("b")
+        caching.forPhrase("a")
+        caching.forPhrase("c")
+        caching.forPhrase("a")
+        caching.forPhrase("b")
+
+        assertEquals(listOf("a", "b", "c", "b"), lookups)
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.concepts
+
+import edu.umn.biomedicus.common.dictionary.StringsBag
+import java.nio.file.Files
+import kotlin.test.*
+
+class ConceptFilterTest {
+    private val norms = StringsBag.builder().addIdentifier(3).addIdentifier(5).build()
+
+    private val filter: ConceptFilter by lazy {
+        val builder = ConceptFilter.Builder()
+        (0 until 1000).forEach { builder.addPhrase("phrase $it") }
+        builder.addLowercasePhrase("myocardial infarction")
+        builder.addNorms(norms)
+
+        val path = Files.createTempFile("filter", ".bin")
+        try {
+            builder.write(path)
+            ConceptFilter.load(path)
+        } finally {
+            Files.delete(path)
+        }
+    }
+
+    @Test
+    fun `test contains added keys`() {
+        (0 until 1000).forEach { assertTrue(filter.mightContainPhrase("phrase $it")) }
+        assertTrue(filter.mightContainLowercasePhrase("myocardial infarction"))
+        assertTrue(filter.mightContainNorms(norms))
+    }
+
+    @Test
+    fun `test kinds of keys are separate`() {
+        assertFalse(filter.mightContainPhrase("myocardial infarction"))
+        assertFalse(filter.mightContainLowercasePhrase("phrase 1"))
+    }
+
+    @Test
+    fun `test rejects most missing keys`() {
+        val rejected = (0 until 1000).count { !filter.mightContainPhrase("missing $it") }
+
+        assertTrue(rejected > 950, "rejected $rejected")
+        assertEquals(1000L, filter.probes)
+        assertEquals(rejected.toLong(), filter.rejections)
+    }
+
+    @Test
+    fun `test false positive rate`() {
+        filter.mightContainPhrase("missing")
+        filter.mightContainPhrase("phrase 1")
+        filter.recordFalsePositives(1)
+
+        assertEquals(0.5, filter.rejectionRate())
+        assertEquals(0.5, filter.falsePositiveRate())
+    }
+}
@@ -42,4 +42,15 @@ class ConceptRowTest {
         assertEquals(secondO.tui.identifier(), 6)
         assertEquals(secondO.source, 8)
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `test identifier strings`() {
+        val row = ConceptRow(SUI(12), CUI(345), TUI(47), 0)
+
+        assertEquals("S0000012", row.suiString())
+        assertEquals("C0000345", row.cuiString())
+        assertEquals("T047", row.tuiString())
+        assertSame(row.cuiString(), row.cuiString())
+        assertEquals(ConceptRow(12, 345, 47, 0), row)
+    }
+}
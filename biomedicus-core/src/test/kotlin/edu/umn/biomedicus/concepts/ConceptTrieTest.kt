@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.concepts
+
+import edu.umn.biomedicus.common.dictionary.StringsBag
+import java.nio.file.Files
+import kotlin.test.*
+
+class ConceptTrieTest {
+    private val trie: ConceptTrie by lazy {
+        val builder = ConceptTrie.Builder()
+        builder.addPhrase("Myocardial infarction")
+        builder.addPhrase("non-small cell lung cancer")
+        builder.addPhrase("aspirin 81mg")
+        builder.addNorms(StringsBag.builder().addIdentifier(3).addIdentifier(5).build())
+
+        val path = Files.createTempFile("trie", ".bin")
+        try {
+            builder.write(path)
+            ConceptTrie.load(path)
+        } finally {
+            Files.delete(path)
+        }
+    }
+
+    @Test
+    fun `test chunks`() {
+        assertEquals(listOf("non", "-", "small", "cell", "81", "mg"),
+                ConceptTrie.chunks("Non-small  cell 81mg"))
+    }
+
+    @Test
+    fun `test contains phrase ignores case and whitespace`() {
+        assertTrue(trie.containsPhrase("myocardial  INFARCTION"))
+        assertFalse(trie.containsPhrase("myocardial"))
+    }
+
+    @Test
+    fun `test prefix at chunk boundaries`() {
+        assertTrue(trie.isPrefix("non"))
+        assertTrue(trie.isPrefix("non-small cell"))
+        assertTrue(trie.isPrefix("aspirin 81"))
+        assertFalse(trie.isPrefix("non-small heart"))
+    }
+
+    @Test
+    fun `test prefix inside a chunk`() {
+        assertTrue(trie.isPrefix("myocard"))
+        assertTrue(trie.isPrefix("non-small ce"))
+        assertFalse(trie.isPrefix("myocardx"))
+    }
+
+    @Test
+    fun `test could contain norms`() {
+        assertTrue(trie.couldContainNorms(StringsBag.builder().addIdentifier(5).build()))
+        assertFalse(trie.couldContainNorms(StringsBag.builder().addIdentifier(4).build()))
+        assertFalse(trie.couldContainNorms(StringsBag.builder().addIdentifier(3).addIdentifier(3)
+                .addIdentifier(5).build()))
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.concepts
+
+import edu.umn.biomedicus.acronyms.Acronym
+import edu.umn.biomedicus.common.dictionary.StringsBag
+import edu.umn.biomedicus.common.types.syntax.PartOfSpeech
+import edu.umn.biomedicus.normalization.NormForm
+import edu.umn.biomedicus.sentences.Sentence
+import edu.umn.biomedicus.tagging.PosTag
+import edu.umn.biomedicus.tokenization.TermToken
+import edu.umn.nlpengine.Document
+import edu.umn.nlpengine.Span
+import edu.umn.nlpengine.StandardArtifact
+import kotlin.test.*
+
+class DetectDictionaryConceptsTest {
+    private val heartAttack = ConceptRow(SUI(1), CUI(2), TUI(3), 0)
+
+    private val myocardialInfarction = ConceptRow(SUI(4), CUI(5), TUI(6), 0)
+
+    private val chestPain = ConceptRow(SUI(7), CUI(8), TUI(9), 0)
+
+    private val aspirin = ConceptRow(SUI(10), CUI(11), TUI(12), 0)
+
+    private val bloodPressure = ConceptRow(SUI(13), CUI(14), TUI(15), 0)
+
+    private val lowercaseBloodPressure = ConceptRow(SUI(16), CUI(17), TUI(18), 0)
+
+    private val heartAttackNorms = ConceptRow(SUI(19), CUI(20), TUI(21), 0)
+
+    private lateinit var tables: TestRocksDbTables
+
+    @BeforeTest
+    fun setUp() {
+        tables = TestRocksDbTables(
+                mapOf(
+                        Pair("myocardial infarction", listOf(myocardialInfarction)),
+                        Pair("aspirin", listOf(aspirin)),
+                        Pair("Blood Pressure", listOf(bloodPressure))
+                ),
+                mapOf(
+                        Pair("heart attack", listOf(heartAttack)),
+                        Pair("aspirin", listOf(aspirin)),
+                        Pair("blood pressure", listOf(lowercaseBloodPressure))
+                ),
+                mapOf(
+                        Pair(normBag(1, 2), listOf(heartAttackNorms)),
+                        Pair(normBag(4, 5), listOf(chestPain))
+                )
+        )
+    }
+
+    @AfterTest
+    fun tearDown() {
+        tables.close()
+    }
+
+    /**
+     * Four sentences: "Heart Attack" is only in the lowercase table and its bag of norms, "MI" is
+     * an acronym whose expansion is a phrase, "chest pains" is only a bag of norms next to the
+     * phrase "aspirin", and "Blood Pressure" is both a phrase and in the lowercase table.
+     */
+    private fun document(): Document {
+        val document = StandardArtifact("test")
+                .addDocument("test", "Heart Attack MI chest pains aspirin Blood Pressure")
+
+        document.labelAll(listOf(Sentence(0, 12, 0), Sentence(13, 15, 0), Sentence(16, 35, 0),
+                Sentence(36, 50, 0)))
+
+        val tokens = listOf(
+                TermToken(0, 5, "Heart", true),
+                TermToken(6, 12, "Attack", false),
+                TermToken(13, 15, "MI", false),
+                TermToken(16, 21, "chest", true),
+                TermToken(22, 27, "pains", true),
+                TermToken(28, 35, "aspirin", false),
+                TermToken(36, 41, "Blood", true),
+                TermToken(42, 50, "Pressure", false)
+        )
+        document.labelAll(tokens)
+        document.labelAll(tokens.map { PosTag(it, PartOfSpeech.NN) })
+        document.labelAll(tokens.mapIndexed { i, token ->
+            NormForm(token.startIndex, token.endIndex, token.text.toLowerCase(), i + 1)
+        })
+        document.labelAll(listOf(Acronym(13, 15, "myocardial infarction", false, 1.0)))
+
+        return document
+    }
+
+    private fun detect(dictionary: ConceptDictionary): Document {
+        val document = document()
+        DetectDictionaryConcepts(dictionary).run(document)
+        return document
+    }
+
+    @Test
+    fun `test concepts and precedence`() {
+        val document = detect(tables.dictionary)
+
+        assertEquals(
+                setOf(
+                        UmlsConcept(Span(0, 12), heartAttack, "TEST", 0.6),
+                        UmlsConcept(Span(13, 15), myocardialInfarction, "TEST", 1 - .1),
+                        UmlsConcept(Span(16, 27), chestPain, "TEST", .3),
+                        UmlsConcept(Span(28, 35), aspirin, "TEST", 1.0),
+                        UmlsConcept(Span(36, 50), bloodPressure, "TEST", 1.0)
+                ),
+                document.labelIndex(UmlsConcept::class.java).toSet()
+        )
+        assertEquals(
+                listOf(DictionaryTerm(0, 12), DictionaryTerm(13, 15), DictionaryTerm(16, 27),
+                        DictionaryTerm(28, 35), DictionaryTerm(36, 50)),
+                document.labelIndex(DictionaryTerm::class.java).asList()
+        )
+    }
+
+    @Test
+    fun `test batch lookups match single lookups`() {
+        val rocksDb = tables.dictionary
+        val single = object : ConceptDictionary {
+            override fun forPhrase(phrase: String) = rocksDb.forPhrase(phrase)
+
+            override fun forLowercasePhrase(phrase: String) = rocksDb.forLowercasePhrase(phrase)
+
+            override fun forNorms(norms: StringsBag) = rocksDb.forNorms(norms)
+
+            override fun source(identifier: Int) = rocksDb.source(identifier)
+        }
+
+        val batched = detect(rocksDb)
+        val singly = detect(single)
+
+        assertEquals(singly.labelIndex(UmlsConcept::class.java).asList(),
+                batched.labelIndex(UmlsConcept::class.java).asList())
+        assertEquals(singly.labelIndex(DictionaryTerm::class.java).asList(),
+                batched.labelIndex(DictionaryTerm::class.java).asList())
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.concepts
+
+import org.rocksdb.Options
+import org.rocksdb.RocksDB
+import java.nio.file.Files
+import kotlin.test.*
+
+class MappedConceptTableTest {
+    private fun mapped(entries: Map<String, List<ConceptRow>>): MappedConceptTable {
+        RocksDB.loadLibrary()
+        val dir = Files.createTempDirectory("concepts")
+        try {
+            Options().setCreateIfMissing(true).use { options ->
+                RocksDB.open(options, dir.resolve("db").toString()).use { db ->
+                    entries.forEach { (key, rows) ->
+                        db.put(key.toByteArray(), rows.flatMap { it.bytes.asList() }.toByteArray())
+                    }
+                    MappedConceptTable.write(db, dir.resolve("table.map"))
+                }
+            }
+            return MappedConceptTable.load(dir.resolve("table.map"))
+        } finally {
+            dir.toFile().deleteRecursively()
+        }
+    }
+
+    @Test
+    fun `test get`() {
+        val rows = listOf(ConceptRow(SUI(1), CUI(2), TUI(3), 7),
+                ConceptRow(SUI(4), CUI(5), TUI(6), 8))
+        val table = mapped(mapOf(Pair("heart attack", rows),
+                Pair("aspirin", listOf(ConceptRow(SUI(9), CUI(10), TUI(11), 0)))))
+
+        assertEquals(rows, table.get("heart attack".toByteArray()))
+        assertEquals(listOf(ConceptRow(SUI(9), CUI(10), TUI(11), 0)),
+                table.get("aspirin".toByteArray()))
+        assertNull(table.get("heart".toByteArray()))
+    }
+
+    @Test
+    fun `test many keys`() {
+        val table = mapped((0 until 5000).associate {
+            Pair("phrase $it", listOf(ConceptRow(SUI(it), CUI(it), TUI(it), it)))
+        })
+
+        (0 until 5000).forEach {
+            assertEquals(listOf(ConceptRow(SUI(it), CUI(it), TUI(it), it)),
+                    table.get("phrase $it".toByteArray()))
+        }
+        assertNull(table.get("phrase 5000".toByteArray()))
+    }
+
+    @Test
+    fun `test empty`() {
+        assertNull(mapped(emptyMap()).get("aspirin".toByteArray()))
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.concepts
+
+import edu.umn.biomedicus.common.dictionary.StringsBag
+import org.rocksdb.Options
+import org.rocksdb.RocksDB
+import java.nio.file.Files
+import java.nio.file.Path
+import kotlin.test.*
+
+/**
+ * Creates RocksDB concept tables in a temporary directory and a [RocksDbConceptDictionary] which
+ * reads them, closing the tables and deleting the directory when closed.
+ */
+internal class TestRocksDbTables(
+        phrases: Map<String, List<ConceptRow>>,
+        lowercase: Map<String, List<ConceptRow>>,
+        norms: Map<StringsBag, List<ConceptRow>>
+) : AutoCloseable {
+    private val dir: Path = Files.createTempDirectory("concepts")
+
+    private val options = Options().setCreateIfMissing(true)
+
+    private val dbs = ArrayList<RocksDB>()
+
+    val dictionary: RocksDbConceptDictionary
+
+    init {
+        RocksDB.loadLibrary()
+        dictionary = RocksDbConceptDictionary(
+                open("phrases", phrases.mapKeys { it.key.toByteArray() }),
+                open("lowercase", lowercase.mapKeys { it.key.toByteArray() }),
+                open("norms", norms.mapKeys { it.key.bytes }),
+                mapOf(Pair(0, "TEST")),
+                null
+        )
+    }
+
+    private fun open(name: String, entries: Map<ByteArray, List<ConceptRow>>): RocksDB {
+        val db = RocksDB.open(options, dir.resolve(name).toString())
+        dbs.add(db)
+        entries.forEach { (key, rows) ->
+            db.put(key, rows.flatMap { it.bytes.asList() }.toByteArray())
+        }
+        return db
+    }
+
+    override fun close() {
+        dbs.forEach { it.close() }
+        options.close()
+        dir.toFile().deleteRecursively()
+    }
+}
+
+internal fun normBag(vararg identifiers: Int): StringsBag {
+    val builder = StringsBag.builder()
+    identifiers.forEach { builder.addIdentifier(it) }
+    return builder.build()
+}
+
+class RocksDbConceptDictionaryTest {
+    private val heartAttack = listOf(ConceptRow(SUI(1), CUI(2), TUI(3), 0),
+            ConceptRow(SUI(4), CUI(5), TUI(6), 0))
+
+    private val aspirin = listOf(ConceptRow(SUI(7), CUI(8), TUI(9), 0))
+
+    private val chestPain = listOf(ConceptRow(SUI(10), CUI(11), TUI(12), 0))
+
+    private lateinit var tables: TestRocksDbTables
+
+    private lateinit var dictionary: RocksDbConceptDictionary
+
+    @BeforeTest
+    fun setUp() {
+        tables = TestRocksDbTables(
+                mapOf(Pair("Heart Attack", heartAttack), Pair("aspirin", aspirin)),
+                mapOf(Pair("heart attack", heartAttack), Pair("aspirin", aspirin)),
+                mapOf(Pair(normBag(1, 2), chestPain), Pair(normBag(3), aspirin))
+        )
+        dictionary = tables.dictionary
+    }
+
+    @AfterTest
+    fun tearDown() {
+        tables.close()
+    }
+
+    @Test
+    fun `test phrases mapped to their keys`() {
+        val found = dictionary.forPhrases(listOf("aspirin", "Heart Attack", "heart attack"))
+
+        assertEquals(mapOf(Pair("aspirin", aspirin), Pair("Heart Attack", heartAttack)), found)
+    }
+
+    @Test
+    fun `test lowercase phrases mapped to their keys`() {
+        val found = dictionary.forLowercasePhrases(listOf("heart attack", "Heart Attack",
+                "aspirin"))
+
+        assertEquals(mapOf(Pair("heart attack", heartAttack), Pair("aspirin", aspirin)), found)
+    }
+
+    @Test
+    fun `test all misses`() {
+        assertEquals(emptyMap(), dictionary.forPhrases(listOf("heart", "attack")))
+    }
+
+    @Test
+    fun `test no keys`() {
+        assertEquals(emptyMap(), dictionary.forPhrases(emptyList()))
+        assertEquals(emptyMap(), dictionary.forNormBags(emptyList()))
+    }
+
+    @Test
+    fun `test duplicate keys`() {
+        val found = dictionary.forPhrases(listOf("aspirin", "heart", "aspirin", "Heart Attack",
+                "heart"))
+
+        assertEquals(mapOf(Pair("aspirin", aspirin), Pair("Heart Attack", heartAttack)), found)
+    }
+
+    @Test
+    fun `test norm bags mapped to their keys`() {
+        val found = dictionary.forNormBags(listOf(normBag(3), normBag(2, 1), normBag(1),
+                normBag(), normBag(1, 2)))
+
+        assertEquals(mapOf(Pair(normBag(3), aspirin), Pair(normBag(1, 2), chestPain)), found)
+    }
+
+    @Test
+    fun `test only empty norm bags`() {
+        assertEquals(emptyMap(), dictionary.forNormBags(listOf(normBag(), normBag())))
+    }
+
+    @Test
+    fun `test batch matches single lookups`() {
+        val phrases = listOf("aspirin", "Heart Attack", "heart attack", "pain")
+        val normBags = listOf(normBag(1, 2), normBag(3), normBag(4), normBag())
+
+        assertEquals(single(phrases, dictionary::forPhrase), dictionary.forPhrases(phrases))
+        assertEquals(single(phrases, dictionary::forLowercasePhrase),
+                dictionary.forLowercasePhrases(phrases))
+        assertEquals(single(normBags, dictionary::forNorms), dictionary.forNormBags(normBags))
+    }
+
+    private fun <T> single(keys: List<T>, lookup: (T) -> List<ConceptRow>?) =
+            keys.mapNotNull { key -> lookup(key)?.let { Pair(key, it) } }.toMap()
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.concepts
+
+import com.google.common.primitives.UnsignedBytes
+import java.nio.file.Files
+import kotlin.test.*
+
+class SortedRunsTest {
+    private fun merged(maxRunBytes: Long, records: List<Pair<String, String>>): List<Pair<String, String>> {
+        val dir = Files.createTempDirectory("runs")
+        try {
+            val sortedRuns = SortedRuns(dir, maxRunBytes)
+            records.forEach { (key, value) -> sortedRuns.add(key.toByteArray(), value.toByteArray()) }
+            val merged = ArrayList<Pair<String, String>>()
+            sortedRuns.merge { key, value -> merged.add(Pair(String(key), String(value))) }
+            assertEquals(0, Files.list(dir).use { it.count() })
+            return merged
+        } finally {
+            dir.toFile().deleteRecursively()
+        }
+    }
+
+    @Test
+    fun `test merge concatenates values in order`() {
+        val records = listOf(Pair("b", "1"), Pair("a", "2"), Pair("b", "3"), Pair("c", "4"),
+                Pair("a", "5"), Pair("b", "6"))
+
+        val expected = listOf(Pair("a", "25"), Pair("b", "136"), Pair("c", "4"))
+        assertEquals(expected, merged(1L shl 20, records))
+        assertEquals(expected, merged(1, records))
+    }
+
+    @Test
+    fun `test merge across many runs`() {
+        val records = (0 until 5000).map { Pair("key ${it % 700}", "${it % 10}") }
+
+        val merged = merged(4096, records)
+
+        assertEquals(700, merged.size)
+        val keys = merged.map { it.first.toByteArray() }
+        assertEquals(keys.sortedWith(UnsignedBytes.lexicographicalComparator()), keys)
+        merged.forEach { (key, value) ->
+            assertEquals(records.filter { it.first == key }.joinToString("") { it.second }, value)
+        }
+    }
+
+    @Test
+    fun `test empty`() {
+        assertEquals(emptyList(), merged(1024, emptyList()))
+    }
+}
@@ -20,8 +20,13 @@ import com.google.inject.Guice
 import com.google.inject.Stage
 import edu.umn.nlpengine.*
 import java.lang.System
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 import kotlin.concurrent.thread
 import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
 import kotlin.test.assertSame
 import kotlin.test.assertTrue
 
@@ -40,6 +45,44 @@ class DPStub : DocumentsProcessor {
 
 }
 
+private var reusableCreated = 0
+private var reusableRuns = 0
+private var reusableResets = 0
+
+class ReusableStub : DocumentTask, ReusableTask {
+    init {
+        reusableCreated++
+    }
+
+    override fun run(document: Document) {
+        reusableRuns++
+    }
+
+    override fun reset() {
+        reusableResets++
+    }
+}
+
+private val active = AtomicInteger()
+private val maxActive = AtomicInteger()
+
+class SerialStub : DocumentsProcessor {
+    override fun process(document: Document) {
+        maxActive.accumulateAndGet(active.incrementAndGet()) { a, b -> maxOf(a, b) }
+        Thread.sleep(1)
+        active.decrementAndGet()
+    }
+}
+
+private val bothEntered = CountDownLatch(2)
+
+class ConcurrentStub : DocumentsProcessor, ConcurrentProcessor {
+    override fun process(document: Document) {
+        bothEntered.countDown()
+        bothEntered.await(10, TimeUnit.SECONDS)
+    }
+}
+
 class RunnerFactoryTest {
     class TestArtifactsProcessor : ArtifactsProcessor {
         override fun process(artifact: Artifact) {
@@ -91,4 +134,85 @@ class RunnerFactoryTest {
         assertSame(document, processed, "document passed to processor")
         assertTrue(done, "done not called after finished")
     }
+
+    @Test
+    fun `reusable task instances reused`() {
+        System.setProperty("biomedicus.paths.home", ".")
+        val application = Bootstrapper.create(Guice.createInjector(Stage.DEVELOPMENT))
+        val runnerFactory = application.getInstance(RunnerFactory::class.java)
+
+        val runner = runnerFactory.getRunner("reusable",
+                mapOf(Pair("pipelineComponent", ReusableStub::class.java.name),
+                        Pair("documentName", "blah")),
+                emptyMap())
+        val created = reusableCreated
+
+        repeat(3) {
+            val artifact = StandardArtifact("blah")
+            artifact.addDocument("blah", "some text")
+            runner.processArtifact(artifact)
+        }
+
+        assertEquals(1, reusableCreated - created, "one instance created for the thread")
+        assertEquals(3, reusableRuns)
+        assertEquals(3, reusableResets)
+    }
+
+    private fun runOnThreads(runner: Runner, threads: Int, artifactsPerThread: Int) {
+        (0 until threads).map {
+            thread(start = true) {
+                repeat(artifactsPerThread) {
+                    val artifact = StandardArtifact("blah")
+                    artifact.addDocument("blah", "some text")
+                    runner.processArtifact(artifact)
+                }
+            }
+        }.forEach { it.join() }
+    }
+
+    @Test
+    fun `processor calls serialized`() {
+        System.setProperty("biomedicus.paths.home", ".")
+        val application = Bootstrapper.create(Guice.createInjector(Stage.DEVELOPMENT))
+        val runnerFactory = application.getInstance(RunnerFactory::class.java)
+
+        val runner = runnerFactory.getRunner("serial",
+                mapOf(Pair("pipelineComponent", SerialStub::class.java.name),
+                        Pair("documentName", "blah")),
+                emptyMap())
+        runOnThreads(runner, 4, 20)
+
+        assertEquals(1, maxActive.get(), "process should not be called concurrently")
+    }
+
+    @Test
+    fun `concurrent processor calls not serialized`() {
+        System.setProperty("biomedicus.paths.home", ".")
+        val application = Bootstrapper.create(Guice.createInjector(Stage.DEVELOPMENT))
+        val runnerFactory = application.getInstance(RunnerFactory::class.java)
+
+        val runner = runnerFactory.getRunner("concurrent",
+                mapOf(Pair("pipelineComponent", ConcurrentStub::class.java.name),
+                        Pair("documentName", "blah")),
+                emptyMap())
+        runOnThreads(runner, 2, 1)
+
+        assertEquals(0, bothEntered.count, "process should be called concurrently")
+    }
+
+    @Test
+    fun `pipeline executor illegal class name`() {
+        System.setProperty("biomedicus.paths.home", ".")
+        val application = Bootstrapper.create(Guice.createInjector(Stage.DEVELOPMENT))
+        val runnerFactory = application.getInstance(RunnerFactory::class.java)
+
+        val e = assertFailsWith<IllegalStateException> {
+            runnerFactory.pipelineExecutor("source",
+                    mapOf(Pair("sourceClass", "edu.umn.biomedicus.NoSuchSource")),
+                    listOf(Pair("test",
+                            mapOf(Pair("pipelineComponent", DPStub::class.java.name)))))
+        }
+
+        assertTrue(e.cause is ClassNotFoundException, "cause should be the missing class")
+    }
 }
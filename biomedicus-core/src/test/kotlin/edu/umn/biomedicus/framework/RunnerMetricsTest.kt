@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.framework
+
+import edu.umn.biomedicus.sentences.Sentence
+import edu.umn.nlpengine.*
+import java.nio.file.Files
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class RunnerMetricsTest {
+    private val labelingRunner = object : Runner {
+        override fun processArtifact(artifact: Artifact) {
+            val document = artifact.documents["blah"] ?: error("no document")
+            document.labeler<Sentence>().add(Sentence(0, 4, 0))
+            document.labelAll(listOf(Sentence(5, 9, 0), Sentence(10, 14, 0)))
+        }
+    }
+
+    @Test
+    fun `histogram percentiles`() {
+        val histogram = LatencyHistogram()
+        repeat(90) { histogram.record(1_000_000) }
+        repeat(10) { histogram.record(50_000_000) }
+
+        assertEquals(100L, histogram.count)
+        assertTrue(histogram.percentileNanos(0.5) in 1_000_000L..2_048_000L)
+        assertTrue(histogram.percentileNanos(0.99) in 50_000_000L..65_536_000L)
+        assertEquals(50_000_000L, histogram.maxNanos)
+    }
+
+    @Test
+    fun `disabled returns runner`() {
+        val runnerMetrics = RunnerMetrics(emptyMap())
+
+        assertSame(labelingRunner, runnerMetrics.instrument("test", labelingRunner))
+        assertNull(runnerMetrics.stage("test"))
+    }
+
+    @Test
+    fun `metered runner counts documents and labels`() {
+        val runnerMetrics = RunnerMetrics(mapOf(Pair("metrics.enabled", true)))
+        val runner = runnerMetrics.instrument("labeling", labelingRunner)
+
+        val artifact = StandardArtifact("blah")
+        val document = artifact.addDocument("blah", "some text here")
+        runner.processArtifact(artifact)
+
+        val stage = runnerMetrics.stage("labeling") ?: error("no metrics")
+        assertEquals(1L, stage.documentsProcessed)
+        assertEquals(3L, stage.labelsProduced)
+        assertEquals(3, document.labelIndex<Sentence>().size)
+    }
+
+    @Test
+    fun `metered runner wraps documents once per artifact`() {
+        val runnerMetrics = RunnerMetrics(mapOf(Pair("metrics.enabled", true)))
+        val runner = runnerMetrics.instrument("wrapping", object : Runner {
+            override fun processArtifact(artifact: Artifact) {
+                val first = artifact.documents["blah"]
+                assertSame(first, artifact.documents["blah"])
+
+                val added = artifact.addDocument("other", "other text")
+                assertSame(first, artifact.documents["blah"])
+                assertSame(added, artifact.documents["other"])
+                added.labeler<Sentence>().add(Sentence(0, 5, 0))
+            }
+        })
+
+        val artifact = StandardArtifact("blah")
+        artifact.addDocument("blah", "some text here")
+        runner.processArtifact(artifact)
+
+        val stage = runnerMetrics.stage("wrapping") ?: error("no metrics")
+        assertEquals(0L, stage.exceptions)
+        assertEquals(1L, stage.labelsProduced)
+        assertEquals(2, artifact.documents.size)
+    }
+
+    @Test
+    fun `metered runner counts exceptions`() {
+        val runnerMetrics = RunnerMetrics(mapOf(Pair("metrics.enabled", true)))
+        val runner = runnerMetrics.instrument("failing", object : Runner {
+            override fun processArtifact(artifact: Artifact) {
+                throw IllegalStateException()
+            }
+        })
+
+        assertFailsWith<IllegalStateException> {
+            runner.processArtifact(StandardArtifact("blah"))
+        }
+
+        val stage = runnerMetrics.stage("failing") ?: error("no metrics")
+        assertEquals(0L, stage.documentsProcessed)
+        assertEquals(1L, stage.exceptions)
+    }
+
+    @Test
+    fun `done appends stage to csv`() {
+        val directory = Files.createTempDirectory("metrics")
+        val csv = directory.resolve("metrics.csv")
+        try {
+            val runnerMetrics = RunnerMetrics(mapOf(Pair("metrics.enabled", true),
+                    Pair("metrics.csv", csv.toString())))
+            val runner = runnerMetrics.instrument("labeling", labelingRunner)
+            runnerMetrics.instrument("other", labelingRunner)
+
+            val artifact = StandardArtifact("blah")
+            artifact.addDocument("blah", "some text here")
+            runner.processArtifact(artifact)
+            runner.done()
+
+            val lines = Files.readAllLines(csv)
+            assertEquals(2, lines.size)
+            assertTrue(lines[0].startsWith("time,stage,"))
+            assertTrue(lines[1].contains(",\"labeling\",1,0,3,"))
+        } finally {
+            Files.deleteIfExists(csv)
+            Files.delete(directory)
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.rtf.reader;
+
+/**
+ * An rtf source which reads from an array of characters using an index cursor, and which allows
+ * the {@link RtfParser} to read runs of consecutive text characters directly from the array.
+ *
+ * @since 2.2.0
+ */
+public class CharArrayRtfSource implements RtfSource {
+
+  private final char[] chars;
+
+  private final int end;
+
+  private int index;
+
+  /**
+   * Creates an rtf source which reads all of an array of characters.
+   *
+   * @param chars the rtf document characters
+   */
+  public CharArrayRtfSource(char[] chars) {
+    this(chars, chars.length);
+  }
+
+  /**
+   * Creates an rtf source which reads the first {@code length} characters of an array.
+   *
+   * @param chars the rtf document characters
+   * @param length the number of characters in the document
+   */
+  public CharArrayRtfSource(char[] chars, int length) {
+    if (length < 0 || length > chars.length) {
+      throw new IllegalArgumentException("Length out of bounds: " + length);
+    }
+    this.chars = chars;
+    end = length;
+    index = 0;
+  }
+
+  @Override
+  public int getIndex() {
+    return index;
+  }
+
+  @Override
+  public int readCharacter() {
+    int i = index++;
+    return i < end ? chars[i] : -1;
+  }
+
+  @Override
+  public void unreadChar() {
+    index--;
+  }
+
+  /**
+   * Returns the array of characters backing this source.
+   *
+   * @return the character array
+   */
+  char[] getChars() {
+    return chars;
+  }
+
+  /**
+   * Reads the run of text characters starting at the current index, that is the characters up to
+   * the next group delimiter, control character, null character, or the end of the document.
+   *
+   * @return the exclusive end index of the run, which is the new current index
+   */
+  int readTextRun() {
+    int i = index;
+    while (i < end) {
+      char ch = chars[i];
+      if (ch == '{' || ch == '}' || ch == '\\' || ch == 0) {
+        break;
+      }
+      i++;
+    }
+    index = i;
+    return i;
+  }
+}
@@ -16,6 +16,7 @@
 
 package edu.umn.biomedicus.rtf.reader;
 
+import edu.umn.nlpengine.Span;
 import edu.umn.nlpengine.TextRange;
 
 /**
@@ -34,4 +35,27 @@ public interface IndexListener {
       int destinationIndex,
       TextRange originalDocumentTextLocation
   );
+
+  /**
+   * Alerts a listener that a run of characters, each one character long in the original document,
+   * was written to an output destination. The default implementation calls
+   * {@link #wroteToDestination(String, int, TextRange)} for every character.
+   *
+   * @param destinationName destination the characters were written to.
+   * @param destinationIndices the indices in the destination.
+   * @param count the number of characters in the run.
+   * @param originalDocumentBegin the index of the first character in the original document.
+   */
+  default void wroteRunToDestination(
+      String destinationName,
+      int[] destinationIndices,
+      int count,
+      int originalDocumentBegin
+  ) {
+    for (int i = 0; i < count; i++) {
+      int originalIndex = originalDocumentBegin + i;
+      wroteToDestination(destinationName, destinationIndices[i],
+          Span.create(originalIndex, originalIndex + 1));
+    }
+  }
 }
@@ -33,6 +33,24 @@ public interface OutputDestination {
    */
   int writeChar(char ch, State state);
 
+  /**
+   * Writes a run of characters, between which the state did not change, to the output destination.
+   * The default implementation calls {@link #writeChar(char, State)} for every character.
+   *
+   * @param chars array containing the characters to write.
+   * @param begin the index of the first character to write.
+   * @param end the exclusive end index of the characters to write.
+   * @param state the current state.
+   * @param destinationIndices array which receives, starting at index 0, the index in the output
+   * destination each character was written to, or -1 if the character was not written.
+   */
+  default void writeChars(char[] chars, int begin, int end, State state,
+      int[] destinationIndices) {
+    for (int i = begin; i < end; i++) {
+      destinationIndices[i - begin] = writeChar(chars[i], state);
+    }
+  }
+
   /**
    * Finishes the destination, performing any wrap-up computations.
    */
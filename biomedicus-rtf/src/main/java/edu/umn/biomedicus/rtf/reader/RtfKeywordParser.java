@@ -31,8 +31,26 @@ public class RtfKeywordParser {
 
   public static final int PARAMETER_MAX = 10;
 
+  /**
+   * The control symbol strings, indexed by the symbol character.
+   */
+  private static final String[] CONTROL_SYMBOLS = new String[128];
+
+  static {
+    for (char ch = 0; ch < CONTROL_SYMBOLS.length; ch++) {
+      CONTROL_SYMBOLS[ch] = String.valueOf(ch).intern();
+    }
+  }
+
   private final Map<String, KeywordAction> keywordActionMap;
 
+  /**
+   * Buffer of each thread for the characters of control words and parameters, reused for every
+   * keyword.
+   */
+  private final ThreadLocal<char[]> buffers = ThreadLocal
+      .withInitial(() -> new char[Math.max(KEYWORD_MAX, PARAMETER_MAX) + 2]);
+
   public RtfKeywordParser(Map<String, KeywordAction> keywordActionMap) {
     this.keywordActionMap = keywordActionMap;
   }
@@ -48,16 +66,17 @@ public class RtfKeywordParser {
 
     String controlWord;
     if (!Character.isAlphabetic(ch)) {
-      controlWord = "" + (char) ch;
+      controlWord = ch < CONTROL_SYMBOLS.length ? CONTROL_SYMBOLS[ch] : String.valueOf((char) ch);
       ch = rtfSource.readCharacter();
     } else {
-      StringBuilder controlWordBuilder = new StringBuilder(KEYWORD_MAX);
+      char[] buffer = buffers.get();
+      int length = 0;
       do {
-        controlWordBuilder.append((char) ch);
+        buffer[length++] = (char) ch;
         ch = rtfSource.readCharacter();
-      } while (controlWordBuilder.length() <= KEYWORD_MAX + 1 && Character.isAlphabetic(ch));
-      controlWord = controlWordBuilder.toString();
-      if (controlWord.length() > KEYWORD_MAX) {
+      } while (length <= KEYWORD_MAX + 1 && Character.isAlphabetic(ch));
+      controlWord = new String(buffer, 0, length);
+      if (length > KEYWORD_MAX) {
         throw new InvalidKeywordException("Keyword control word too long: " + controlWord);
       }
 
@@ -69,22 +88,24 @@ public class RtfKeywordParser {
       }
 
       if (Character.isDigit(ch)) {
-        StringBuilder parameterBuilder = new StringBuilder(PARAMETER_MAX);
+        length = 0;
+        long value = 0;
         do {
-          parameterBuilder.append((char) ch);
+          buffer[length++] = (char) ch;
+          value = value * 10 + Character.digit(ch, 10);
           ch = rtfSource.readCharacter();
-        } while (parameterBuilder.length() <= PARAMETER_MAX + 1 && Character.isDigit(ch));
-        String parameterString = parameterBuilder.toString();
-        if (parameterString.length() > PARAMETER_MAX) {
-          throw new InvalidParameterException("Keyword parameter too long: " + parameterString);
+        } while (length <= PARAMETER_MAX + 1 && Character.isDigit(ch));
+        if (length > PARAMETER_MAX) {
+          throw new InvalidParameterException(
+              "Keyword parameter too long: " + new String(buffer, 0, length)
+          );
         }
-        try {
-          parameter = (parameterIsNegative ? -1 : 1) * Integer.parseUnsignedInt(parameterString);
-        } catch (NumberFormatException e) {
+        if (value > 0xFFFFFFFFL) {
           throw new InvalidParameterException(
-              "Unable to parse parameter into integer: " + parameterString
+              "Unable to parse parameter into integer: " + new String(buffer, 0, length)
           );
         }
+        parameter = (parameterIsNegative ? -1 : 1) * (int) value;
       }
     }
 
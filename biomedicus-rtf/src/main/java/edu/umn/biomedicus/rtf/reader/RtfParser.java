@@ -20,6 +20,7 @@ import edu.umn.biomedicus.rtf.exc.RtfReaderException;
 import edu.umn.nlpengine.Span;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +44,18 @@ public class RtfParser {
    */
   private final RtfSource rtfSource;
 
+  /**
+   * The rtf source if it is backed by a character array, in which case runs of text characters are
+   * written at once.
+   */
+  @Nullable
+  private final CharArrayRtfSource charArraySource;
+
+  /**
+   * Buffer for the destination indices of runs of text characters.
+   */
+  private int[] destinationIndices;
+
   /**
    * Stack of states.
    */
@@ -63,12 +76,16 @@ public class RtfParser {
   public RtfParser(RtfKeywordParser rtfKeywordParser, RtfSource rtfSource, State initialState) {
     this.rtfKeywordParser = rtfKeywordParser;
     this.rtfSource = rtfSource;
+    charArraySource = rtfSource instanceof CharArrayRtfSource ? (CharArrayRtfSource) rtfSource
+        : null;
+    destinationIndices = new int[64];
     this.currentState = initialState;
     this.stateStack = new ArrayDeque<>();
   }
 
   /**
-   * Runs the parsing.
+   * Runs the parsing. When the source is a {@link CharArrayRtfSource}, each run of consecutive
+   * text characters is written to the current state at once.
    */
   public void parseFile() throws RtfReaderException {
     while (true) {
@@ -95,12 +112,24 @@ public class RtfParser {
         case 0:
           break;
         default:
-          currentState.writeCharacter(ch, Span.create(index, rtfSource.getIndex()));
+          if (charArraySource != null) {
+            writeTextRun(index);
+          } else {
+            currentState.writeCharacter(ch, Span.create(index, rtfSource.getIndex()));
+          }
           break;
       }
     }
   }
 
+  private void writeTextRun(int begin) throws RtfReaderException {
+    int end = charArraySource.readTextRun();
+    if (destinationIndices.length < end - begin) {
+      destinationIndices = new int[Math.max(end - begin, destinationIndices.length * 2)];
+    }
+    currentState.writeCharacters(charArraySource.getChars(), begin, end, destinationIndices);
+  }
+
   /**
    * Finalizes the parsed rtf by finishing the current state.
    *
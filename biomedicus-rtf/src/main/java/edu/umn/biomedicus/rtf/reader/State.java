@@ -21,9 +21,9 @@ import edu.umn.nlpengine.Span;
 import edu.umn.nlpengine.TextRange;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,6 +38,8 @@ public class State {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(State.class);
 
+  private static final Charset WINDOWS_1252 = Charset.forName("Windows-1252");
+
   /**
    * The map of the different output destinations.
    */
@@ -49,9 +51,29 @@ public class State {
   private final OutputDestinationFactory outputDestinationFactory;
 
   /**
-   * Various properties changed by property value keywords.
+   * The slots of the properties changed by property value keywords, shared by this state and all of
+   * its copies.
+   */
+  private final PropertySlots propertySlots;
+
+  /**
+   * The values of the properties, indexed by slot. Shared with the state this state was copied from
+   * until either of them changes a property value.
+   */
+  private int[] propertyValues;
+
+  /**
+   * Whether each property has been set in this state, indexed by slot. Properties whose slots were
+   * added by other states after this state was copied are missing from it, even when the arrays
+   * have grown past their slots.
+   */
+  private boolean[] propertiesSet;
+
+  /**
+   * Whether the property values and properties set arrays may be shared with another state, and so
+   * must be copied before they are written to.
    */
-  private final Map<String, Map<String, Integer>> properties;
+  private boolean propertyValuesShared;
 
   /**
    * Listens for the indices of characters written to the output destinations.
@@ -107,6 +129,7 @@ public class State {
    *
    * @param outputDestinationMap a map from a string identifier to output destinations.
    * @param outputDestinationFactory a factory which contains a new output destination.
+   * @param properties the initial values of the properties, by group and property name.
    * @param indexListener listens for the indices of characters written to output destinations.
    */
   public State(
@@ -114,16 +137,33 @@ public class State {
       OutputDestinationFactory outputDestinationFactory,
       Map<String, Map<String, Integer>> properties,
       IndexListener indexListener
+  ) {
+    this(outputDestinationMap, outputDestinationFactory, new PropertySlots(), indexListener);
+    for (Map.Entry<String, Map<String, Integer>> group : properties.entrySet()) {
+      propertySlots.addGroup(group.getKey());
+      for (Map.Entry<String, Integer> property : group.getValue().entrySet()) {
+        setPropertyValue(group.getKey(), property.getKey(), property.getValue());
+      }
+    }
+  }
+
+  private State(
+      Map<String, OutputDestination> outputDestinationMap,
+      OutputDestinationFactory outputDestinationFactory,
+      PropertySlots propertySlots,
+      IndexListener indexListener
   ) {
     this.outputDestinationMap = outputDestinationMap;
     this.outputDestinationFactory = outputDestinationFactory;
-    this.properties = properties;
+    this.propertySlots = propertySlots;
     this.indexListener = indexListener;
+    propertyValues = new int[0];
+    propertiesSet = new boolean[0];
     inputType = InputType.NORMAL;
     binaryCharactersToRead = 0;
     skipDestinationIfUnknown = false;
     skippingDestination = false;
-    charset = Charset.forName("Windows-1252");
+    charset = WINDOWS_1252;
   }
 
   /**
@@ -143,21 +183,19 @@ public class State {
   }
 
   /**
-   * Copies a child state object, which inherits the current values from this state object.
+   * Copies a child state object, which inherits the current values from this state object. The
+   * property values are shared by both states until either of them changes a property, so copying
+   * a state takes constant time.
    *
    * @return new state object with the same values as this object.
    */
   public State copy() {
-    Map<String, Map<String, Integer>> propertiesCopy = properties.entrySet()
-        .stream()
-        .collect(Collectors.toMap(Map.Entry::getKey,
-            entry -> entry.getValue()
-                .entrySet()
-                .stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))));
-
-    State stateCopy = new State(outputDestinationMap, outputDestinationFactory, propertiesCopy,
+    State stateCopy = new State(outputDestinationMap, outputDestinationFactory, propertySlots,
         indexListener);
+    stateCopy.propertyValues = propertyValues;
+    stateCopy.propertiesSet = propertiesSet;
+    stateCopy.propertyValuesShared = true;
+    propertyValuesShared = true;
     stateCopy.outputDestination = outputDestination;
     stateCopy.skippingDestination = skippingDestination;
     stateCopy.charset = charset;
@@ -234,6 +272,40 @@ public class State {
     }
   }
 
+  /**
+   * Writes a run of characters, each one character long in the original document, to the output
+   * destination. Characters which are consumed by binary or hex input are written individually using
+   * {@link #writeCharacter(int, TextRange)}, the rest of the run is written at once.
+   *
+   * @param chars array containing the original document characters
+   * @param begin the index of the first character of the run in the original document
+   * @param end the exclusive end index of the run in the original document
+   * @param destinationIndices buffer of at least {@code end - begin} ints, which receives the
+   * destination indices of the written characters
+   * @throws RtfReaderException if there is some kind of error in writing to the output
+   * destination.
+   */
+  public void writeCharacters(char[] chars, int begin, int end, int[] destinationIndices)
+      throws RtfReaderException {
+    while (begin < end && !skippingDestination && inputType != InputType.NORMAL) {
+      writeCharacter(chars[begin], Span.create(begin, begin + 1));
+      begin++;
+    }
+    if (skippingDestination) {
+      return;
+    }
+    if (ignoreNextChars > 0) {
+      int ignored = Math.min(ignoreNextChars, end - begin);
+      ignoreNextChars -= ignored;
+      begin += ignored;
+    }
+    if (outputDestination != null && begin < end) {
+      outputDestination.writeChars(chars, begin, end, this, destinationIndices);
+      indexListener.wroteRunToDestination(outputDestination.getName(), destinationIndices,
+          end - begin, begin);
+    }
+  }
+
   /**
    * Internal method for writing characters to the output destination.
    *
@@ -303,7 +375,9 @@ public class State {
    * @param value the value to set the property to.
    */
   public void setPropertyValue(String group, String property, int value) {
-    properties.get(group).put(property, value);
+    int slot = propertySlots.getOrAddSlot(group, property);
+    writablePropertyValues(slot + 1)[slot] = value;
+    propertiesSet[slot] = true;
   }
 
   /**
@@ -312,7 +386,28 @@ public class State {
    * @param group the property group.
    */
   public void resetPropertyGroup(String group) {
-    properties.get(group).replaceAll((k, v) -> 0);
+    Map<String, Integer> groupSlots = propertySlots.getGroupSlots(group);
+    int[] values = writablePropertyValues(0);
+    for (int slot : groupSlots.values()) {
+      if (slot < values.length && propertiesSet[slot]) {
+        values[slot] = 0;
+      }
+    }
+  }
+
+  /**
+   * Returns the slot of a property, which can be used to get its value from this state and any
+   * state copied from or to this state using {@link #getPropertyValue(int)} without looking up
+   * the group and property names again. Output destinations should resolve the slots of the
+   * properties they read once instead of reading them by name for every character.
+   *
+   * @param group the group name of the property.
+   * @param property the property name.
+   * @return the slot of the property.
+   * @throws IllegalArgumentException if the group is not found.
+   */
+  public int getPropertySlot(String group, String property) {
+    return propertySlots.getOrAddSlot(group, property);
   }
 
   /**
@@ -323,15 +418,42 @@ public class State {
    * @return the value of the property.
    */
   public int getPropertyValue(String group, String property) {
-    Map<String, Integer> propertyGroup = properties.get(group);
-    if (propertyGroup == null) {
-      throw new IllegalArgumentException("Group not found");
+    Integer slot = propertySlots.getGroupSlots(group).get(property);
+    if (slot == null) {
+      throw new IllegalArgumentException("Property not found");
     }
-    Integer propertyValue = propertyGroup.get(property);
-    if (propertyValue == null) {
+    return getPropertyValue(slot);
+  }
+
+  /**
+   * Returns the value of a property using its slot.
+   *
+   * @param slot the slot of the property from {@link #getPropertySlot(String, String)}.
+   * @return the value of the property.
+   * @throws IllegalArgumentException if the property has not been set in this state.
+   */
+  public int getPropertyValue(int slot) {
+    if (slot >= propertyValues.length || !propertiesSet[slot]) {
       throw new IllegalArgumentException("Property not found");
     }
-    return propertyValue;
+    return propertyValues[slot];
+  }
+
+  /**
+   * Returns the property values array for writing, copying it and the properties set array first
+   * if they are shared with another state, and growing both to at least the minimum length.
+   *
+   * @param minimumLength the minimum length of the arrays.
+   * @return property values array which only this state refers to.
+   */
+  private int[] writablePropertyValues(int minimumLength) {
+    if (propertyValuesShared || propertyValues.length < minimumLength) {
+      int length = Math.max(propertyValues.length, minimumLength);
+      propertyValues = Arrays.copyOf(propertyValues, length);
+      propertiesSet = Arrays.copyOf(propertiesSet, length);
+      propertyValuesShared = false;
+    }
+    return propertyValues;
   }
 
   /**
@@ -349,4 +471,38 @@ public class State {
   public void setIgnoreNextChars(int ignoreNextChars) {
     this.ignoreNextChars = ignoreNextChars;
   }
+
+  /**
+   * Assigns each property an index in the property values arrays of a state and its copies.
+   * Properties set by keywords which are not in the initial properties are assigned the next free
+   * index, and are missing from the states which have not set them.
+   */
+  private static final class PropertySlots {
+
+    private final Map<String, Map<String, Integer>> slots = new HashMap<>();
+
+    private int size = 0;
+
+    void addGroup(String group) {
+      slots.computeIfAbsent(group, g -> new HashMap<>());
+    }
+
+    Map<String, Integer> getGroupSlots(String group) {
+      Map<String, Integer> groupSlots = slots.get(group);
+      if (groupSlots == null) {
+        throw new IllegalArgumentException("Group not found");
+      }
+      return groupSlots;
+    }
+
+    int getOrAddSlot(String group, String property) {
+      Map<String, Integer> groupSlots = getGroupSlots(group);
+      Integer slot = groupSlots.get(property);
+      if (slot == null) {
+        slot = size++;
+        groupSlots.put(property, slot);
+      }
+      return slot;
+    }
+  }
 }
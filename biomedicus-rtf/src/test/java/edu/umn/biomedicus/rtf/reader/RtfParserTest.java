@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.rtf.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.umn.biomedicus.rtf.beans.keywords.DestinationKeywordAction;
+import edu.umn.biomedicus.rtf.beans.keywords.HexKeywordAction;
+import edu.umn.biomedicus.rtf.beans.keywords.PropertyKeywordAction;
+import edu.umn.biomedicus.rtf.beans.keywords.SkipDestinationIfUnknownKeywordAction;
+import edu.umn.biomedicus.rtf.beans.keywords.UnicodeKeywordAction;
+import edu.umn.biomedicus.rtf.exc.RtfReaderException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link RtfParser}.
+ */
+class RtfParserTest {
+
+  private static final String DOCUMENT = "{\\rtf1\\ansi{\\fonttbl{\\f0 Arial;}}"
+      + "Hello \\b bold\\b0  world\\par\n"
+      + "{\\*\\unknown skipped}caf\\'e9 \\uc1\\u8364?euro -1\\fs-24 x\\u8364?y}";
+
+  @Test
+  void testCharArraySourceMatchesReaderSource() throws RtfReaderException {
+    List<String> expected = parse(new ReaderRtfSource(new StringReader(DOCUMENT)));
+    List<String> actual = parse(new CharArrayRtfSource(DOCUMENT.toCharArray()));
+
+    assertEquals(expected, actual);
+    assertTrue(actual.contains("Rtf:Hello BOLD world\ncaf\u00e9 \u20aceuro -1x\u20acy"));
+  }
+
+  private static List<String> parse(RtfSource rtfSource) throws RtfReaderException {
+    List<String> events = new ArrayList<>();
+    Map<String, StringBuilder> texts = new HashMap<>();
+
+    OutputDestinationFactory outputDestinationFactory = name -> new OutputDestination() {
+      private final StringBuilder text = texts.computeIfAbsent(name, n -> new StringBuilder());
+
+      @Override
+      public int writeChar(char ch, State state) {
+        if (state.getPropertyValue("CharacterFormatting", "Bold") != 0) {
+          ch = Character.toUpperCase(ch);
+        }
+        text.append(ch);
+        return text.length() - 1;
+      }
+
+      @Override
+      public void finishDestination() {
+        events.add(name + ":" + text);
+      }
+
+      @Override
+      public void controlWordEncountered(KeywordAction keywordAction) {
+        events.add(keywordAction.getControlWord() + keywordAction.getBegin() + "-"
+            + keywordAction.getEnd());
+      }
+
+      @Override
+      public String getName() {
+        return name;
+      }
+    };
+
+    Map<String, Map<String, Integer>> properties = new HashMap<>();
+    Map<String, Integer> characterFormatting = new HashMap<>();
+    characterFormatting.put("Bold", 0);
+    characterFormatting.put("FontSize", 0);
+    properties.put("CharacterFormatting", characterFormatting);
+    Map<String, Integer> documentFormatting = new HashMap<>();
+    documentFormatting.put("UnicodeByteCount", 1);
+    properties.put("DocumentFormatting", documentFormatting);
+
+    Map<String, KeywordAction> keywordActions = new HashMap<>();
+    keywordActions.put("b", property("CharacterFormatting", "Bold", 1));
+    keywordActions.put("fs", property("CharacterFormatting", "FontSize", 24));
+    keywordActions.put("uc", property("DocumentFormatting", "UnicodeByteCount", 1));
+    keywordActions.put("'", new HexKeywordAction());
+    keywordActions.put("u", new UnicodeKeywordAction());
+    DestinationKeywordAction fontTable = new DestinationKeywordAction();
+    fontTable.setDestinationName("SkipDestination");
+    keywordActions.put("fonttbl", fontTable);
+    keywordActions.put("*", new SkipDestinationIfUnknownKeywordAction());
+
+    State state = State.createState(outputDestinationFactory, properties,
+        (destinationName, destinationIndex, location) -> events.add(destinationName + ":"
+            + destinationIndex + "@" + location.getStartIndex() + "-" + location.getEndIndex()));
+    state.changeDestination("Rtf");
+
+    RtfParser parser = new RtfParser(new RtfKeywordParser(keywordActions), rtfSource, state);
+    parser.parseFile();
+    assertTrue(parser.finish());
+    return events;
+  }
+
+  private static PropertyKeywordAction property(String group, String name, int defaultValue) {
+    PropertyKeywordAction action = new PropertyKeywordAction();
+    action.setPropertyGroup(group);
+    action.setPropertyName(name);
+    action.setDefaultValue(defaultValue);
+    return action;
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.rtf.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.umn.biomedicus.rtf.exc.RtfReaderException;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link State}.
+ */
+class StateTest {
+
+  private static State createState(Map<String, Map<String, Integer>> properties)
+      throws RtfReaderException {
+    return State.createState(name -> null, properties, (name, index, location) -> {
+    });
+  }
+
+  private static Map<String, Map<String, Integer>> properties() {
+    Map<String, Integer> characterFormatting = new HashMap<>();
+    characterFormatting.put("Bold", 0);
+    characterFormatting.put("Italic", 1);
+    Map<String, Map<String, Integer>> properties = new HashMap<>();
+    properties.put("CharacterFormatting", characterFormatting);
+    return properties;
+  }
+
+  @Test
+  void testCopyDoesNotChangeParent() throws RtfReaderException {
+    State state = createState(properties());
+    State copy = state.copy();
+    copy.setPropertyValue("CharacterFormatting", "Bold", 1);
+
+    assertEquals(1, copy.getPropertyValue("CharacterFormatting", "Bold"));
+    assertEquals(0, state.getPropertyValue("CharacterFormatting", "Bold"));
+  }
+
+  @Test
+  void testParentDoesNotChangeCopy() throws RtfReaderException {
+    State state = createState(properties());
+    State copy = state.copy();
+    state.resetPropertyGroup("CharacterFormatting");
+
+    assertEquals(0, state.getPropertyValue("CharacterFormatting", "Italic"));
+    assertEquals(1, copy.getPropertyValue("CharacterFormatting", "Italic"));
+  }
+
+  @Test
+  void testInitialPropertiesNotChanged() throws RtfReaderException {
+    Map<String, Map<String, Integer>> properties = properties();
+    createState(properties).setPropertyValue("CharacterFormatting", "Bold", 1);
+
+    assertEquals(0, properties.get("CharacterFormatting").get("Bold").intValue());
+  }
+
+  @Test
+  void testPropertyAddedInCopyMissingFromParent() throws RtfReaderException {
+    State state = createState(properties());
+    State copy = state.copy();
+    copy.setPropertyValue("CharacterFormatting", "Hidden", 1);
+
+    assertEquals(1, copy.getPropertyValue("CharacterFormatting", "Hidden"));
+    assertThrows(IllegalArgumentException.class,
+        () -> state.getPropertyValue("CharacterFormatting", "Hidden"));
+  }
+
+  @Test
+  void testPropertyAddedInSiblingMissingAfterGrowing() throws RtfReaderException {
+    State state = createState(properties());
+    State first = state.copy();
+    State second = state.copy();
+    first.setPropertyValue("CharacterFormatting", "Hidden", 1);
+    second.setPropertyValue("CharacterFormatting", "Underline", 1);
+
+    assertEquals(1, second.getPropertyValue("CharacterFormatting", "Underline"));
+    assertThrows(IllegalArgumentException.class,
+        () -> second.getPropertyValue("CharacterFormatting", "Hidden"));
+    assertThrows(IllegalArgumentException.class,
+        () -> second.copy().getPropertyValue("CharacterFormatting", "Hidden"));
+  }
+
+  @Test
+  void testPropertyValueBySlot() throws RtfReaderException {
+    State state = createState(properties());
+    int italic = state.getPropertySlot("CharacterFormatting", "Italic");
+    int hidden = state.getPropertySlot("CharacterFormatting", "Hidden");
+    State copy = state.copy();
+    copy.setPropertyValue("CharacterFormatting", "Italic", 0);
+    copy.setPropertyValue("CharacterFormatting", "Hidden", 1);
+
+    assertEquals(1, state.getPropertyValue(italic));
+    assertEquals(0, copy.getPropertyValue(italic));
+    assertEquals(1, copy.getPropertyValue(hidden));
+    assertEquals(hidden, copy.getPropertySlot("CharacterFormatting", "Hidden"));
+    assertThrows(IllegalArgumentException.class, () -> state.getPropertyValue(hidden));
+  }
+}
@@ -79,7 +79,8 @@ public abstract class AbstractCasAdapter extends CasAnnotator_ImplBase {
 
   @Override
   public final void process(CAS aCAS) throws AnalysisEngineProcessException {
-    CASArtifact casArtifact = new CASArtifact(labelAdapters, aCAS);
+    CASArtifact casArtifact = new CASArtifact(labelAdapters, aCAS,
+        getGuiceInjector().labelIndexCache(aCAS));
     try {
       process(casArtifact);
     } catch (BiomedicusException e) {
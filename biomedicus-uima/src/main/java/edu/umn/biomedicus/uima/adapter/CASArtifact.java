@@ -21,6 +21,7 @@ import edu.umn.biomedicus.uima.labels.LabelAdapter;
 import edu.umn.biomedicus.uima.labels.LabelAdapterFactory;
 import edu.umn.biomedicus.uima.labels.LabelAdapters;
 import edu.umn.biomedicus.uima.labels.UimaLabelIndex;
+import edu.umn.biomedicus.uima.labels.UimaLabelIndexCache;
 import edu.umn.biomedicus.uima.labels.UimaLabeler;
 import edu.umn.nlpengine.AbstractArtifact;
 import edu.umn.nlpengine.AbstractDocument;
@@ -33,7 +34,6 @@ import java.util.AbstractCollection;
 import java.util.AbstractMap;
 import java.util.AbstractSet;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -74,11 +74,22 @@ public final class CASArtifact extends AbstractArtifact {
 
   private final CASMetadata casMetadata;
 
+  private final UimaLabelIndexCache labelIndexCache;
+
   CASArtifact(
       @Nullable LabelAdapters labelAdapters, CAS cas
+  ) {
+    this(labelAdapters, cas, new UimaLabelIndexCache());
+  }
+
+  CASArtifact(
+      @Nullable LabelAdapters labelAdapters,
+      CAS cas,
+      UimaLabelIndexCache labelIndexCache
   ) {
     this.labelAdapters = labelAdapters;
     this.cas = cas;
+    this.labelIndexCache = labelIndexCache;
 
     TypeSystem typeSystem = cas.getTypeSystem();
     metadataType = typeSystem.getType("ArtifactMetadata");
@@ -103,6 +114,7 @@ public final class CASArtifact extends AbstractArtifact {
   ) {
     this.labelAdapters = labelAdapters;
     this.cas = cas;
+    labelIndexCache = new UimaLabelIndexCache();
 
     TypeSystem typeSystem = cas.getTypeSystem();
     metadataType = typeSystem.getType("ArtifactMetadata");
@@ -130,6 +142,7 @@ public final class CASArtifact extends AbstractArtifact {
   ) {
     this.labelAdapters = labelAdapters;
     this.cas = cas;
+    labelIndexCache = new UimaLabelIndexCache();
 
     TypeSystem typeSystem = cas.getTypeSystem();
     metadataType = typeSystem.getType("ArtifactMetadata");
@@ -335,26 +348,21 @@ public final class CASArtifact extends AbstractArtifact {
     @Nullable
     private final LabelAdapters labelAdapters;
 
-    private final Map<Class<?>, LabelIndex<?>> labelIndices = new HashMap<>();
-
     CASDocument(CAS view, @Nullable LabelAdapters labelAdapters) {
       super(view.getViewName(), view.getDocumentText());
       this.view = view;
       this.labelAdapters = labelAdapters;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     @Nonnull
     public <T extends Label> LabelIndex<T> labelIndex(@Nonnull Class<T> labelClass) {
       Preconditions.checkNotNull(labelAdapters);
-      LabelIndex<T> labelIndex = (LabelIndex<T>) labelIndices.get(labelClass);
-      if (labelIndex == null) {
+      return labelIndexCache.labelIndex(view, labelClass, () -> {
         LabelAdapter<T> labelAdapter = labelAdapters.getLabelAdapterFactory(labelClass)
             .create(view, this);
-        labelIndices.put(labelClass, labelIndex = new UimaLabelIndex<>(view, labelAdapter));
-      }
-      return labelIndex;
+        return new UimaLabelIndex<>(view, labelAdapter);
+      });
     }
 
     @SuppressWarnings("unchecked")
@@ -365,7 +373,7 @@ public final class CASArtifact extends AbstractArtifact {
 
       LabelAdapter<T> labelAdapter = labelAdapters.getLabelAdapterFactory(labelClass).create(view,
           this);
-      return new UimaLabeler<>(labelAdapter, this);
+      return new UimaLabeler<>(labelAdapter, this, view, labelIndexCache);
     }
 
     @Override
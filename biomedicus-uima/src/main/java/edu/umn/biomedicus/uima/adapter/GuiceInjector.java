@@ -22,9 +22,13 @@ import edu.umn.biomedicus.framework.Application;
 import edu.umn.biomedicus.framework.Bootstrapper;
 import edu.umn.biomedicus.framework.LifecycleManager;
 import edu.umn.biomedicus.uima.labels.AutoAdapters;
+import edu.umn.biomedicus.uima.labels.UimaLabelIndexCache;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.concurrent.Semaphore;
 import org.apache.uima.analysis_engine.metadata.impl.AnalysisEngineMetaData_impl;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.impl.CASImpl;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.resource.ResourceSpecifier;
 import org.apache.uima.resource.Resource_ImplBase;
@@ -48,6 +52,8 @@ public final class GuiceInjector extends Resource_ImplBase {
   private Injector injector;
   private LifecycleManager lifecycleManager;
 
+  private final Map<CAS, UimaLabelIndexCache> labelIndexCaches = new IdentityHashMap<>();
+
   public GuiceInjector() {
     LOGGER.info("Initializing Guice Injector Resource");
     try {
@@ -86,10 +92,27 @@ public final class GuiceInjector extends Resource_ImplBase {
     return injector;
   }
 
+  /**
+   * Returns the label index cache for a CAS, which is shared by all of the components in this
+   * pipeline that process the CAS.
+   *
+   * @param cas the CAS or any of its views
+   * @return the label index cache
+   */
+  public UimaLabelIndexCache labelIndexCache(CAS cas) {
+    CAS baseCas = cas instanceof CASImpl ? ((CASImpl) cas).getBaseCAS() : cas;
+    synchronized (labelIndexCaches) {
+      return labelIndexCaches.computeIfAbsent(baseCas, key -> new UimaLabelIndexCache());
+    }
+  }
+
   public void detach() throws BiomedicusException {
     semaphore.release(1);
     if (semaphore.tryAcquire(Integer.MAX_VALUE)) {
       injector = null;
+      synchronized (labelIndexCaches) {
+        labelIndexCaches.clear();
+      }
       lifecycleManager.triggerShutdown();
     }
   }
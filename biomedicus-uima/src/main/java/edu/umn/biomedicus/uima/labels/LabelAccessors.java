@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.uima.labels;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+/**
+ * Creates accessors for label classes using method handles, so that the automatic label adapters
+ * can construct labels and read their properties without going through reflection on every
+ * label.
+ *
+ * @since 2.2.0
+ */
+final class LabelAccessors {
+
+  /**
+   * The lookup used to create all the method handles.
+   */
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private LabelAccessors() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Creates a function which calls a getter method on the object passed to it, boxing primitive
+   * return values.
+   *
+   * @param getter the public no-argument getter method
+   * @return function which calls the getter
+   * @throws IllegalAccessException if the getter is not accessible
+   * @throws LambdaConversionException if the function could not be generated for the getter
+   */
+  @SuppressWarnings("unchecked")
+  static Function<Object, Object> getter(
+      Method getter
+  ) throws IllegalAccessException, LambdaConversionException {
+    MethodHandle handle = LOOKUP.unreflect(getter);
+    CallSite callSite = LambdaMetafactory.metafactory(
+        LOOKUP,
+        "apply",
+        MethodType.methodType(Function.class),
+        MethodType.methodType(Object.class, Object.class),
+        handle,
+        MethodType.methodType(handle.type().wrap().returnType(), getter.getDeclaringClass())
+    );
+    try {
+      return (Function<Object, Object>) callSite.getTarget().invoke();
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable throwable) {
+      throw new IllegalStateException(throwable);
+    }
+  }
+
+  /**
+   * Creates a function which calls a constructor using an array of all of its arguments in
+   * parameter order.
+   *
+   * @param constructor the public constructor
+   * @return function which calls the constructor
+   * @throws IllegalAccessException if the constructor is not accessible
+   */
+  static Function<Object[], Object> constructor(
+      Constructor<?> constructor
+  ) throws IllegalAccessException {
+    MethodHandle handle = LOOKUP.unreflectConstructor(constructor)
+        .asSpreader(Object[].class, constructor.getParameterCount())
+        .asType(MethodType.methodType(Object.class, Object[].class));
+    return arguments -> {
+      try {
+        return handle.invokeExact(arguments);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable throwable) {
+        throw new IllegalStateException(throwable);
+      }
+    };
+  }
+}
@@ -48,6 +48,11 @@ class AnnotationPropertyWatcher {
   @Nullable
   private Integer value = null;
 
+  /**
+   * The slot of the watched property in the states, resolved from the first state handled.
+   */
+  private int slot = -1;
+
   /**
    * Creates an annotation property watcher from the cas mapping.
    *
@@ -75,7 +80,10 @@ class AnnotationPropertyWatcher {
           "Index before the beginning of the currently tracked annotation.");
     }
 
-    int propertyValue = propertyCasMapping.getPropertyValue(state);
+    if (slot == -1) {
+      slot = propertyCasMapping.getPropertySlot(state);
+    }
+    int propertyValue = state.getPropertyValue(slot);
 
     AnnotationFS finished = null;
     if (begin != null) {
@@ -65,4 +65,19 @@ class CasIndexListener implements IndexListener {
     viewIndex.setIntValue(destinationIndexFeature, destinationIndex);
     originalDocumentView.addFsToIndexes(viewIndex);
   }
+
+  @Override
+  public void wroteRunToDestination(String destinationName,
+      int[] destinationIndices,
+      int count,
+      int originalDocumentBegin) {
+    for (int i = 0; i < count; i++) {
+      int originalIndex = originalDocumentBegin + i;
+      AnnotationFS viewIndex = originalDocumentView
+          .createAnnotation(viewIndexType, originalIndex, originalIndex + 1);
+      viewIndex.setStringValue(destinationNameFeature, destinationName);
+      viewIndex.setIntValue(destinationIndexFeature, destinationIndices[i]);
+      originalDocumentView.addFsToIndexes(viewIndex);
+    }
+  }
 }
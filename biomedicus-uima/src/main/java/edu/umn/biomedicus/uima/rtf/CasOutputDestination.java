@@ -20,6 +20,7 @@ import edu.umn.biomedicus.rtf.reader.KeywordAction;
 import edu.umn.biomedicus.rtf.reader.OutputDestination;
 import edu.umn.biomedicus.rtf.reader.State;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -78,6 +79,16 @@ class CasOutputDestination implements OutputDestination {
 
   private boolean inSuperSub = false;
 
+  /**
+   * The slots of the properties read for every character, resolved once from the first state
+   * written with, since the state and all of its copies share the same slots.
+   */
+  private int hiddenSlot = -1;
+
+  private int inTableSlot = -1;
+
+  private int superSubSlot = -1;
+
   /**
    * Default constructor, initializes all fields.
    *
@@ -108,6 +119,14 @@ class CasOutputDestination implements OutputDestination {
 
   @Override
   public int writeChar(char ch, State state) {
+    if (hiddenSlot == -1) {
+      hiddenSlot = state.getPropertySlot("CharacterFormatting", "Hidden");
+      superSubSlot = state.getPropertySlot("CharacterFormatting", "SuperSub");
+      if (!writeTables) {
+        inTableSlot = state.getPropertySlot("ParagraphFormatting", "InTable");
+      }
+    }
+
     for (AnnotationPropertyWatcher propertyWatcher : annotationPropertyWatchers) {
       AnnotationFS newAnnotation = propertyWatcher
           .handleChanges(sofaBuilder.length(), state, destinationView);
@@ -116,8 +135,8 @@ class CasOutputDestination implements OutputDestination {
       }
     }
 
-    if (state.getPropertyValue("CharacterFormatting", "Hidden") == 0
-        && (writeTables || state.getPropertyValue("ParagraphFormatting", "InTable") == 0)) {
+    if (state.getPropertyValue(hiddenSlot) == 0
+        && (writeTables || state.getPropertyValue(inTableSlot) == 0)) {
       if (!isValidXml(ch)) {
         // add zero-width space and annotate it as an illegal xml character.
         sofaBuilder.append((char) 0x200B);
@@ -129,7 +148,7 @@ class CasOutputDestination implements OutputDestination {
         annotation.setIntValue(valueFeat, (int) ch);
         completedAnnotations.add(annotation);
       } else {
-        int superSub = state.getPropertyValue("CharacterFormatting", "SuperSub");
+        int superSub = state.getPropertyValue(superSubSlot);
         if (superSub > 0) {
           if (!inSuperSub) {
             inSuperSub = true;
@@ -154,6 +173,47 @@ class CasOutputDestination implements OutputDestination {
     }
   }
 
+  /**
+   * Writes characters of the run using {@link #writeChar(char, State)}, which handles any property
+   * changes and superscript or subscript transitions, until the first valid xml character has been
+   * written. Since the state does not change within the run, the rest of the characters only need
+   * to be appended.
+   */
+  @Override
+  public void writeChars(char[] chars, int begin, int end, State state,
+      int[] destinationIndices) {
+    int i = begin;
+    while (i < end) {
+      char ch = chars[i];
+      int index = writeChar(ch, state);
+      destinationIndices[i - begin] = index;
+      i++;
+      if (index == -1) {
+        Arrays.fill(destinationIndices, i - begin, end - begin, -1);
+        return;
+      }
+      if (isValidXml(ch)) {
+        break;
+      }
+    }
+    for (; i < end; i++) {
+      char ch = chars[i];
+      if (isValidXml(ch)) {
+        sofaBuilder.append(ch);
+      } else {
+        sofaBuilder.append((char) 0x200B);
+        AnnotationFS annotation = destinationView.createAnnotation(
+            illegalCharType,
+            sofaBuilder.length() - 1,
+            sofaBuilder.length()
+        );
+        annotation.setIntValue(valueFeat, (int) ch);
+        completedAnnotations.add(annotation);
+      }
+      destinationIndices[i - begin] = sofaBuilder.length() - 1;
+    }
+  }
+
   private boolean isValidXml(char ch) {
     return (ch >= 0x0020 && ch <= 0xd7ff) || ch == 0x0009 || ch == 0x000a
         || ch == 0x000d || (ch >= 0xe000 && ch <= 0xfffd);
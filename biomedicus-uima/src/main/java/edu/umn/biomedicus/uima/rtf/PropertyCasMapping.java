@@ -98,8 +98,8 @@ public class PropertyCasMapping {
     return (value >= minimumValue && (maximumValue == null || value <= maximumValue));
   }
 
-  int getPropertyValue(State state) {
-    return state.getPropertyValue(propertyGroup, propertyName);
+  int getPropertySlot(State state) {
+    return state.getPropertySlot(propertyGroup, propertyName);
   }
 
   public String getPropertyGroup() {
@@ -48,24 +48,40 @@ public class SymbolIndexedDocument {
    */
   private final Map<String, Map<Integer, Integer>> destinationMap;
 
+  /**
+   * A Fenwick tree over the symbols, where the value of each symbol is its offset plus its length,
+   * used to find the total length of the document before a symbol in logarithmic time.
+   */
+  private final int[] symbolExtents;
+
   /**
    * The original rtf document.
    */
   private StringBuilder document;
 
   /**
-   * Internal private constructor. Initializes the indexes and document content.
+   * Internal constructor. Initializes the indexes and document content.
    *
    * @param symbolLocations the ordered indexes of symbol locations in the document.
    * @param destinationMap the map from destinations to character indexes to symbol indexes.
    * @param document the document itself.
    */
-  private SymbolIndexedDocument(List<SymbolLocation> symbolLocations,
+  SymbolIndexedDocument(List<SymbolLocation> symbolLocations,
       Map<String, Map<Integer, Integer>> destinationMap,
       String document) {
     this.symbolLocations = symbolLocations;
     this.destinationMap = destinationMap;
     this.document = new StringBuilder(document);
+
+    symbolExtents = new int[symbolLocations.size() + 1];
+    for (int i = 1; i < symbolExtents.length; i++) {
+      SymbolLocation symbolLocation = symbolLocations.get(i - 1);
+      symbolExtents[i] += symbolLocation.getOffset() + symbolLocation.getLength();
+      int parent = i + (i & -i);
+      if (parent < symbolExtents.length) {
+        symbolExtents[parent] += symbolExtents[i];
+      }
+    }
   }
 
   /**
@@ -168,7 +184,7 @@ public class SymbolIndexedDocument {
 
     document.insert(insertionIndex, text);
 
-    symbolLocation.addToOffset(text.length());
+    addToOffset(symbolIndex, text.length());
   }
 
   /**
@@ -185,8 +201,20 @@ public class SymbolIndexedDocument {
     document.insert(insertionIndex, text);
 
     if (symbolIndex + 1 < symbolLocations.size()) {
-      SymbolLocation nextSymbol = symbolLocations.get(symbolIndex + 1);
-      nextSymbol.addToOffset(text.length());
+      addToOffset(symbolIndex + 1, text.length());
+    }
+  }
+
+  /**
+   * Adds to the offset of a symbol, updating the symbol extents tree.
+   *
+   * @param symbolIndex the index of the symbol.
+   * @param increment the amount to add to the offset.
+   */
+  private void addToOffset(int symbolIndex, int increment) {
+    symbolLocations.get(symbolIndex).addToOffset(increment);
+    for (int i = symbolIndex + 1; i < symbolExtents.length; i += i & -i) {
+      symbolExtents[i] += increment;
     }
   }
 
@@ -199,10 +227,8 @@ public class SymbolIndexedDocument {
   public int getOriginalDocumentIndex(SymbolLocation symbolLocation) {
     int index = symbolLocation.getOffset();
 
-    for (int i = 0; i < symbolLocation.getIndex(); i++) {
-      SymbolLocation pointer = symbolLocations.get(i);
-      index += pointer.getOffset();
-      index += pointer.getLength();
+    for (int i = symbolLocation.getIndex(); i > 0; i -= i & -i) {
+      index += symbolExtents[i];
     }
 
     return index;
@@ -97,6 +97,7 @@ class ArtifactSourceUimaAdapter : CollectionReader_ImplBase() {
         }
         val next = next
         completed++
+        aCAS?.let { guiceInjector?.labelIndexCache(it)?.clear() }
         tryAdvance()
         CASArtifact(labelAdapters, next, aCAS)
     }
@@ -57,7 +57,9 @@ class PipelineComponentUimaAdapter : CasAnnotator_ImplBase() {
     }
 
     override fun process(aCAS: CAS) {
-        runner?.processArtifact(CASArtifact(labelAdapters, aCAS))
+        val labelIndexCache = guiceInjector?.labelIndexCache(aCAS)
+                ?: throw IllegalStateException("Guice injector was null")
+        runner?.processArtifact(CASArtifact(labelAdapters, aCAS, labelIndexCache))
                 ?: throw IllegalStateException("Runner was null")
     }
 
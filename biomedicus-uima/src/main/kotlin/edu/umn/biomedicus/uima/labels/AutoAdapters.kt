@@ -23,14 +23,19 @@ import org.apache.uima.resource.metadata.FeatureDescription
 import org.apache.uima.resource.metadata.TypeDescription
 import org.apache.uima.resource.metadata.TypeSystemDescription
 import org.apache.uima.resource.metadata.impl.AllowedValue_impl
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
 import java.math.BigDecimal
 import java.util.*
+import java.util.function.Function
 import javax.inject.Inject
 import javax.inject.Singleton
 import kotlin.reflect.KClass
 import kotlin.reflect.KParameter
 import kotlin.reflect.KProperty1
 import kotlin.reflect.full.*
+import kotlin.reflect.jvm.javaConstructor
+import kotlin.reflect.jvm.javaGetter
 
 private val featureDesc = "Automatically generated feature"
 
@@ -88,6 +93,10 @@ class AutoAdapter<T : Label>(
         override val labelClass: Class<T>,
         private var labelAdapters: LabelAdapters
 ) : LabelAdapterFactory<T> {
+    companion object {
+        private val log: Logger = LoggerFactory.getLogger(AutoAdapter::class.java)
+    }
+
     private val clazz = labelClass.kotlin
 
     private val distinct: Boolean = (labelClass.kotlin.findAnnotation<LabelMetadata>()
@@ -115,6 +124,24 @@ class AutoAdapter<T : Label>(
             ?.map { (parameter, property) -> createPropertyMapping(property, parameter) }
             ?: throw IllegalStateException("")
 
+    private val startIndexParameter = primaryConstructor.findParameterByName("startIndex")
+            ?: throw IllegalStateException("Primary constructor without startIndex parameter")
+
+    private val endIndexParameter = primaryConstructor.findParameterByName("endIndex")
+            ?: throw IllegalStateException("Primary constructor without endIndex parameter")
+
+    /**
+     * Constructor called with an array of all the primary constructor arguments, generated once
+     * per label class, or null if it could not be generated and reflection should be used.
+     */
+    private val generatedConstructor: Function<Array<Any?>, Any>? = try {
+        primaryConstructor.javaConstructor?.let { LabelAccessors.constructor(it) }
+    } catch (e: Exception) {
+        log.warn("Constructing {} labels using reflection: {}", labelClass.canonicalName,
+                e.toString())
+        null
+    }
+
     private var isInitialized = false
 
     fun addTypeToTypeSystem(description: TypeSystemDescription) {
@@ -144,23 +171,29 @@ class AutoAdapter<T : Label>(
             override val distinct = this@AutoAdapter.distinct
 
             override fun annotationToLabel(annotationFS: AnnotationFS): T {
-                val parameters = HashMap<KParameter, Any?>()
-                for (propertyMapping in propertyMappings) {
-                    val value = propertyMapping.copyFromAnnotation(annotationFS, document)
+                val generatedConstructor = generatedConstructor
+                val label = if (generatedConstructor != null) {
+                    val arguments = arrayOfNulls<Any?>(primaryConstructor.parameters.size)
+                    for (propertyMapping in propertyMappings) {
+                        arguments[propertyMapping.parameter.index] =
+                                propertyMapping.copyFromAnnotation(annotationFS, document)
+                    }
+                    arguments[startIndexParameter.index] = annotationFS.begin
+                    arguments[endIndexParameter.index] = annotationFS.end
 
-                    val parameter = primaryConstructor
-                            .findParameterByName(propertyMapping.property.name)
+                    @Suppress("UNCHECKED_CAST")
+                    generatedConstructor.apply(arguments) as T
+                } else {
+                    val parameters = HashMap<KParameter, Any?>()
+                    for (propertyMapping in propertyMappings) {
+                        parameters[propertyMapping.parameter] =
+                                propertyMapping.copyFromAnnotation(annotationFS, document)
+                    }
+                    parameters[startIndexParameter] = annotationFS.begin
+                    parameters[endIndexParameter] = annotationFS.end
 
-                    parameters[parameter!!] = value
+                    primaryConstructor.callBy(parameters)
                 }
-
-                parameters[primaryConstructor.findParameterByName("startIndex")!!] =
-                        annotationFS.begin
-
-                parameters[primaryConstructor.findParameterByName("endIndex")!!] =
-                        annotationFS.end
-
-                val label = primaryConstructor.callBy(parameters)
                 label.document = document
                 label.labelId = cas.lowLevelCAS.ll_getFSRef(annotationFS)
                 return label
@@ -393,6 +426,27 @@ class AutoAdapter<T : Label>(
         @Suppress("UNCHECKED_CAST")
         protected val returnType: KClass<R> = property.returnType.classifier as KClass<R>
 
+        /**
+         * Getter generated once per property, or null if it could not be generated and reflection
+         * should be used.
+         */
+        private val getter: Function<Any, Any?>? = try {
+            property.javaGetter?.let { LabelAccessors.getter(it) }
+        } catch (e: Exception) {
+            log.warn("Getting {}.{} using reflection: {}", labelClass.canonicalName, property.name,
+                    e.toString())
+            null
+        }
+
+        /**
+         * Returns the value of the property on [label].
+         */
+        @Suppress("UNCHECKED_CAST")
+        protected fun getValue(label: T): R {
+            val getter = getter
+            return if (getter != null) getter.apply(label) as R else property.get(label)
+        }
+
         private var _featureDescription: FeatureDescription? = null
         protected val featureDescription: FeatureDescription
             get() = _featureDescription
@@ -419,7 +473,7 @@ class AutoAdapter<T : Label>(
         }
 
         open fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            copyValueToAnnotation(property.get(label), cas, annotationFS, document)
+            copyValueToAnnotation(getValue(label), cas, annotationFS, document)
         }
 
         open fun copyValueToAnnotation(value: R?, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
@@ -436,7 +490,7 @@ class AutoAdapter<T : Label>(
         override val uimaType: String = CAS.TYPE_NAME_BOOLEAN
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            annotationFS.setBooleanValue(feat, property.get(label))
+            annotationFS.setBooleanValue(feat, getValue(label))
         }
 
         override fun copyFromAnnotation(annotationFS: AnnotationFS, document: Document?): Boolean? {
@@ -450,7 +504,7 @@ class AutoAdapter<T : Label>(
         override val uimaType: String = CAS.TYPE_NAME_BYTE
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            annotationFS.setByteValue(feat, property.get(label))
+            annotationFS.setByteValue(feat, getValue(label))
         }
 
         override fun copyFromAnnotation(annotationFS: AnnotationFS, document: Document?): Byte? {
@@ -465,7 +519,7 @@ class AutoAdapter<T : Label>(
         override val uimaType: String = CAS.TYPE_NAME_SHORT
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            annotationFS.setShortValue(feat, property.get(label))
+            annotationFS.setShortValue(feat, getValue(label))
         }
 
         override fun copyFromAnnotation(annotationFS: AnnotationFS, document: Document?): Short? {
@@ -480,7 +534,7 @@ class AutoAdapter<T : Label>(
         override val uimaType: String = CAS.TYPE_NAME_INTEGER
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            annotationFS.setIntValue(feat, property.get(label))
+            annotationFS.setIntValue(feat, getValue(label))
         }
 
         override fun copyFromAnnotation(annotationFS: AnnotationFS, document: Document?): Int {
@@ -495,7 +549,7 @@ class AutoAdapter<T : Label>(
         override val uimaType: String = CAS.TYPE_NAME_LONG
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            annotationFS.setLongValue(feat, property.get(label))
+            annotationFS.setLongValue(feat, getValue(label))
         }
 
         override fun copyFromAnnotation(annotationFS: AnnotationFS, document: Document?): Long {
@@ -511,7 +565,7 @@ class AutoAdapter<T : Label>(
             get() = CAS.TYPE_NAME_FLOAT
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            annotationFS.setFloatValue(feat, property.get(label))
+            annotationFS.setFloatValue(feat, getValue(label))
         }
 
         override fun copyFromAnnotation(annotationFS: AnnotationFS, document: Document?): Float {
@@ -527,7 +581,7 @@ class AutoAdapter<T : Label>(
             get() = CAS.TYPE_NAME_DOUBLE
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            annotationFS.setDoubleValue(feat, property.get(label))
+            annotationFS.setDoubleValue(feat, getValue(label))
         }
 
         override fun copyFromAnnotation(annotationFS: AnnotationFS, document: Document?): Double {
@@ -543,7 +597,7 @@ class AutoAdapter<T : Label>(
             get() = CAS.TYPE_NAME_STRING
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            val get = property.get(label) ?: return
+            val get = getValue(label) ?: return
             annotationFS.setStringValue(feat, get)
         }
 
@@ -560,7 +614,7 @@ class AutoAdapter<T : Label>(
             get() = CAS.TYPE_NAME_BOOLEAN_ARRAY
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            val from = property.get(label) ?: return
+            val from = getValue(label) ?: return
 
             val to = cas.createBooleanArrayFS(from.size)
             to.copyFromArray(from, 0, 0, from.size)
@@ -610,7 +664,7 @@ class AutoAdapter<T : Label>(
             get() = CAS.TYPE_NAME_BYTE_ARRAY
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            val from = property.get(label) ?: return
+            val from = getValue(label) ?: return
 
             val to = cas.createByteArrayFS(from.size)
 
@@ -661,7 +715,7 @@ class AutoAdapter<T : Label>(
             get() = CAS.TYPE_NAME_SHORT_ARRAY
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            val from = property.get(label) ?: return
+            val from = getValue(label) ?: return
             val to = cas.createShortArrayFS(from.size)
             to.copyFromArray(from, 0, 0, from.size)
             cas.addFsToIndexes(to)
@@ -708,7 +762,7 @@ class AutoAdapter<T : Label>(
             get() = CAS.TYPE_NAME_INTEGER_ARRAY
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            val from = property.get(label) ?: return
+            val from = getValue(label) ?: return
             val to = cas.createIntArrayFS(from.size)
             to.copyFromArray(from, 0, 0, from.size)
             cas.addFsToIndexes(to)
@@ -755,7 +809,7 @@ class AutoAdapter<T : Label>(
             get() = CAS.TYPE_NAME_LONG_ARRAY
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            val from = property.get(label) ?: return
+            val from = getValue(label) ?: return
             val to = cas.createLongArrayFS(from.size)
             from.forEachIndexed { index, l -> to[index] = l }
             cas.addFsToIndexes(to)
@@ -802,7 +856,7 @@ class AutoAdapter<T : Label>(
             get() = CAS.TYPE_NAME_FLOAT_ARRAY
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            val from = property.get(label) ?: return
+            val from = getValue(label) ?: return
             val to = cas.createFloatArrayFS(from.size)
             to.copyFromArray(from, 0, 0, from.size)
             cas.addFsToIndexes(to)
@@ -849,7 +903,7 @@ class AutoAdapter<T : Label>(
             get() = CAS.TYPE_NAME_DOUBLE_ARRAY
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            val from = property.get(label) ?: return
+            val from = getValue(label) ?: return
             val to = cas.createDoubleArrayFS(from.size)
             to.copyFromArray(from, 0, 0, from.size)
             cas.addFsToIndexes(to)
@@ -896,7 +950,7 @@ class AutoAdapter<T : Label>(
             get() = CAS.TYPE_NAME_STRING_ARRAY
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            val from = property.get(label) ?: return
+            val from = getValue(label) ?: return
             val to = cas.createStringArrayFS(from.size)
             to.copyFromArray(from, 0, 0, from.size)
             cas.addFsToIndexes(to)
@@ -943,7 +997,7 @@ class AutoAdapter<T : Label>(
             get() = createEnumTypeName(returnType.java)
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            val enumVal = property.get(label) as Enum<*>? ?: return
+            val enumVal = getValue(label) as Enum<*>? ?: return
             annotationFS.setStringValue(feat, enumVal.name)
         }
 
@@ -964,7 +1018,7 @@ class AutoAdapter<T : Label>(
             get() = CAS.TYPE_NAME_STRING_ARRAY
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            val from = property.get(label) ?: return
+            val from = getValue(label) ?: return
             val to = cas.createStringArrayFS(from.size)
             for (i in 0 until from.size) {
                 to[i] = from[i].let { it as Enum<*> }.name
@@ -1022,7 +1076,7 @@ class AutoAdapter<T : Label>(
             get() = CAS.TYPE_NAME_STRING
 
         override fun copyToAnnotation(label: T, cas: CAS, annotationFS: AnnotationFS, document: Document?) {
-            val bigDecimal = property.get(label) ?: return
+            val bigDecimal = getValue(label) ?: return
             annotationFS.setStringValue(feat, bigDecimal.toString())
         }
 
@@ -32,6 +32,16 @@ class UimaLabelIndex<T : Label> @Inject constructor(
 
     private val index: AnnotationIndex<AnnotationFS> = cas.getAnnotationIndex(labelAdapter.type)
 
+    private val annotationCount = index.size()
+
+    /**
+     * Whether the number of annotations in the CAS is unchanged since this label index was created,
+     * meaning the labels inflated from them can still be used. Annotations removed and replaced
+     * outside of a [UimaLabeler] are not detected, see [UimaLabelIndexCache.invalidate].
+     */
+    val isCurrent: Boolean
+        get() = index.size() == annotationCount
+
     private val inflated: LabelIndex<T> by lazy {
         if (labelAdapter.distinct)
             DistinctLabelIndex(labelClass, this)
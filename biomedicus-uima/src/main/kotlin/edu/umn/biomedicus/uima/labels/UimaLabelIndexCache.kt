@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.uima.labels
+
+import edu.umn.nlpengine.Label
+import org.apache.uima.cas.CAS
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.function.Supplier
+
+/**
+ * Caches the [UimaLabelIndex] of every label class on the views of one CAS, so that label indices
+ * inflated by one pipeline stage are shared by every later stage that processes the same CAS. The
+ * pipeline's [edu.umn.biomedicus.uima.adapter.GuiceInjector] resource holds one cache for each of
+ * its CASes.
+ *
+ * Entries for a label class are invalidated when a [UimaLabeler] adds labels of that class, or
+ * when the number of annotations of its type changes. Code that removes annotations from the CAS
+ * indices outside of a labeler should [invalidate] their label class. Entries for a view are all
+ * dropped when the view's document text changes, which happens when a pooled CAS is reset and
+ * reused for another artifact.
+ */
+class UimaLabelIndexCache {
+    private val views = IdentityHashMap<CAS, ViewCache>()
+
+    /**
+     * Returns the cached label index for [labelClass] on [view], or creates it using [create] if
+     * there is no cached index or the cached index is no longer valid.
+     */
+    fun <T : Label> labelIndex(
+            view: CAS,
+            labelClass: Class<T>,
+            create: Supplier<UimaLabelIndex<T>>
+    ): UimaLabelIndex<T> {
+        val viewCache = viewCache(view)
+
+        @Suppress("UNCHECKED_CAST")
+        val cached = viewCache.indices[labelClass] as? UimaLabelIndex<T>
+        if (cached != null && cached.isCurrent) return cached
+
+        return create.get().also { viewCache.indices[labelClass] = it }
+    }
+
+    /**
+     * Removes the cached label index for [labelClass] on [view].
+     */
+    fun invalidate(view: CAS, labelClass: Class<*>) {
+        synchronized(views) {
+            views[view]
+        }?.indices?.remove(labelClass)
+    }
+
+    /**
+     * Removes the cached label indices for every view.
+     */
+    fun clear() {
+        synchronized(views) {
+            views.clear()
+        }
+    }
+
+    private fun viewCache(view: CAS): ViewCache {
+        val text = view.documentText
+        synchronized(views) {
+            val existing = views[view]
+            if (existing != null && existing.text === text) return existing
+            return ViewCache(text).also { views[view] = it }
+        }
+    }
+
+    private class ViewCache(val text: String?) {
+        val indices = ConcurrentHashMap<Class<*>, UimaLabelIndex<*>>()
+    }
+}
@@ -19,20 +19,29 @@ package edu.umn.biomedicus.uima.labels
 import edu.umn.nlpengine.Document
 import edu.umn.nlpengine.Label
 import edu.umn.nlpengine.Labeler
+import org.apache.uima.cas.CAS
 import org.apache.uima.cas.impl.AnnotationImpl
 
 class UimaLabeler<T : Label>(
         private val labelAdapter: LabelAdapter<T>,
-        private val document: Document
+        private val document: Document,
+        private val view: CAS,
+        private val labelIndexCache: UimaLabelIndexCache
 ) : Labeler<T> {
 
     override fun add(label: T) {
-        val annotationFS = labelAdapter.labelToAnnotation(label)
-        label.document = document
-        label.labelId = (annotationFS as? AnnotationImpl)?.address ?: throw IllegalStateException("Unable to get cas address to use as identifier.")
+        addLabel(label)
+        labelIndexCache.invalidate(view, labelAdapter.labelClass)
     }
 
     override fun addAll(elements: Iterable<T>) {
-        elements.forEach { add(it) }
+        elements.forEach { addLabel(it) }
+        labelIndexCache.invalidate(view, labelAdapter.labelClass)
+    }
+
+    private fun addLabel(label: T) {
+        val annotationFS = labelAdapter.labelToAnnotation(label)
+        label.document = document
+        label.labelId = (annotationFS as? AnnotationImpl)?.address ?: throw IllegalStateException("Unable to get cas address to use as identifier.")
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.uima.rtf;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.umn.biomedicus.rtf.reader.State;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.uima.UIMAFramework;
+import org.apache.uima.cas.CAS;
+import org.apache.uima.resource.metadata.TypeDescription;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link CasOutputDestination}.
+ */
+public class CasOutputDestinationTest {
+
+  @Test
+  public void testWriteCharsSuperscriptStartingWithIllegalChar() throws Exception {
+    TypeSystemDescription typeSystem = UIMAFramework.getResourceSpecifierFactory()
+        .createTypeSystemDescription();
+    TypeDescription illegalChar = typeSystem.addType("biomedicus.v2.rtf.IllegalXmlCharacter", "",
+        CAS.TYPE_NAME_ANNOTATION);
+    illegalChar.addFeature("value", "", CAS.TYPE_NAME_INTEGER);
+    CAS cas = CasCreationUtils.createCas(typeSystem, null, null);
+
+    CasOutputDestination destination = new CasOutputDestination(cas, Collections.emptyList(),
+        Collections.emptyMap(), "SystemView", false);
+
+    Map<String, Integer> characterFormatting = new HashMap<>();
+    characterFormatting.put("Hidden", 0);
+    characterFormatting.put("SuperSub", 0);
+    Map<String, Map<String, Integer>> properties = new HashMap<>();
+    properties.put("CharacterFormatting", characterFormatting);
+    properties.put("ParagraphFormatting", Collections.singletonMap("InTable", 0));
+    State state = new State(Collections.emptyMap(), null, properties, null);
+
+    destination.writeChar('x', state);
+
+    state.setPropertyValue("CharacterFormatting", "SuperSub", 1);
+    char[] chars = {'\u0001', '2', '3'};
+    int[] destinationIndices = new int[3];
+    destination.writeChars(chars, 0, 3, state, destinationIndices);
+
+    state.setPropertyValue("CharacterFormatting", "SuperSub", 0);
+    destination.writeChar(' ', state);
+
+    destination.finishDestination();
+
+    assertEquals("x\u200B(23) ", cas.getDocumentText());
+    assertArrayEquals(new int[]{1, 3, 4}, destinationIndices);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.uima.rtfrewriting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit test for {@link SymbolIndexedDocument}.
+ */
+public class SymbolIndexedDocumentTest {
+
+  @Test
+  public void testInsertions() {
+    String document = "{\\rtf1 ab\\par c}";
+    List<SymbolLocation> symbolLocations = new ArrayList<>();
+    symbolLocations.add(new SymbolLocation("Body", 7, 1, 0));
+    symbolLocations.add(new SymbolLocation("Body", 0, 1, 1));
+    symbolLocations.add(new SymbolLocation("Body", 5, 1, 2));
+
+    SymbolIndexedDocument symbolIndexedDocument = new SymbolIndexedDocument(symbolLocations,
+        Collections.emptyMap(), document);
+
+    symbolIndexedDocument.insertBeforeSymbol(1, "<");
+    symbolIndexedDocument.insertTextAfter(1, ">");
+    symbolIndexedDocument.insertBeforeSymbol(2, "[");
+    symbolIndexedDocument.insertTextAfter(2, "]");
+
+    assertEquals("{\\rtf1 a<b>\\par [c]}", symbolIndexedDocument.getDocument());
+  }
+
+  @Test
+  public void testOriginalDocumentIndexMatchesSum() {
+    Random random = new Random(5);
+    List<SymbolLocation> symbolLocations = new ArrayList<>();
+    StringBuilder document = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      int offset = random.nextInt(3);
+      int length = 1 + random.nextInt(4);
+      for (int j = 0; j < offset + length; j++) {
+        document.append('x');
+      }
+      symbolLocations.add(new SymbolLocation("Body", offset, length, i));
+    }
+
+    SymbolIndexedDocument symbolIndexedDocument = new SymbolIndexedDocument(symbolLocations,
+        Collections.emptyMap(), document.toString());
+
+    for (int i = 0; i < 500; i++) {
+      int symbolIndex = random.nextInt(symbolLocations.size());
+      if (random.nextBoolean()) {
+        symbolIndexedDocument.insertBeforeSymbol(symbolIndex, "ab");
+      } else {
+        symbolIndexedDocument.insertTextAfter(symbolIndex, "c");
+      }
+
+      int expected = 0;
+      for (SymbolLocation symbolLocation : symbolLocations) {
+        expected += symbolLocation.getOffset();
+        assertEquals(expected, symbolIndexedDocument.getOriginalDocumentIndex(symbolLocation));
+        expected += symbolLocation.getLength();
+      }
+    }
+  }
+}
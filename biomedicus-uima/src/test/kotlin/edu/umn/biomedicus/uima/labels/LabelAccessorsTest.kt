@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.uima.labels
+
+import edu.umn.nlpengine.Label
+import edu.umn.nlpengine.LabelMetadata
+import org.apache.uima.cas.CAS
+import org.apache.uima.resource.metadata.impl.TypeSystemDescription_impl
+import org.apache.uima.util.CasCreationUtils
+import kotlin.test.BeforeTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+@LabelMetadata(classpath = "test")
+data class HasAccessedProperties(
+        override val startIndex: Int,
+        override val endIndex: Int,
+        val int: Int,
+        val long: Long,
+        val double: Double,
+        val boolean: Boolean,
+        val foo: Foo,
+        val string: String,
+        val nullableFoo: Foo?,
+        val nullableString: String?
+) : Label()
+
+class LabelAccessorsTest {
+    private val labelAdapters = LabelAdapters(null)
+
+    private lateinit var cas: CAS
+
+    @BeforeTest
+    fun setUp() {
+        val autoAdapters = AutoAdapters(labelAdapters, null)
+        autoAdapters.addEnumClass(Foo::class.java)
+        autoAdapters.addLabelClass(HasAccessedProperties::class.java)
+        val ts = TypeSystemDescription_impl()
+        autoAdapters.addToTypeSystem(ts)
+        cas = CasCreationUtils.createCas(ts, null, null)
+    }
+
+    private fun roundTrip(label: HasAccessedProperties): HasAccessedProperties {
+        val adapter = labelAdapters.getLabelAdapterFactory(HasAccessedProperties::class.java)
+                .create(cas, null)
+        return adapter.annotationToLabel(adapter.labelToAnnotation(label))
+    }
+
+    @Test
+    fun `round trip`() {
+        val label = HasAccessedProperties(0, 5, 3, 4_000_000_000L, 0.5, true, Foo.BAZ, "blah",
+                Foo.BAR, "nullable")
+
+        assertEquals(label, roundTrip(label))
+    }
+
+    @Test
+    fun `round trip null values`() {
+        val label = HasAccessedProperties(2, 7, -1, 0L, -2.25, false, Foo.BAR, "", null, null)
+
+        assertEquals(label, roundTrip(label))
+    }
+
+    @Test
+    fun `getter boxes primitive`() {
+        val label = HasAccessedProperties(0, 5, 3, 4L, 0.5, true, Foo.BAZ, "blah", null, null)
+
+        val getInt = LabelAccessors.getter(HasAccessedProperties::class.java.getMethod("getInt"))
+        val getBoolean = LabelAccessors.getter(
+                HasAccessedProperties::class.java.getMethod("getBoolean")
+        )
+        val getNullableFoo = LabelAccessors.getter(
+                HasAccessedProperties::class.java.getMethod("getNullableFoo")
+        )
+
+        assertEquals<Any?>(3, getInt.apply(label))
+        assertEquals<Any?>(true, getBoolean.apply(label))
+        assertEquals<Any?>(null, getNullableFoo.apply(label))
+    }
+
+    @Test
+    fun `constructor with arguments array`() {
+        val constructor = LabelAccessors.constructor(
+                HasAccessedProperties::class.java.getConstructor(Int::class.java, Int::class.java,
+                        Int::class.java, Long::class.java, Double::class.java,
+                        Boolean::class.java, Foo::class.java, String::class.java,
+                        Foo::class.java, String::class.java)
+        )
+
+        val label = constructor.apply(arrayOf(0, 5, 3, 4L, 0.5, true, Foo.BAZ, "blah", null, null))
+
+        assertEquals(HasAccessedProperties(0, 5, 3, 4L, 0.5, true, Foo.BAZ, "blah", null, null),
+                label)
+    }
+}
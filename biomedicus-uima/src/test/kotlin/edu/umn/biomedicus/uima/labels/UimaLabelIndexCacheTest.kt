@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.biomedicus.uima.labels
+
+import edu.umn.nlpengine.Label
+import edu.umn.nlpengine.LabelMetadata
+import org.apache.uima.cas.CAS
+import org.apache.uima.resource.metadata.impl.TypeSystemDescription_impl
+import org.apache.uima.util.CasCreationUtils
+import kotlin.test.*
+
+@LabelMetadata(classpath = "test")
+data class Cached(override val startIndex: Int, override val endIndex: Int) : Label()
+
+class UimaLabelIndexCacheTest {
+    private val labelAdapters: LabelAdapters
+
+    private val ts = TypeSystemDescription_impl()
+
+    private lateinit var cas: CAS
+
+    private lateinit var labelIndexCache: UimaLabelIndexCache
+
+    private lateinit var adapter: LabelAdapter<Cached>
+
+    init {
+        val autoAdapters = AutoAdapters(LabelAdapters(null), null)
+        autoAdapters.addLabelClass(Cached::class.java)
+        autoAdapters.addToTypeSystem(ts)
+        labelAdapters = autoAdapters.labelAdapters
+    }
+
+    @BeforeTest
+    fun setUp() {
+        labelIndexCache = UimaLabelIndexCache()
+        cas = CasCreationUtils.createCas(ts, null, null)
+        cas.documentText = "some document text"
+        adapter = labelAdapters.getLabelAdapterFactory(Cached::class.java).create(cas, null)
+        adapter.labelToAnnotation(Cached(0, 4))
+    }
+
+    private fun labelIndex(): UimaLabelIndex<Cached> {
+        return labelIndexCache.labelIndex(cas, Cached::class.java) {
+            UimaLabelIndex(cas, adapter)
+        }
+    }
+
+    @Test
+    fun `index reused`() {
+        val first = labelIndex()
+
+        assertSame(first, labelIndex())
+        assertEquals(listOf(Cached(0, 4)), labelIndex().asList())
+    }
+
+    @Test
+    fun `index invalidated`() {
+        val first = labelIndex()
+        adapter.labelToAnnotation(Cached(5, 13))
+        labelIndexCache.invalidate(cas, Cached::class.java)
+
+        val second = labelIndex()
+
+        assertNotSame(first, second)
+        assertEquals(listOf(Cached(0, 4), Cached(5, 13)), second.asList())
+    }
+
+    @Test
+    fun `index invalidated by annotation added outside labeler`() {
+        val first = labelIndex()
+        adapter.labelToAnnotation(Cached(5, 13))
+
+        assertNotSame(first, labelIndex())
+    }
+
+    @Test
+    fun `index invalidated after annotation removed and another added`() {
+        val first = labelIndex()
+        val annotation = cas.getAnnotationIndex(adapter.type).iterator().next()
+        cas.removeFsFromIndexes(annotation)
+        adapter.labelToAnnotation(Cached(5, 13))
+        labelIndexCache.invalidate(cas, Cached::class.java)
+
+        val second = labelIndex()
+
+        assertNotSame(first, second)
+        assertEquals(listOf(Cached(5, 13)), second.asList())
+    }
+
+    @Test
+    fun `index dropped on reset`() {
+        val first = labelIndex()
+        cas.reset()
+        cas.documentText = "another document"
+        adapter.labelToAnnotation(Cached(0, 7))
+
+        val second = labelIndex()
+
+        assertNotSame(first, second)
+        assertEquals(listOf(Cached(0, 7)), second.asList())
+    }
+
+    @Test
+    fun `index dropped on clear`() {
+        val first = labelIndex()
+        labelIndexCache.clear()
+
+        assertNotSame(first, labelIndex())
+    }
+
+    @Test
+    fun `indices not shared between caches`() {
+        val first = labelIndex()
+        val other = UimaLabelIndexCache().labelIndex(cas, Cached::class.java) {
+            UimaLabelIndex(cas, adapter)
+        }
+
+        assertNotSame(first, other)
+        assertSame(first, labelIndex())
+    }
+}
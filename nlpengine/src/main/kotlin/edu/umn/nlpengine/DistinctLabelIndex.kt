@@ -77,6 +77,10 @@ class DistinctLabelIndex<T : Label> internal constructor(
             comparator: Comparator<T>, labels: Iterable<T>
     ) : this(labelClass, labels.sortedWith(comparator))
 
+    private val begins = IntArray(values.size) { values[it].startIndex }
+
+    private val ends = IntArray(values.size) { values[it].endIndex }
+
     override fun containing(startIndex: Int, endIndex: Int): LabelIndex<T> {
         val index = containingIndex(startIndex, endIndex)
 
@@ -108,11 +112,25 @@ class DistinctLabelIndex<T : Label> internal constructor(
 
     override fun last() = values.lastOrNull()
 
-    override fun atLocation(textRange: TextRange) = internalAtLocation(textRange)
+    override fun atLocation(textRange: TextRange) =
+            internalAtLocation(textRange.startIndex, textRange.endIndex)
+
+    override fun atLocation(startIndex: Int, endIndex: Int) =
+            internalAtLocation(startIndex, endIndex)
+
+    override fun firstAtLocation(textRange: TextRange) =
+            firstAtLocation(textRange.startIndex, textRange.endIndex)
+
+    override fun firstAtLocation(startIndex: Int, endIndex: Int) =
+            locationIndex(startIndex, endIndex).let { if (it != -1) values[it] else null }
 
     override fun contains(element: @UnsafeVariance T) = internalIndexOf(element) != -1
 
-    override fun containsSpan(textRange: TextRange) = internalContainsLocation(textRange)
+    override fun containsSpan(textRange: TextRange) =
+            internalContainsLocation(textRange.startIndex, textRange.endIndex)
+
+    override fun containsSpan(startIndex: Int, endIndex: Int) =
+            internalContainsLocation(startIndex, endIndex)
 
     override fun asList() = object : List<T> by Collections.unmodifiableList(values) {
         override fun indexOf(element: @UnsafeVariance T) = internalIndexOf(element)
@@ -140,33 +158,20 @@ class DistinctLabelIndex<T : Label> internal constructor(
             fromIndex: Int = 0,
             toIndex: Int = size
     ): Int {
-        if (values.isEmpty()) {
-            return -1
-        }
-
-        var index = values.binarySearchBy(startIndex, fromIndex, toIndex) { it.startIndex }
-
-        if (index < 0) {
-            index = -1 * (index + 1) - 1
-        }
+        val index = begins.upperBound(startIndex, fromIndex, toIndex) - 1
 
-        return if (index >= 0 && index < values.size && values[index].startIndex <= startIndex && values[index].endIndex >= endIndex) {
-            index
-        } else -1
+        return if (index >= fromIndex && ends[index] >= endIndex) index else -1
     }
 
     internal fun internalAtLocation(
-            textRange: TextRange,
+            startIndex: Int,
+            endIndex: Int,
             fromIndex: Int = 0,
-            toIndex: Int = values.size
+            toIndex: Int = size
     ): Collection<T> {
-        val index = values.binarySearch(textRange, Comparator { o1, o2 ->
-            o1.compareStart(o2)
-        }, fromIndex, toIndex)
+        val index = locationIndex(startIndex, endIndex, fromIndex, toIndex)
 
-        return if (index >= 0 && values[index].endIndex == textRange.endIndex) {
-            listOf(values[index])
-        } else emptyList()
+        return if (index != -1) listOf(values[index]) else emptyList()
     }
 
     internal fun internalIndexOf(
@@ -174,23 +179,33 @@ class DistinctLabelIndex<T : Label> internal constructor(
             fromIndex: Int = 0,
             toIndex: Int = size
     ): Int {
-        val index = values.binarySearch(element, Comparator { o1, o2 ->
-            o1.compareStart(o2)
-        }, fromIndex, toIndex)
+        val index = locationIndex(element.startIndex, element.endIndex, fromIndex, toIndex)
 
-        return if (index < 0 || values[index] != element) -1 else index
+        return if (index == -1 || values[index] != element) -1 else index
     }
 
     internal fun internalContainsLocation(
-            textRange: TextRange,
+            startIndex: Int,
+            endIndex: Int,
+            fromIndex: Int = 0,
+            toIndex: Int = size
+    ) = locationIndex(startIndex, endIndex, fromIndex, toIndex) != -1
+
+    /**
+     * Index of the label with the location [startIndex] to [endIndex] or -1 if there is no such
+     * label.
+     */
+    internal fun locationIndex(
+            startIndex: Int,
+            endIndex: Int,
             fromIndex: Int = 0,
             toIndex: Int = size
-    ): Boolean {
-        val index = values.binarySearch(textRange, Comparator { o1, o2 ->
-            o1.compareStart(o2)
-        }, fromIndex, toIndex)
+    ): Int {
+        val index = begins.lowerBound(startIndex, fromIndex, toIndex)
 
-        return index >= 0 && values[index].endIndex == textRange.endIndex
+        return if (index < toIndex && begins[index] == startIndex && ends[index] == endIndex) {
+            index
+        } else -1
     }
 
     /**
@@ -202,15 +217,9 @@ class DistinctLabelIndex<T : Label> internal constructor(
             fromIndex: Int = 0,
             toIndex: Int = size
     ): Int {
-        var i = values.binarySearchBy(index, fromIndex, toIndex) { it.startIndex }
+        val i = begins.lowerBound(index, fromIndex, toIndex)
 
-        if (i < 0) {
-            i = -1 * (i + 1)
-            if (i == toIndex) {
-                return -1
-            }
-        }
-        return i
+        return if (i == toIndex) -1 else i
     }
 
     /**
@@ -222,17 +231,9 @@ class DistinctLabelIndex<T : Label> internal constructor(
             fromIndex: Int = 0,
             toIndex: Int = size
     ): Int {
-        var i = values.binarySearchBy(index, fromIndex, toIndex) { it.endIndex }
-
-        if (i < 0) {
-            i = -1 * (i + 1)
-            if (i <= fromIndex) {
-                return -1
-            }
-            i--
-        }
+        val i = ends.upperBound(index, fromIndex, toIndex) - 1
 
-        return i
+        return if (i < fromIndex) -1 else i
     }
 
     /**
@@ -243,17 +244,9 @@ class DistinctLabelIndex<T : Label> internal constructor(
             fromIndex: Int = 0,
             toIndex: Int = size
     ) : Int {
-        var i = values.binarySearchBy(index - 1, fromIndex, toIndex) { it.startIndex }
+        val i = begins.lowerBound(index, fromIndex, toIndex) - 1
 
-        if (i < 0) {
-            i = -1 * (i + 1)
-            if (i <= fromIndex) {
-                return -1
-            }
-            i--
-        }
-
-        return i
+        return if (i < fromIndex) -1 else i
     }
 
 
@@ -287,7 +280,8 @@ class DistinctLabelIndex<T : Label> internal constructor(
 
         override fun isEmpty() = size == 0
 
-        override fun atLocation(textRange: TextRange) = internalAtLocation(textRange, left, right + 1)
+        override fun atLocation(textRange: TextRange) =
+                internalAtLocation(textRange.startIndex, textRange.endIndex, left, right + 1)
 
         override fun contains(element: @UnsafeVariance T) =
                 internalIndexOf(element, left, right + 1) != -1
@@ -295,8 +289,12 @@ class DistinctLabelIndex<T : Label> internal constructor(
         override fun containsAll(elements: Collection<@UnsafeVariance T>) =
                 elements.all { contains(it) }
 
-        override fun containsSpan(textRange: TextRange) =
-                internalContainsLocation(textRange, left, right + 1)
+        override fun containsSpan(textRange: TextRange) = internalContainsLocation(
+                textRange.startIndex,
+                textRange.endIndex,
+                left,
+                right + 1
+        )
 
         override fun toTheLeftOf(index: Int) = updateBounds(maxTextIndex = index)
 
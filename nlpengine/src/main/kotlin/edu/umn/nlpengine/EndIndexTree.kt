@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.nlpengine
+
+import java.lang.System
+
+/**
+ * An implicit binary tree over the end indices of a sorted array of labels, where every node stores
+ * the least and the greatest end index of the labels beneath it.
+ *
+ * Views of a label index select a range of the sorted array by start index and then filter it by
+ * end index. Searching for the next label in the range whose end index is within the bounds skips
+ * every subtree whose end indices are all outside of the bounds. When only one of the end bounds
+ * excludes labels, which is the case for containing, inside and the other queries on a label
+ * index, each search takes O(log n) time instead of scanning the labels in between.
+ *
+ * @param ends the end indices of the labels in their sorted order
+ */
+internal class EndIndexTree(ends: IntArray) {
+    private val leaves: Int
+
+    private val minEnds: IntArray
+
+    private val maxEnds: IntArray
+
+    init {
+        var leaves = 1
+        while (leaves < ends.size) leaves = leaves shl 1
+        this.leaves = leaves
+
+        minEnds = IntArray(2 * leaves) { Int.MAX_VALUE }
+        maxEnds = IntArray(2 * leaves) { Int.MIN_VALUE }
+        System.arraycopy(ends, 0, minEnds, leaves, ends.size)
+        System.arraycopy(ends, 0, maxEnds, leaves, ends.size)
+        for (node in leaves - 1 downTo 1) {
+            minEnds[node] = minOf(minEnds[2 * node], minEnds[2 * node + 1])
+            maxEnds[node] = maxOf(maxEnds[2 * node], maxEnds[2 * node + 1])
+        }
+    }
+
+    /**
+     * Returns the least array index from [fromIndex] until [toIndex] whose end index is in
+     * [minEnd]..[maxEnd] or -1 if there is no such index.
+     */
+    fun next(fromIndex: Int, toIndex: Int, minEnd: Int, maxEnd: Int): Int {
+        if (fromIndex >= toIndex) return -1
+        return next(1, 0, leaves, maxOf(fromIndex, 0), toIndex, minEnd, maxEnd)
+    }
+
+    /**
+     * Returns the greatest array index from [fromIndex] until [toIndex] whose end index is in
+     * [minEnd]..[maxEnd] or -1 if there is no such index.
+     */
+    fun previous(fromIndex: Int, toIndex: Int, minEnd: Int, maxEnd: Int): Int {
+        if (fromIndex >= toIndex) return -1
+        return previous(1, 0, leaves, maxOf(fromIndex, 0), toIndex, minEnd, maxEnd)
+    }
+
+    /**
+     * Returns the greatest end index of the labels from [fromIndex] until [toIndex].
+     */
+    fun max(fromIndex: Int, toIndex: Int): Int {
+        var result = Int.MIN_VALUE
+        var low = fromIndex + leaves
+        var high = toIndex + leaves
+        while (low < high) {
+            if (low and 1 == 1) result = maxOf(result, maxEnds[low++])
+            if (high and 1 == 1) result = maxOf(result, maxEnds[--high])
+            low = low ushr 1
+            high = high ushr 1
+        }
+        return result
+    }
+
+    private fun excluded(
+            node: Int,
+            nodeFrom: Int,
+            nodeTo: Int,
+            fromIndex: Int,
+            toIndex: Int,
+            minEnd: Int,
+            maxEnd: Int
+    ) = nodeTo <= fromIndex || nodeFrom >= toIndex || maxEnds[node] < minEnd
+            || minEnds[node] > maxEnd
+
+    private fun next(
+            node: Int,
+            nodeFrom: Int,
+            nodeTo: Int,
+            fromIndex: Int,
+            toIndex: Int,
+            minEnd: Int,
+            maxEnd: Int
+    ): Int {
+        if (excluded(node, nodeFrom, nodeTo, fromIndex, toIndex, minEnd, maxEnd)) return -1
+
+        if (node >= leaves) return nodeFrom
+
+        val middle = (nodeFrom + nodeTo) ushr 1
+        val result = next(2 * node, nodeFrom, middle, fromIndex, toIndex, minEnd, maxEnd)
+        if (result != -1) return result
+        return next(2 * node + 1, middle, nodeTo, fromIndex, toIndex, minEnd, maxEnd)
+    }
+
+    private fun previous(
+            node: Int,
+            nodeFrom: Int,
+            nodeTo: Int,
+            fromIndex: Int,
+            toIndex: Int,
+            minEnd: Int,
+            maxEnd: Int
+    ): Int {
+        if (excluded(node, nodeFrom, nodeTo, fromIndex, toIndex, minEnd, maxEnd)) return -1
+
+        if (node >= leaves) return nodeFrom
+
+        val middle = (nodeFrom + nodeTo) ushr 1
+        val result = previous(2 * node + 1, middle, nodeTo, fromIndex, toIndex, minEnd, maxEnd)
+        if (result != -1) return result
+        return previous(2 * node, nodeFrom, middle, fromIndex, toIndex, minEnd, maxEnd)
+    }
+}
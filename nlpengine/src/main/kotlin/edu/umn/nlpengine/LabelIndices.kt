@@ -269,3 +269,31 @@ fun <T : Label> emptyLabelIndex(clazz: Class<T>): LabelIndex<T> = object : Label
 
     override fun iterator(): Iterator<T> = emptyList<T>().iterator()
 }
+
+/**
+ * Least index in the range from [fromIndex] until [toIndex] of this sorted array with a value
+ * greater than or equal to [value], or [toIndex] if there is no such index.
+ */
+internal fun IntArray.lowerBound(value: Int, fromIndex: Int, toIndex: Int): Int {
+    var low = fromIndex
+    var high = toIndex
+    while (low < high) {
+        val mid = (low + high) ushr 1
+        if (this[mid] < value) low = mid + 1 else high = mid
+    }
+    return low
+}
+
+/**
+ * Least index in the range from [fromIndex] until [toIndex] of this sorted array with a value
+ * greater than [value], or [toIndex] if there is no such index.
+ */
+internal fun IntArray.upperBound(value: Int, fromIndex: Int, toIndex: Int): Int {
+    var low = fromIndex
+    var high = toIndex
+    while (low < high) {
+        val mid = (low + high) ushr 1
+        if (this[mid] <= value) low = mid + 1 else high = mid
+    }
+    return low
+}
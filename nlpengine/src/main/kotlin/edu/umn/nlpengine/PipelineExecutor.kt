@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.nlpengine
+
+import java.util.*
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.Semaphore
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReference
+import kotlin.concurrent.thread
+
+/**
+ * Runs every [Artifact] from an [ArtifactSource] through a sequence of [Runner] stages using a pool
+ * of worker threads.
+ *
+ * The thread calling [run] reads artifacts from the source using [ArtifactSource.tryAdvance] and
+ * hands them to the workers over a bounded queue. No more than [queueSize] plus [threadCount]
+ * artifacts are ever read from the source without having completed, so a slow stage applies
+ * backpressure all the way back to the source. Each worker runs all of the stages on an artifact in
+ * order, meaning every [Runner] will be called from multiple threads concurrently.
+ *
+ * @property source the source of artifacts, closed once it runs out of artifacts
+ * @property runners the pipeline stages, run in order on every artifact
+ * @property threadCount the number of worker threads
+ * @property queueSize the capacity of the queue of artifacts waiting on a worker
+ * @property ordered whether [onComplete] is called in the same order the artifacts were read from
+ * the source, if false it is called as soon as every stage finishes an artifact
+ * @property onComplete called once for every artifact after every stage has finished processing it,
+ * when not [ordered] it may be called from multiple threads concurrently
+ */
+class PipelineExecutor(
+        private val source: ArtifactSource,
+        private val runners: List<Runner>,
+        private val threadCount: Int = Runtime.getRuntime().availableProcessors(),
+        private val queueSize: Int = threadCount * 2,
+        private val ordered: Boolean = false,
+        private val onComplete: (Artifact) -> Unit = {}
+) {
+    init {
+        require(threadCount > 0) { "threadCount: $threadCount less than 1" }
+        require(queueSize > 0) { "queueSize: $queueSize less than 1" }
+    }
+
+    private val maxInFlight = queueSize + threadCount
+
+    private val queue = ArrayBlockingQueue<Work>(queueSize)
+
+    private val permits = Semaphore(maxInFlight)
+
+    private val failure = AtomicReference<Throwable?>()
+
+    private val completed = AtomicLong()
+
+    private val pending = HashMap<Long, Artifact>()
+
+    private var nextSequence = 0L
+
+    /**
+     * Processes every artifact from the source, blocking until they have all completed, and then
+     * calls [Runner.done] on each of the stages.
+     *
+     * If any stage throws an exception the source stops being read, the artifacts already read are
+     * discarded, and the first exception is rethrown from this method once the workers have stopped.
+     * [Runner.done] is not called in that case.
+     *
+     * @return the number of artifacts processed
+     */
+    fun run(): Long {
+        val workers = (1..threadCount).map {
+            thread(name = "pipeline-worker-$it", isDaemon = true) { work() }
+        }
+
+        try {
+            read()
+        } catch (e: Throwable) {
+            fail(e)
+        } finally {
+            repeat(threadCount) { queue.put(Work.END) }
+            source.close()
+        }
+
+        workers.forEach { it.join() }
+
+        failure.get()?.let { throw it }
+
+        runners.forEach { it.done() }
+
+        return completed.get()
+    }
+
+    private fun read() {
+        var sequence = 0L
+        while (failure.get() == null) {
+            permits.acquire()
+            if (failure.get() != null) break
+
+            var advanced = false
+            val hasNext = source.tryAdvance {
+                advanced = true
+                queue.put(Work(sequence++, it))
+            }
+
+            if (!advanced) permits.release()
+            if (!hasNext) break
+        }
+    }
+
+    private fun work() {
+        while (true) {
+            val work = queue.take()
+            val artifact = work.artifact ?: return
+
+            if (failure.get() != null) continue
+
+            try {
+                runners.forEach { it.processArtifact(artifact) }
+                complete(work.sequence, artifact)
+            } catch (e: Throwable) {
+                fail(e)
+            }
+        }
+    }
+
+    private fun complete(sequence: Long, artifact: Artifact) {
+        if (!ordered) {
+            onComplete(artifact)
+            completed.incrementAndGet()
+            permits.release()
+            return
+        }
+
+        synchronized(pending) {
+            pending[sequence] = artifact
+            while (true) {
+                val next = pending.remove(nextSequence) ?: break
+                nextSequence++
+                onComplete(next)
+                completed.incrementAndGet()
+                permits.release()
+            }
+        }
+    }
+
+    private fun fail(e: Throwable) {
+        if (!failure.compareAndSet(null, e)) {
+            // a stage may rethrow the same exception on several artifacts
+            failure.get()?.takeIf { it !== e }?.addSuppressed(e)
+        }
+        // wakes up the reading thread if it is waiting on an artifact that will never complete
+        permits.release(maxInFlight)
+    }
+
+    private class Work(val sequence: Long, val artifact: Artifact?) {
+        companion object {
+            val END = Work(-1, null)
+        }
+    }
+}
@@ -54,11 +54,25 @@ interface DocumentTask  {
 }
 
 
+/**
+ * Marks an [ArtifactTask] or [DocumentTask] whose instances can be run on more than one artifact.
+ * Instead of creating an instance per [Artifact], runners keep one instance per thread and call
+ * [reset] after every run, so the instance may keep state between runs that is expensive to
+ * create, but must clear any state specific to the artifact it ran on.
+ */
+interface ReusableTask {
+    /**
+     * Clears any state from the previous run, called after every run, including ones that failed.
+     */
+    fun reset() {}
+}
+
+
 /**
  * Responsible for performing processing on a [Document] from every [Artifact] in
  * the pipeline. Is instantiated once, globally, and [process] is called for every [Artifact],
- * potentially from multiple threads. Implementations are responsible for thread-safety in the
- * [process] method.
+ * potentially from multiple threads. Runners call [process] and [done] one at a time unless the
+ * implementation is a [ConcurrentProcessor].
  */
 interface DocumentsProcessor {
     /**
@@ -76,7 +90,9 @@ interface DocumentsProcessor {
 
 /**
  * Responsible for performing processing on every [Artifact] in the pipeline. Is instantiated once,
- * globally, and [process]
+ * globally, and [process] is called for every [Artifact], potentially from multiple threads.
+ * Runners call [process] and [done] one at a time unless the implementation is a
+ * [ConcurrentProcessor].
  */
 interface ArtifactsProcessor {
     /**
@@ -92,6 +108,13 @@ interface ArtifactsProcessor {
 }
 
 
+/**
+ * Marks an [ArtifactsProcessor] or [DocumentsProcessor] which is safe to have [process] called from
+ * multiple threads at the same time. Runners do not serialize the calls to these processors.
+ */
+interface ConcurrentProcessor
+
+
 /**
  * Internal interface for a class responsible for running some process on a pipeline component.
  */
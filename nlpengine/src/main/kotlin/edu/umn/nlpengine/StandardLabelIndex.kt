@@ -81,6 +81,12 @@ class StandardLabelIndex<T : Label> internal constructor(
         }
     }
 
+    private val begins = IntArray(values.size) { values[it].startIndex }
+
+    private val ends = IntArray(values.size) { values[it].endIndex }
+
+    private val endIndexTree by lazy { EndIndexTree(ends) }
+
     override fun containing(startIndex: Int, endIndex: Int): LabelIndex<T> = AscendingView(
             maxBegin = startIndex,
             minEnd = endIndex
@@ -114,11 +120,29 @@ class StandardLabelIndex<T : Label> internal constructor(
 
     override fun last() = values.lastOrNull()
 
-    override fun atLocation(textRange: TextRange) = internalAtLocation(textRange)
+    override fun atLocation(textRange: TextRange) =
+            internalAtLocation(textRange.startIndex, textRange.endIndex)
+
+    override fun atLocation(startIndex: Int, endIndex: Int) =
+            internalAtLocation(startIndex, endIndex)
+
+    override fun firstAtLocation(textRange: TextRange) =
+            firstAtLocation(textRange.startIndex, textRange.endIndex)
+
+    override fun firstAtLocation(startIndex: Int, endIndex: Int): T? {
+        val index = lowerBound(startIndex, endIndex, 0, size)
+        return if (index < size && begins[index] == startIndex && ends[index] == endIndex) {
+            values[index]
+        } else null
+    }
 
     override fun contains(element: @UnsafeVariance T) = internalIndexOf(element) != -1
 
-    override fun containsSpan(textRange: TextRange) = internalContainsLocation(textRange)
+    override fun containsSpan(textRange: TextRange) =
+            internalContainsLocation(textRange.startIndex, textRange.endIndex)
+
+    override fun containsSpan(startIndex: Int, endIndex: Int) =
+            internalContainsLocation(startIndex, endIndex)
 
     override fun asList() = object : List<T> by values {
         override fun indexOf(element: @UnsafeVariance T) = internalIndexOf(element)
@@ -141,27 +165,15 @@ class StandardLabelIndex<T : Label> internal constructor(
     }
 
     internal fun internalAtLocation(
-            textRange: TextRange,
+            begin: Int,
+            end: Int,
             fromIndex: Int = 0,
             toIndex: Int = size
     ): Collection<T> {
-        val index = values.binarySearch(textRange, Comparator { o1, o2 ->
-            o1.compareLocation(o2)
-        }, fromIndex, toIndex)
-
-        if (index < 0) return emptyList()
+        val left = lowerBound(begin, end, fromIndex, toIndex)
+        if (left == toIndex || begins[left] != begin || ends[left] != end) return emptyList()
 
-        var left = index
-        while (left > fromIndex && values[left - 1].locationEquals(textRange)) {
-            left--
-        }
-
-        var right = index
-        while (right < toIndex && values[right].locationEquals(textRange)) {
-            right++
-        }
-
-        return values.subList(left, right)
+        return values.subList(left, upperBound(begin, end, left, toIndex))
     }
 
     internal fun internalIndexOf(
@@ -169,29 +181,13 @@ class StandardLabelIndex<T : Label> internal constructor(
             fromIndex: Int = 0,
             toIndex: Int = size
     ): Int {
-        val result = values.binarySearch(element, Comparator { o1, o2 ->
-            o1.compareLocation(o2)
-        }, fromIndex, toIndex)
-
-        if (result < 0) return -1
-
-        val begin = values[result].startIndex
-        var left = result
-        var found: Int? = null
-        while (left > fromIndex && begin == values[--left].startIndex) {
-            if (values[left] == element) found = left
-        }
-        if (found != null) {
-            return found
-        }
-
-        val end = values[result].endIndex
-        var right = result
-        while (right < toIndex && end == values[right].endIndex) {
-            if (values[right] == element) return right
-            right++
+        val begin = element.startIndex
+        val end = element.endIndex
+        var index = lowerBound(begin, end, fromIndex, toIndex)
+        while (index < toIndex && begins[index] == begin && ends[index] == end) {
+            if (values[index] == element) return index
+            index++
         }
-
         return -1
     }
 
@@ -200,39 +196,25 @@ class StandardLabelIndex<T : Label> internal constructor(
             fromIndex: Int = 0,
             toIndex: Int = size
     ): Int {
-        val result = values.binarySearch(element, Comparator { o1, o2 ->
-            o1.compareLocation(o2)
-        }, fromIndex, toIndex)
-
-        if (result < 0) return -1
-
-        val end = values[result].endIndex
-        var right = result
-        var found: Int? = null
-        while (right < toIndex && end == values[right].endIndex) {
-            if (values[right] == element) found = right
-            right++
-        }
-        if (found != null) {
-            return found
-        }
-
-        val begin = values[result].startIndex
-        var left = result
-        while (left > fromIndex && begin == values[--left].startIndex) {
-            if (values[left] == element) return left
+        val begin = element.startIndex
+        val end = element.endIndex
+        var index = upperBound(begin, end, fromIndex, toIndex) - 1
+        while (index >= fromIndex && begins[index] == begin && ends[index] == end) {
+            if (values[index] == element) return index
+            index--
         }
-
         return -1
     }
 
     internal fun internalContainsLocation(
-            textRange: TextRange,
+            begin: Int,
+            end: Int,
             fromIndex: Int = 0,
             toIndex: Int = size
-    ) = 0 <= values.binarySearch(textRange, Comparator { o1, o2 ->
-        o1.compareLocation(o2)
-    }, fromIndex, toIndex)
+    ): Boolean {
+        val index = lowerBound(begin, end, fromIndex, toIndex)
+        return index < toIndex && begins[index] == begin && ends[index] == end
+    }
 
     /**
      * Least index with a location greater than or equal to the provided location
@@ -243,24 +225,9 @@ class StandardLabelIndex<T : Label> internal constructor(
             end: Int,
             fromIndex: Int = 0,
             toIndex: Int = size
-    ) = ceilingIndex(Span(begin, end), fromIndex, toIndex)
-
-    internal fun ceilingIndex(span: Span, fromIndex: Int = 0, toIndex: Int = values.size): Int {
-        var index = values.binarySearch(span, Comparator { o1, o2 ->
-            o1.compareLocation(o2)
-        }, fromIndex, toIndex)
-
-        if (index < 0) {
-            val insert = -1 * (index + 1)
-
-            return if (insert == toIndex) -1 else insert
-        }
-
-        while (index > fromIndex && values[index - 1].locationEquals(span)) {
-            index--
-        }
-
-        return index
+    ): Int {
+        val index = lowerBound(begin, end, fromIndex, toIndex)
+        return if (index == toIndex) -1 else index
     }
 
     /**
@@ -271,21 +238,7 @@ class StandardLabelIndex<T : Label> internal constructor(
             end: Int,
             fromIndex: Int = 0,
             toIndex: Int = size
-    ) = greaterIndex(Span(begin, end), fromIndex, toIndex)
-
-    internal fun greaterIndex(span: Span, fromIndex: Int = 0, toIndex: Int = values.size): Int {
-        val index = values.binarySearch(span, Comparator { o1, o2 ->
-            o1.compareLocation(o2)
-        }, fromIndex, toIndex)
-
-        if (index < 0) {
-            val insert = -1 * (index + 1)
-
-            return insert
-        }
-
-        return index + 1
-    }
+    ) = upperBound(begin, end, fromIndex, toIndex)
 
     internal fun floorBeginAndEnd(
             begin: Int,
@@ -295,7 +248,7 @@ class StandardLabelIndex<T : Label> internal constructor(
     ): Int {
         var index = floorIndex(begin, end, fromIndex, toIndex)
 
-        while (index >= 0 && values[index].endIndex > end) {
+        while (index >= 0 && ends[index] > end) {
             index--
         }
         return index
@@ -310,37 +263,50 @@ class StandardLabelIndex<T : Label> internal constructor(
             end: Int,
             fromIndex: Int = 0,
             toIndex: Int = size
-    ) = floorIndex(Span(begin, end), fromIndex, toIndex)
+    ): Int {
+        val index = upperBound(begin, end, fromIndex, toIndex) - 1
+        return if (index < fromIndex) -1 else index
+    }
 
     /**
-     * Greatest index with a location less than or equal to the provided location or -1
-     * if there is no such index
+     * Least index in the range with a location greater than or equal to [begin] and [end]
      */
-    internal fun floorIndex(
-            span: Span,
-            fromIndex: Int = 0,
-            toIndex: Int = values.size
-    ): Int {
-        var index = values.binarySearch(span, Comparator { o1, o2 ->
-            o1.compareLocation(o2)
-        }, fromIndex, toIndex)
-
-        if (index < 0) {
-            val insert = -1 * (index + 1)
-
-            return if (insert == fromIndex) -1 else insert - 1
+    private fun lowerBound(begin: Int, end: Int, fromIndex: Int, toIndex: Int): Int {
+        var low = fromIndex
+        var high = toIndex
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            val midBegin = begins[mid]
+            if (midBegin < begin || (midBegin == begin && ends[mid] < end)) {
+                low = mid + 1
+            } else {
+                high = mid
+            }
         }
+        return low
+    }
 
-        while (index < toIndex - 1 && values[index + 1].locationEquals(span)) {
-            index++
+    /**
+     * Least index in the range with a location greater than [begin] and [end]
+     */
+    private fun upperBound(begin: Int, end: Int, fromIndex: Int, toIndex: Int): Int {
+        var low = fromIndex
+        var high = toIndex
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            val midBegin = begins[mid]
+            if (midBegin < begin || (midBegin == begin && ends[mid] <= end)) {
+                low = mid + 1
+            } else {
+                high = mid
+            }
         }
-
-        return index
+        return low
     }
 
     internal fun beginsEqual(firstIndex: Int, secondIndex: Int) =
             firstIndex !in 0 until size || secondIndex !in 0 until size ||
-                    values[firstIndex].startIndex == values[secondIndex].startIndex
+                    begins[firstIndex] == begins[secondIndex]
 
     internal abstract inner class View(
             val minBegin: Int,
@@ -383,17 +349,39 @@ class StandardLabelIndex<T : Label> internal constructor(
 
         abstract fun prevIndex(index: Int): Int
 
+        /**
+         * The index in the backing array of the label at [localIndex] in this view, only valid
+         * when the view is [contiguous].
+         */
+        abstract fun globalIndex(localIndex: Int): Int
+
+        /**
+         * Whether every label from [left] to [right] is in this view, meaning its end index
+         * bounds do not exclude any labels and the view is exactly that range of the backing array.
+         */
+        val contiguous: Boolean by lazy {
+            right < left || (minEnd <= begins[left]
+                    && (maxEnd == Int.MAX_VALUE || endIndexTree.max(left, right + 1) <= maxEnd))
+        }
+
         override val size: Int by lazy {
-            var size = 0
-            var i = firstIndex
-            while (i != -1) {
-                size++
-                i = nextIndex(i)
+            if (contiguous) {
+                right - left + 1
+            } else {
+                var size = 0
+                var i = firstIndex
+                while (i != -1) {
+                    size++
+                    i = nextIndex(i)
+                }
+                size
             }
-            size
         }
 
         override fun first(): T? {
+            if (contiguous) {
+                return if (right < left) null else values[globalIndex(0)]
+            }
             if (firstIndex in 0 until values.size && firstIndex <= right && firstIndex >= left) {
                 return values[firstIndex]
             }
@@ -401,6 +389,9 @@ class StandardLabelIndex<T : Label> internal constructor(
         }
 
         override fun last(): T? {
+            if (contiguous) {
+                return if (right < left) null else values[globalIndex(right - left)]
+            }
             if (lastIndex in 0 until values.size && lastIndex <= right && lastIndex >= left) {
                 return values[lastIndex]
             }
@@ -409,10 +400,11 @@ class StandardLabelIndex<T : Label> internal constructor(
 
         override fun atLocation(textRange: TextRange): Collection<T> {
             if (!insideView(textRange)) return emptyList()
-            return internalAtLocation(textRange, left, right + 1)
+            return internalAtLocation(textRange.startIndex, textRange.endIndex, left, right + 1)
         }
 
-        override fun isEmpty() = size == 0
+        override fun isEmpty() =
+                if (contiguous) right < left else nextIndexAscending(left - 1) == -1
 
         override fun contains(element: @UnsafeVariance T): Boolean {
             if (!insideView(element)) return false
@@ -424,7 +416,12 @@ class StandardLabelIndex<T : Label> internal constructor(
 
         override fun containsSpan(textRange: TextRange): Boolean {
             if (!insideView(textRange)) return false
-            return internalContainsLocation(textRange, left, right + 1)
+            return internalContainsLocation(
+                    textRange.startIndex,
+                    textRange.endIndex,
+                    left,
+                    right + 1
+            )
         }
 
         override fun toTheLeftOf(index: Int) =
@@ -467,25 +464,21 @@ class StandardLabelIndex<T : Label> internal constructor(
         internal fun insideView(textRange: TextRange) =
                 textRange.startIndex in minBegin..maxBegin && textRange.endIndex in minEnd..maxEnd
 
-        internal fun endsInView(index: Int) =
-                if (index == -1 || values[index].endIndex in minEnd..maxEnd) index else -1
+        internal fun nextIndexAscending(index: Int) =
+                endIndexTree.next(index + 1, right + 1, minEnd, maxEnd)
 
-        internal fun nextIndexAscending(index: Int): Int {
-            var cursor = index
-            while (cursor < right) {
-                val result = endsInView(++cursor)
-                if (result != -1) return result
-            }
-            return -1
-        }
+        internal fun nextIndexDescending(index: Int) =
+                endIndexTree.previous(left, index, minEnd, maxEnd)
 
-        internal fun nextIndexDescending(index: Int): Int {
-            var cursor = index
-            while (cursor > left) {
-                val result = endsInView(--cursor)
-                if (result != -1) return result
-            }
-            return -1
+        /**
+         * The index in the backing array of the label at [index] after reversing the order of the
+         * labels in its group of labels with the same start index.
+         */
+        internal fun reverseInBeginGroup(index: Int): Int {
+            val begin = begins[index]
+            val groupStart = begins.lowerBound(begin, left, right + 1)
+            val groupEnd = begins.upperBound(begin, left, right + 1) - 1
+            return groupStart + groupEnd - index
         }
 
         internal fun nextAscendingReversing(index: Int): Int {
@@ -555,6 +548,12 @@ class StandardLabelIndex<T : Label> internal constructor(
             override val size: Int by lazy { this@View.size }
 
             override fun get(index: Int): T {
+                if (contiguous) {
+                    if (index !in 0 until size) {
+                        throw IndexOutOfBoundsException("index: $index is not in bounds")
+                    }
+                    return values[globalIndex(index)]
+                }
                 var realIndex = firstIndex
                 for (i in 0 until index) {
                     realIndex = nextIndex(realIndex)
@@ -565,7 +564,7 @@ class StandardLabelIndex<T : Label> internal constructor(
                 return values[realIndex]
             }
 
-            override fun isEmpty() = size == 0
+            override fun isEmpty() = this@View.isEmpty()
 
             override fun indexOf(element: @UnsafeVariance T): Int {
                 val listIterator = listIterator()
@@ -629,11 +628,16 @@ class StandardLabelIndex<T : Label> internal constructor(
             var localIndex = 0
 
             init {
-                while (localIndex < index) {
-                    if (!hasNext()) {
-                        throw IndexOutOfBoundsException("index: $index is not in bounds")
+                if (contiguous && index in 0 until size) {
+                    this.index = globalIndex(index)
+                    localIndex = index
+                } else {
+                    while (localIndex < index) {
+                        if (!hasNext()) {
+                            throw IndexOutOfBoundsException("index: $index is not in bounds")
+                        }
+                        next()
                     }
-                    next()
                 }
             }
 
@@ -711,6 +715,8 @@ class StandardLabelIndex<T : Label> internal constructor(
 
         override fun prevIndex(index: Int) = nextIndexDescending(index)
 
+        override fun globalIndex(localIndex: Int) = left + localIndex
+
         override fun ascendingStartIndex() = this
 
         override fun descendingStartIndex() = DescendingReversingView(
@@ -772,6 +778,8 @@ class StandardLabelIndex<T : Label> internal constructor(
 
         override fun prevIndex(index: Int) = nextIndexAscending(index)
 
+        override fun globalIndex(localIndex: Int) = right - localIndex
+
         override fun ascendingStartIndex() = AscendingReversingView(
                 minBegin = minBegin,
                 maxBegin = maxBegin,
@@ -833,6 +841,8 @@ class StandardLabelIndex<T : Label> internal constructor(
 
         override fun prevIndex(index: Int) = nextDescendingReversing(index)
 
+        override fun globalIndex(localIndex: Int) = reverseInBeginGroup(left + localIndex)
+
         override fun ascendingStartIndex() = this
 
         override fun descendingStartIndex() = DescendingView(
@@ -894,6 +904,8 @@ class StandardLabelIndex<T : Label> internal constructor(
 
         override fun prevIndex(index: Int) = nextAscendingReversing(index)
 
+        override fun globalIndex(localIndex: Int) = reverseInBeginGroup(right - localIndex)
+
         override fun ascendingStartIndex() = AscendingView(
                 minBegin = minBegin,
                 maxBegin = maxBegin,
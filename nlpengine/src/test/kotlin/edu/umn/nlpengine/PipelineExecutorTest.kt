@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2018 Regents of the University of Minnesota.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.umn.nlpengine
+
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.*
+
+class PipelineExecutorTest {
+
+    class TestSource(private val total: Int) : ArtifactSource {
+        private var next = 0
+
+        var closed = false
+
+        override fun estimateTotal() = total.toLong()
+
+        override fun tryAdvance(consumer: (Artifact) -> Unit): Boolean {
+            if (next >= total) return false
+            consumer(StandardArtifact((next++).toString()))
+            return true
+        }
+
+        override fun close() {
+            closed = true
+        }
+    }
+
+    class CountingRunner : Runner {
+        val processed = AtomicInteger()
+
+        val threads: MutableSet<String> = ConcurrentHashMap.newKeySet()
+
+        var done = false
+
+        override fun processArtifact(artifact: Artifact) {
+            threads.add(Thread.currentThread().name)
+            Thread.sleep((artifact.artifactID.toLong() * 7) % 5)
+            processed.incrementAndGet()
+        }
+
+        override fun done() {
+            done = true
+        }
+    }
+
+    @Test
+    fun testRunsEveryStage() {
+        val source = TestSource(100)
+        val first = CountingRunner()
+        val second = CountingRunner()
+
+        val count = PipelineExecutor(source, listOf(first, second), threadCount = 4).run()
+
+        assertEquals(100, count)
+        assertEquals(100, first.processed.get())
+        assertEquals(100, second.processed.get())
+        assertTrue(first.done)
+        assertTrue(second.done)
+        assertTrue(source.closed)
+    }
+
+    @Test
+    fun testUsesMultipleThreads() {
+        val runner = CountingRunner()
+
+        PipelineExecutor(TestSource(100), listOf(runner), threadCount = 4).run()
+
+        assertTrue(runner.threads.size > 1)
+    }
+
+    @Test
+    fun testOrderedCompletion() {
+        val completed = ArrayList<String>()
+
+        PipelineExecutor(
+                TestSource(100),
+                listOf(CountingRunner()),
+                threadCount = 4,
+                ordered = true
+        ) { completed.add(it.artifactID) }.run()
+
+        assertEquals((0 until 100).map { it.toString() }, completed)
+    }
+
+    @Test
+    fun testBackpressure() {
+        val inFlight = AtomicInteger()
+        var maxInFlight = 0
+
+        val source = object : ArtifactSource {
+            var next = 0
+
+            override fun estimateTotal() = 50L
+
+            override fun tryAdvance(consumer: (Artifact) -> Unit): Boolean {
+                if (next >= 50) return false
+                synchronized(this) {
+                    maxInFlight = maxOf(maxInFlight, inFlight.incrementAndGet())
+                }
+                consumer(StandardArtifact((next++).toString()))
+                return true
+            }
+
+            override fun close() {}
+        }
+
+        PipelineExecutor(source, listOf(CountingRunner()), threadCount = 2, queueSize = 3) {
+            inFlight.decrementAndGet()
+        }.run()
+
+        assertTrue(maxInFlight <= 5, "maxInFlight: $maxInFlight")
+    }
+
+    @Test
+    fun testFailure() {
+        val failing = object : Runner {
+            var done = false
+
+            override fun processArtifact(artifact: Artifact) {
+                if (artifact.artifactID == "10") throw IllegalStateException("failed")
+            }
+
+            override fun done() {
+                done = true
+            }
+        }
+        val source = TestSource(100)
+
+        val e = assertFailsWith<IllegalStateException> {
+            PipelineExecutor(source, listOf(failing), threadCount = 4, ordered = true).run()
+        }
+
+        assertEquals("failed", e.message)
+        assertFalse(failing.done)
+        assertTrue(source.closed)
+    }
+
+    @Test
+    fun testSameExceptionThrownTwice() {
+        val exception = IllegalStateException("failed")
+        val failing = object : Runner {
+            override fun processArtifact(artifact: Artifact) {
+                throw exception
+            }
+        }
+
+        val e = assertFailsWith<IllegalStateException> {
+            PipelineExecutor(TestSource(100), listOf(failing), threadCount = 4).run()
+        }
+
+        assertSame(exception, e)
+        assertTrue(e.suppressed.isEmpty())
+    }
+}
@@ -68,6 +68,85 @@ class StandardLabelIndexTest {
         assertFalse(it.hasNext())
     }
 
+    @Test
+    fun testBoundedViewsMatchFilter() {
+        val random = Random(42)
+        val labels = (0 until 500).map {
+            val start = random.nextInt(1000)
+            TestLabel(start, start + random.nextInt(50))
+        }.sortedWith(Comparator { o1, o2 -> o1.compareLocation(o2) })
+        val index = StandardLabelIndex(labels)
+
+        for (i in 0 until 200) {
+            val start = random.nextInt(1000)
+            val end = start + random.nextInt(60)
+
+            val containing = labels.filter { it.startIndex <= start && it.endIndex >= end }
+            assertEquals(containing, index.containing(start, end).asList())
+            assertEquals(containing.size, index.containing(start, end).size)
+            assertEquals(containing.reversed(), index.containing(start, end).descending().asList())
+
+            val inside = labels.filter { it.startIndex >= start && it.endIndex <= end }
+            assertEquals(inside, index.inside(start, end).asList())
+            assertEquals(inside.lastOrNull(), index.inside(start, end).last())
+
+            assertEquals(labels.filter { it.endIndex <= start },
+                    index.toTheLeftOf(start).asList())
+
+            assertEquals(
+                    labels.filter { it.startIndex in 100..start && it.endIndex >= end },
+                    index.toTheRightOf(100).containing(start, end).asList()
+            )
+            assertEquals(
+                    labels.filter { it.startIndex <= start && it.endIndex in end..end + 20 },
+                    index.toTheLeftOf(end + 20).containing(start, end).asList()
+            )
+        }
+    }
+
+    @Test
+    fun testViewRandomAccessMatchesIteration() {
+        val random = Random(7)
+        val labels = (0 until 300).map {
+            val start = random.nextInt(200)
+            TestLabel(start, start + random.nextInt(5))
+        }
+        val index = StandardLabelIndex(labels)
+
+        val views = listOf(
+                index.toTheRightOf(50),
+                index.toTheLeftOf(150),
+                index.inside(20, 120),
+                index.containing(60, 61),
+                index.descendingStartIndex(),
+                index.descendingEndIndex(),
+                index.toTheRightOf(50).descending(),
+                index.toTheRightOf(50).descendingEndIndex(),
+                index.toTheRightOf(50).descendingStartIndex()
+        )
+
+        for (view in views) {
+            val iterated = view.iterator().asSequence().toList()
+            val list = view.asList()
+            assertEquals(iterated.size, view.size)
+            assertEquals(iterated.isEmpty(), view.isEmpty())
+            assertEquals(iterated, (0 until list.size).map { list[it] })
+            assertEquals(iterated.firstOrNull(), view.first())
+            assertEquals(iterated.lastOrNull(), view.last())
+            if (iterated.size > 10) {
+                assertEquals(iterated.subList(5, iterated.size), list.listIterator(5).asSequence().toList())
+            }
+        }
+    }
+
+    @Test
+    fun testFirstAtLocation() {
+        assertEquals(TestLabel(9, 13), tested.firstAtLocation(9, 13))
+        assertEquals(TestLabel(0, 5), tested.firstAtLocation(TestLabel(0, 5)))
+        assertNull(tested.firstAtLocation(2, 5))
+        assertNull(tested.firstAtLocation(20, 25))
+    }
+
     @Test
     fun testInsideSpan() {
         val insideSpan = tested.inside(1, 8)